@@ -0,0 +1,482 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo analysis of a difficulty curve. Whole games are played headlessly against a simulated player, using the
+ * same GameModel, PumpkinModel and Difficulty as the real game, at the game's fixed tick rate. The report gives, for
+ * each round, the chance of surviving it, the lives lost in it and how often spirits escape, followed by the
+ * distribution of the time pumpkins spent Possessed before being tapped. Usage:
+ * 
+ * AnalyzeDifficulty [-curve file] [-games N] [-rounds N] [-reaction mean,sd] [-miss chance] [-seed N] [-threads N]
+ * 
+ * The curve defaults to the game's own assets/data/difficulty.json, or the built-in curve if there isn't one.
+ * 
+ * The simulated player never taps too early. They react to each pumpkin as it becomes Possessed, one at a time: the
+ * reaction time is normally distributed (in seconds, never less than MIN_REACTION), and a player busy with one pumpkin
+ * only starts reacting to the next once they have tapped it, or seen its spirit escape. With the -miss chance, they
+ * fail to notice a pumpkin at all.
+ * 
+ * Ticks in which nothing can happen (no timer runs out and the player taps nothing) are not stepped one at a time:
+ * each game jumps straight to the next tick in which something does, which is what makes large runs affordable.
+ * 
+ * Games are split into fixed batches, which run concurrently on a thread pool, one thread per processor by default.
+ * Each game has its own seed, derived from -seed and its number, so the report is the same however many threads run.
+ * 
+ * @author Charlie
+ */
+public class AnalyzeDifficulty {
+
+	/** The game's difficulty data, as copied into the game by CopyStaticAssets. */
+	private static final String CURVE_FILE = "./assets/data/difficulty.json";
+
+	/** Number of pumpkins - must match GameScreen. */
+	private static final int PUMPKINS = 5;
+
+	/** Number of games per batch. */
+	private static final int BATCH_SIZE = 1000;
+
+	/** The quickest the simulated player can react, in seconds. */
+	private static final float MIN_REACTION = 0.1f;
+
+	/** Width of each bar of the Possessed time distribution, in ticks (50ms). */
+	private static final int HISTOGRAM_TICKS = 3;
+
+	/** Number of bars in the Possessed time distribution; the last also counts anything longer. */
+	private static final int HISTOGRAM_BARS = 40;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		final List<String> argList = Arrays.asList(args);
+		final String curveFile = getArg(argList, "-curve", null);
+		final int games = Integer.parseInt(getArg(argList, "-games", "100000"));
+		final int rounds = Integer.parseInt(getArg(argList, "-rounds", "50"));
+		final String[] reaction = getArg(argList, "-reaction", "0.45,0.1").split(",");
+		final float reactionMean = Float.parseFloat(reaction[0]);
+		final float reactionDeviation = Float.parseFloat(reaction[1]);
+		final float missChance = Float.parseFloat(getArg(argList, "-miss", "0"));
+		final long seed = Long.parseLong(getArg(argList, "-seed", "1"));
+		final int threads = Integer.parseInt(getArg(argList, "-threads",
+				String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+		// Load the curve to analyze
+		final File file = new File(curveFile != null ? curveFile : CURVE_FILE);
+		final DifficultyCurve curve;
+		if (file.exists()) {
+			curve = DifficultyCurve.fromJson(readFile(file));
+			System.out.println("Curve: " + file.getPath());
+		} else if (curveFile == null) {
+			curve = DifficultyCurve.createDefault();
+			System.out.println("Curve: built-in");
+		} else {
+			throw new IOException("Curve not found: " + file);
+		}
+		System.out.println(String.format(Locale.ROOT, "Player: reaction %.3fs +/- %.3fs, misses %.1f%%",
+				reactionMean, reactionDeviation, missChance * 100.0f));
+
+		// One job per batch of games
+		final List<Batch> batches = new ArrayList<Batch>();
+		for (int first = 0; first < games; first += BATCH_SIZE) {
+			batches.add(new Batch(curve, rounds, reactionMean, reactionDeviation, missChance, seed, first, Math.min(
+					games, first + BATCH_SIZE)));
+		}
+
+		final long start = System.currentTimeMillis();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final Tally total = new Tally(rounds);
+		try {
+			final List<Future<Tally>> results = new ArrayList<Future<Tally>>();
+			for (final Batch batch : batches) {
+				results.add(executor.submit(batch));
+			}
+
+			// Merge in a fixed order, whichever batches finish first
+			for (final Future<Tally> result : results) {
+				try {
+					total.add(result.get());
+				} catch (ExecutionException e) {
+					System.out.println("Simulation failed");
+					e.getCause().printStackTrace(System.out);
+					System.exit(1);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		final long elapsed = Math.max(1, System.currentTimeMillis() - start);
+
+		long totalRounds = 0;
+		for (int round = 1; round <= rounds; round++) {
+			totalRounds += total.played[round];
+		}
+		System.out.println("Simulated " + games + " games, " + totalRounds + " rounds on " + threads + " threads in "
+				+ elapsed + "ms (" + totalRounds * 1000 / elapsed + " rounds/s)");
+		System.out.println();
+
+		report(curve, games, total);
+	}
+
+	/** Get the value following a flag, or a default if the flag is absent. */
+	private static String getArg(final List<String> argList, final String flag, final String defaultValue) {
+		final int index = argList.indexOf(flag);
+		return index != -1 ? argList.get(index + 1) : defaultValue;
+	}
+
+	/** Read a UTF-8 text file. */
+	private static String readFile(final File file) throws IOException {
+		final Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			final StringBuilder text = new StringBuilder();
+			final char[] buffer = new char[4096];
+			int count;
+			while ((count = reader.read(buffer)) != -1) {
+				text.append(buffer, 0, count);
+			}
+			return text.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/** Print the per-round table and the Possessed time distribution. */
+	private static void report(final DifficultyCurve curve, final int games, final Tally total) {
+
+		// Survived is of the games that played the round, Reached is of all games
+		System.out.println(String.format(Locale.ROOT, "%5s %7s %9s %9s %9s %11s %12s %8s", "Round", "Window",
+				"Played", "Survived", "Reached", "Lives lost", "Possessions", "Escaped"));
+
+		final Difficulty difficulty = new Difficulty(curve, 1, new RandomStream(0));
+		for (int round = 1; round < total.played.length && total.played[round] != 0; round++) {
+			difficulty.setRound(round);
+			final double played = total.played[round];
+			System.out.println(String.format(Locale.ROOT, "%5d %6.3fs %9d %8.2f%% %8.2f%% %11.3f %12.2f %7.2f%%",
+					round, difficulty.getPossessedTime(), total.played[round], total.survived[round] * 100.0
+							/ played, total.played[round] * 100.0 / games, total.livesLost[round] / played,
+					total.possessions[round] / played, total.escapes[round] * 100.0
+							/ Math.max(1, total.possessions[round])));
+		}
+
+		long exorcisms = 0;
+		for (final long count : total.possessedTicks) {
+			exorcisms += count;
+		}
+		System.out.println();
+		System.out.println("Time Possessed before being tapped (" + exorcisms + " pumpkins):");
+		for (int bar = 0; bar < HISTOGRAM_BARS; bar++) {
+			final long count = total.possessedTicks[bar];
+			if (count == 0) {
+				continue;
+			}
+			final int from = Math.round(bar * HISTOGRAM_TICKS * PumpkinGame.TICK * 1000);
+			final String range = bar == HISTOGRAM_BARS - 1 ? from + "ms+" : from + "-"
+					+ Math.round((bar + 1) * HISTOGRAM_TICKS * PumpkinGame.TICK * 1000) + "ms";
+			final double share = count * 100.0 / exorcisms;
+			final char[] chart = new char[(int) Math.round(share)];
+			Arrays.fill(chart, '#');
+			System.out.println(String.format(Locale.ROOT, "%11s %6.2f%% %s", range, share, new String(chart)));
+		}
+	}
+
+	/**
+	 * Totals over a number of games. Counts are indexed by round, from 1.
+	 * 
+	 * @author Charlie
+	 */
+	private static class Tally {
+
+		/** Number of games that played each round. */
+		final long[] played;
+
+		/** Number of games that survived each round. */
+		final long[] survived;
+
+		/** Total lives lost in each round. */
+		final long[] livesLost;
+
+		/** Total pumpkins that became Possessed in each round. */
+		final long[] possessions;
+
+		/** Total spirits that escaped in each round. */
+		final long[] escapes;
+
+		/** Distribution of the time from becoming Possessed to being tapped, in bars of HISTOGRAM_TICKS. */
+		final long[] possessedTicks = new long[HISTOGRAM_BARS];
+
+		Tally(final int rounds) {
+			played = new long[rounds + 1];
+			survived = new long[rounds + 1];
+			livesLost = new long[rounds + 1];
+			possessions = new long[rounds + 1];
+			escapes = new long[rounds + 1];
+		}
+
+		/** Add another tally's totals to this one. */
+		void add(final Tally other) {
+			for (int round = 0; round < played.length; round++) {
+				played[round] += other.played[round];
+				survived[round] += other.survived[round];
+				livesLost[round] += other.livesLost[round];
+				possessions[round] += other.possessions[round];
+				escapes[round] += other.escapes[round];
+			}
+			for (int bar = 0; bar < HISTOGRAM_BARS; bar++) {
+				possessedTicks[bar] += other.possessedTicks[bar];
+			}
+		}
+	}
+
+	/**
+	 * Job to play a batch of games.
+	 * 
+	 * @author Charlie
+	 */
+	private static class Batch implements Callable<Tally> {
+
+		private final DifficultyCurve curve;
+		private final int rounds;
+		private final float reactionMean;
+		private final float reactionDeviation;
+		private final float missChance;
+		private final long seed;
+		private final int first;
+		private final int end;
+
+		/**
+		 * @param curve
+		 *            The curve to play.
+		 * @param rounds
+		 *            The most rounds to play in each game.
+		 * @param reactionMean
+		 *            The player's mean reaction time.
+		 * @param reactionDeviation
+		 *            The standard deviation of the player's reaction time.
+		 * @param missChance
+		 *            The chance of the player not noticing a pumpkin.
+		 * @param seed
+		 *            The seed for the whole analysis.
+		 * @param first
+		 *            The number of the first game in the batch.
+		 * @param end
+		 *            The number after the last game in the batch.
+		 */
+		Batch(final DifficultyCurve curve, final int rounds, final float reactionMean, final float reactionDeviation,
+				final float missChance, final long seed, final int first, final int end) {
+			this.curve = curve;
+			this.rounds = rounds;
+			this.reactionMean = reactionMean;
+			this.reactionDeviation = reactionDeviation;
+			this.missChance = missChance;
+			this.seed = seed;
+			this.first = first;
+			this.end = end;
+		}
+
+		@Override
+		public Tally call() {
+			final Tally tally = new Tally(rounds);
+			for (int game = first; game < end; game++) {
+				play(seed + game, tally);
+			}
+			return tally;
+		}
+
+		/** Play a single game, adding its results to a tally. */
+		private void play(final long gameSeed, final Tally tally) {
+			final GameModel model = new GameModel(PUMPKINS, curve, new RandomStreams(gameSeed));
+
+			// The player draws from a stream of their own, distinct from the game's (see RandomStreams), so changing
+			// the player leaves the pumpkins' timers untouched
+			final Player player = new Player(model, new RandomStream(RandomStream.mix(gameSeed) - 1), tally);
+			model.setListener(player);
+
+			for (int round = 1; round <= rounds; round++) {
+				tally.played[round]++;
+				player.round = round;
+				final int livesAtStart = model.livesLeft;
+
+				while (model.running) {
+					player.act();
+
+					// Nothing happens until the next tap or the next timer runs out, so play all the ticks up to then
+					// as one update; the update's events are reported at its last tick, as they happen in that tick
+					final long ticks = Math.max(1, Math.min(player.ticksUntilTap(), ticksUntilExpiry(model)));
+					player.tick += ticks - 1;
+					model.update(ticks * PumpkinGame.TICK);
+					player.tick++;
+				}
+
+				tally.livesLost[round] += livesAtStart - model.livesLeft;
+				if (model.isGameOver()) {
+					return;
+				}
+				tally.survived[round]++;
+				model.nextRound();
+				player.reset();
+			}
+		}
+
+		/**
+		 * Get the number of ticks until the first of a model's timers (the round's or a pumpkin's) runs out, including
+		 * the tick in which it does. One update of that many ticks is the same as that many updates of one tick, but
+		 * for the rounding of the timers, which can rarely move an event by a tick.
+		 */
+		private static long ticksUntilExpiry(final GameModel model) {
+			float timer = model.timeLeft;
+			for (final PumpkinModel pumpkin : model.pumpkins) {
+				timer = Math.min(timer, pumpkin.timer);
+			}
+			return (long) Math.ceil(timer / PumpkinGame.TICK);
+		}
+
+		/**
+		 * The simulated player, who taps each pumpkin some time after it becomes Possessed.
+		 * 
+		 * @author Charlie
+		 */
+		private class Player implements GameModel.Listener {
+
+			private final GameModel model;
+			private final RandomStream random;
+			private final Tally tally;
+
+			/** The round being played. */
+			int round;
+
+			/** Number of ticks played. */
+			long tick;
+
+			/** The tick at which each pumpkin became Possessed, if it is waiting to be tapped. */
+			private final long[] possessedAt = new long[PUMPKINS];
+
+			/** The tick at which each pumpkin will be tapped, or -1 if it isn't going to be. */
+			private final long[] tapAt = new long[PUMPKINS];
+
+			/** The length of the reaction to each pumpkin that will be tapped, in ticks. */
+			private final long[] reactionTicks = new long[PUMPKINS];
+
+			/** The tick at which the player finishes reacting to the pumpkins they have already seen. */
+			private long busyUntil;
+
+			Player(final GameModel model, final RandomStream random, final Tally tally) {
+				this.model = model;
+				this.random = random;
+				this.tally = tally;
+				reset();
+			}
+
+			/** Forget about any pumpkins, as they are all reset between rounds. */
+			void reset() {
+				Arrays.fill(tapAt, -1);
+				busyUntil = tick;
+			}
+
+			/** Get the number of ticks until the next tap is due, or Long.MAX_VALUE if none is. */
+			long ticksUntilTap() {
+				long ticks = Long.MAX_VALUE;
+				for (int i = 0; i < PUMPKINS; i++) {
+					if (tapAt[i] != -1) {
+						ticks = Math.min(ticks, tapAt[i] - tick);
+					}
+				}
+				return ticks;
+			}
+
+			/** Tap the pumpkins due to be tapped, before the tick is played. */
+			void act() {
+				for (int i = 0; i < PUMPKINS; i++) {
+					if (tapAt[i] != -1 && tapAt[i] <= tick) {
+						tapAt[i] = -1;
+						final int bar = (int) ((tick - possessedAt[i]) / HISTOGRAM_TICKS);
+						tally.possessedTicks[Math.min(bar, HISTOGRAM_BARS - 1)]++;
+						model.pumpkins[i].touch();
+					}
+				}
+			}
+
+			/** Get the index of a pumpkin. */
+			private int indexOf(final PumpkinModel pumpkin) {
+				for (int i = 0; i < PUMPKINS; i++) {
+					if (model.pumpkins[i] == pumpkin) {
+						return i;
+					}
+				}
+				throw new IllegalStateException();
+			}
+
+			/** Draw a reaction time, in seconds, from a normal distribution (Box-Muller). */
+			private float reactionTime() {
+				final double gaussian = Math.sqrt(-2.0 * Math.log(1.0f - random.random()))
+						* Math.cos(2.0 * Math.PI * random.random());
+				return Math.max(MIN_REACTION, (float) (reactionMean + reactionDeviation * gaussian));
+			}
+
+			@Override
+			public void pumpkinPossessed(final PumpkinModel pumpkin) {
+				tally.possessions[round]++;
+				if (random.randomBoolean(missChance)) {
+					return;
+				}
+
+				// Start reacting once done with any other pumpkins
+				final int i = indexOf(pumpkin);
+				possessedAt[i] = tick;
+				reactionTicks[i] = Math.round(reactionTime() / PumpkinGame.TICK);
+				busyUntil = Math.max(busyUntil, tick) + reactionTicks[i];
+				tapAt[i] = busyUntil;
+			}
+
+			@Override
+			public void spiritReleased(final PumpkinModel pumpkin) {
+				// Too late; the player sees it escape, and doesn't tap
+				tally.escapes[round]++;
+				final int i = indexOf(pumpkin);
+				if (tapAt[i] == -1) {
+					return;
+				}
+
+				// The rest of the reaction to it is not needed, so the pumpkins queued behind it are tapped sooner
+				final long saved = tapAt[i] - Math.max(tick, tapAt[i] - reactionTicks[i]);
+				for (int j = 0; j < PUMPKINS; j++) {
+					if (tapAt[j] > tapAt[i]) {
+						tapAt[j] -= saved;
+					}
+				}
+				busyUntil -= saved;
+				tapAt[i] = -1;
+			}
+
+			@Override
+			public void pumpkinExorcised(final PumpkinModel pumpkin) {
+			}
+
+			@Override
+			public void lifeLost() {
+			}
+
+			@Override
+			public void gameOver() {
+			}
+
+			@Override
+			public void roundOver() {
+			}
+
+			@Override
+			public void roundStarted() {
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * A single micro-benchmark, run by the Benchmarks harness. Subclasses perform a fixed number of operations per call to
+ * run(int), and return a value derived from the work done so that the JIT cannot eliminate it.
+ * 
+ * @author Charlie
+ */
+abstract class Benchmark {
+
+	/** The name of the benchmark, as it appears in reports and baselines. */
+	final String name;
+
+	/**
+	 * Construct a new Benchmark.
+	 * 
+	 * @param name
+	 *            The name of the benchmark.
+	 */
+	public Benchmark(final String name) {
+		this.name = name;
+	}
+
+	/** Prepare any state required by the benchmark. Called once, before any warmup. */
+	public void setup() {
+	}
+
+	/**
+	 * Run the benchmarked operation a number of times.
+	 * 
+	 * @param ops
+	 *            The number of operations to perform.
+	 * @return A value derived from the results of the operations.
+	 */
+	public abstract long run(int ops);
+}
@@ -0,0 +1,230 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Micro-benchmark harness for the per-frame hot paths. Each benchmark is warmed up, then measured over a number of
+ * iterations; the report gives the mean time per operation and the number of bytes allocated per operation.
+ * 
+ * Results can be saved to a baseline file, and a later run can be compared against that baseline to catch frame-budget
+ * regressions. Usage:
+ * 
+ * Benchmarks [-save file] [-compare file] [-filter text] [-allocation-only]
+ * 
+ * A benchmark regresses if it is more than REGRESSION_THRESHOLD slower than the baseline, or allocates more than
+ * ALLOCATION_THRESHOLD bytes per operation more (so a benchmark that did not allocate at all regresses as soon as it
+ * does). A baseline may leave out the time ("-"), in which case only allocation is compared.
+ * 
+ * The stored baseline is bench/baseline.csv, which holds allocation only, as timings depend on the machine; it is saved
+ * with -allocation-only. To check timings too, save a baseline on the machine used for comparison.
+ * 
+ * Only the model-level code is covered here: SpriteBatch and TextureAtlas both require a GL context, so PumpkinActor
+ * rendering and atlas lookups cannot be measured outside of a running backend.
+ * 
+ * @author Charlie
+ */
+public class Benchmarks {
+
+	/** Number of warmup iterations, the results of which are discarded. */
+	private static final int WARMUP_ITERATIONS = 5;
+
+	/** Number of measured iterations. */
+	private static final int MEASURED_ITERATIONS = 10;
+
+	/** Target duration of a single iteration, in nanoseconds. */
+	private static final long ITERATION_NANOS = 200L * 1000L * 1000L;
+
+	/** A relative slowdown greater than this is reported as a regression when comparing against a baseline. */
+	private static final double REGRESSION_THRESHOLD = 0.10;
+
+	/** An increase in bytes allocated per operation greater than this is reported as a regression. */
+	private static final double ALLOCATION_THRESHOLD = 0.5;
+
+	/** Sink for benchmark results, to prevent dead-code elimination. */
+	static volatile long sink;
+
+	/** The result of running a single benchmark. */
+	static class Result {
+
+		/** Mean time per operation, in nanoseconds, or NaN if not known (in a baseline without timings). */
+		final double nanosPerOp;
+
+		/** Mean bytes allocated per operation, or a negative value if allocation could not be measured. */
+		final double bytesPerOp;
+
+		public Result(final double nanosPerOp, final double bytesPerOp) {
+			this.nanosPerOp = nanosPerOp;
+			this.bytesPerOp = bytesPerOp;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		String saveFile = null;
+		String compareFile = null;
+		String filter = null;
+		boolean allocationOnly = false;
+
+		for (int i = 0; i < args.length; i++) {
+			if ("-save".equals(args[i]) && i + 1 < args.length) {
+				saveFile = args[++i];
+			} else if ("-compare".equals(args[i]) && i + 1 < args.length) {
+				compareFile = args[++i];
+			} else if ("-filter".equals(args[i]) && i + 1 < args.length) {
+				filter = args[++i];
+			} else if ("-allocation-only".equals(args[i])) {
+				allocationOnly = true;
+			} else {
+				System.err.println("Usage: Benchmarks [-save file] [-compare file] [-filter text] [-allocation-only]");
+				System.exit(1);
+			}
+		}
+
+		final Map<String, Result> baseline = compareFile != null ? load(new File(compareFile)) : null;
+		final Map<String, Result> results = new HashMap<String, Result>();
+		final List<String> order = new ArrayList<String>();
+		boolean regression = false;
+
+		System.out.println(String.format(Locale.ROOT, "%-36s %12s %12s %10s", "Benchmark", "ns/op", "B/op",
+				"vs base"));
+
+		for (final Benchmark benchmark : HotPathBenchmarks.all()) {
+			if (filter != null && !benchmark.name.contains(filter)) {
+				continue;
+			}
+
+			final Result result = measure(benchmark);
+			results.put(benchmark.name, result);
+			order.add(benchmark.name);
+
+			String comparison = "";
+			if (baseline != null && baseline.containsKey(benchmark.name)) {
+				final Result base = baseline.get(benchmark.name);
+				boolean regressed = false;
+				if (!Double.isNaN(base.nanosPerOp)) {
+					final double change = result.nanosPerOp / base.nanosPerOp - 1.0;
+					comparison = String.format(Locale.ROOT, "%+9.1f%%", change * 100.0);
+					regressed = change > REGRESSION_THRESHOLD;
+				}
+				if (base.bytesPerOp >= 0 && result.bytesPerOp >= 0) {
+					final double increase = result.bytesPerOp - base.bytesPerOp;
+					comparison += String.format(Locale.ROOT, " %+.2f B", increase);
+					regressed |= increase > ALLOCATION_THRESHOLD;
+				}
+				if (regressed) {
+					comparison += " REGRESSION";
+					regression = true;
+				}
+			}
+
+			System.out.println(String.format(Locale.ROOT, "%-36s %12.2f %12.2f %s", benchmark.name,
+					result.nanosPerOp, result.bytesPerOp, comparison));
+		}
+
+		if (saveFile != null) {
+			save(new File(saveFile), order, results, allocationOnly);
+		}
+
+		if (regression) {
+			System.exit(2);
+		}
+	}
+
+	/** Warm up and measure a single benchmark. */
+	private static Result measure(final Benchmark benchmark) {
+
+		benchmark.setup();
+
+		// Calibrate the number of operations per iteration, so each iteration takes roughly ITERATION_NANOS
+		int ops = 1;
+		while (true) {
+			final long start = System.nanoTime();
+			sink += benchmark.run(ops);
+			final long elapsed = System.nanoTime() - start;
+			if (elapsed > ITERATION_NANOS / 10 || ops >= (1 << 28)) {
+				final long scaled = (long) ops * ITERATION_NANOS / Math.max(1, elapsed);
+				ops = (int) Math.max(1, Math.min(Integer.MAX_VALUE, scaled));
+				break;
+			}
+			ops *= 2;
+		}
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink += benchmark.run(ops);
+		}
+
+		long totalNanos = 0;
+		long totalBytes = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			final long bytesBefore = allocatedBytes();
+			final long start = System.nanoTime();
+			sink += benchmark.run(ops);
+			totalNanos += System.nanoTime() - start;
+			totalBytes += allocatedBytes() - bytesBefore;
+		}
+
+		final double totalOps = (double) ops * MEASURED_ITERATIONS;
+		final double bytesPerOp = allocatedBytes() < 0 ? -1.0 : totalBytes / totalOps;
+		return new Result(totalNanos / totalOps, bytesPerOp);
+	}
+
+	/** Get the number of bytes allocated by the current thread, or -1 if the JVM cannot report it. */
+	private static long allocatedBytes() {
+		try {
+			final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		} catch (ClassCastException e) {
+			return -1;
+		} catch (UnsupportedOperationException e) {
+			return -1;
+		}
+	}
+
+	/** Save results to a baseline file, one benchmark per line, optionally leaving out the times. */
+	private static void save(final File file, final List<String> order, final Map<String, Result> results,
+			final boolean allocationOnly) throws IOException {
+		final PrintWriter writer = new PrintWriter(new FileWriter(file));
+		try {
+			writer.println("# benchmark,ns/op,B/op");
+			for (final String name : order) {
+				final Result result = results.get(name);
+				final String nanos = allocationOnly ? "-" : String.format(Locale.ROOT, "%.3f", result.nanosPerOp);
+				writer.println(String.format(Locale.ROOT, "%s,%s,%.3f", name, nanos, result.bytesPerOp));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/** Load results from a baseline file previously written by save(). */
+	private static Map<String, Result> load(final File file) throws IOException {
+		final Map<String, Result> results = new HashMap<String, Result>();
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("#") || line.trim().length() == 0) {
+					continue;
+				}
+				final String[] fields = line.split(",");
+				final double nanos = "-".equals(fields[1]) ? Double.NaN : Double.parseDouble(fields[1]);
+				results.put(fields[0], new Result(nanos, Double.parseDouble(fields[2])));
+			}
+		} finally {
+			reader.close();
+		}
+		return results;
+	}
+}
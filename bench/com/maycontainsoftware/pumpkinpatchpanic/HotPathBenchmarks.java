@@ -0,0 +1,307 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The set of benchmarks covering code that runs every frame, or on every pumpkin state change.
+ * 
+ * @author Charlie
+ */
+class HotPathBenchmarks {
+
+	/** Duration of a single 60Hz frame. */
+	private static final float FRAME = 1.0f / 60.0f;
+
+	/** A round that is part-way along the difficulty curve. */
+	private static final int ROUND = 12;
+
+	/** The default difficulty curve. */
+	private static final DifficultyCurve CURVE = DifficultyCurve.createDefault();
+
+	/** The game constants for ROUND. */
+	private static final Difficulty DIFFICULTY = new Difficulty(CURVE, ROUND, new RandomStream(1));
+
+	/** Get all benchmarks, in the order they should be reported. */
+	static List<Benchmark> all() {
+		final List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		// Difficulty calculations, made once per round
+
+		benchmarks.add(new Benchmark("Difficulty.setRound") {
+			@Override
+			public long run(final int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					DIFFICULTY.setRound(1 + (i & 63));
+					sum += Float.floatToIntBits(DIFFICULTY.possessedTime);
+				}
+				DIFFICULTY.setRound(ROUND);
+				return sum;
+			}
+		});
+
+		// Random numbers, drawn for every timer
+
+		benchmarks.add(new Benchmark("RandomStream.random") {
+
+			private final RandomStream random = new RandomStream(1);
+
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += random.random(0.5f, 4.0f);
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		// Difficulty draws, made on every pumpkin timer transition
+
+		benchmarks.add(new Benchmark("Difficulty.getDormantTime") {
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += DIFFICULTY.getDormantTime();
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		benchmarks.add(new Benchmark("Difficulty.getPossessionTime") {
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += DIFFICULTY.getPossessionTime();
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		benchmarks.add(new Benchmark("Difficulty.getPossessionDelay") {
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += DIFFICULTY.getPossessionDelay();
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		benchmarks.add(new Benchmark("Difficulty.getRecoveryChance") {
+			@Override
+			public long run(final int ops) {
+				long count = 0;
+				for (int i = 0; i < ops; i++) {
+					if (DIFFICULTY.getRecoveryChance()) {
+						count++;
+					}
+				}
+				return count;
+			}
+		});
+
+		benchmarks.add(new Benchmark("Difficulty.getRecoveryTime") {
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += DIFFICULTY.getRecoveryTime();
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		benchmarks.add(new Benchmark("Difficulty.getPossessedTime") {
+			@Override
+			public long run(final int ops) {
+				float sum = 0.0f;
+				for (int i = 0; i < ops; i++) {
+					sum += DIFFICULTY.getPossessedTime();
+				}
+				return Float.floatToIntBits(sum);
+			}
+		});
+
+		// Game model, i.e. the logic behind PumpkinActor.act() and the GameScreen round timer
+
+		benchmarks.add(new Benchmark("GameModel.update") {
+
+			private GameModel model;
+
+			@Override
+			public void setup() {
+				model = new GameModel(5, CURVE, new RandomStreams(1));
+			}
+
+			@Override
+			public long run(final int ops) {
+				long sum = 0;
+				for (int i = 0; i < ops; i++) {
+					model.update(FRAME);
+
+					// Play perfectly, so the game keeps progressing through rounds
+					for (final PumpkinModel pumpkin : model.pumpkins) {
+						if (pumpkin.state == PumpkinModel.State.Possessed) {
+							pumpkin.touch();
+						}
+					}
+
+					if (!model.running) {
+						if (model.isGameOver()) {
+							model = new GameModel(5, CURVE, new RandomStreams(1));
+						} else {
+							model.nextRound();
+						}
+					}
+					sum += model.currentRound;
+				}
+				return sum;
+			}
+		});
+
+		// HUD
+
+		benchmarks.add(new Benchmark("DigitBuffer.setTime") {
+
+			private final DigitBuffer buffer = new DigitBuffer();
+
+			@Override
+			public long run(final int ops) {
+				long sum = 0;
+				float time = GameModel.ROUND_TIME;
+				for (int i = 0; i < ops; i++) {
+					// As per GameScreen.Hud.updateTimeLeft()
+					if (buffer.setTime((int) Math.ceil(time))) {
+						sum += buffer.text.length();
+					}
+					time -= FRAME;
+					if (time < 0.0f) {
+						time = GameModel.ROUND_TIME;
+					}
+				}
+				return sum;
+			}
+		});
+
+		// Sound effects, against a fake backend that does no audio
+
+		benchmarks.add(new Benchmark("SoundBank.play") {
+
+			private SoundBank bank;
+
+			private long nextId;
+
+			@Override
+			public void setup() {
+				bank = new SoundBank(new SoundBank.Backend() {
+					@Override
+					public long play(final SoundBank.Effect effect) {
+						return nextId++;
+					}
+
+					@Override
+					public void stop(final SoundBank.Effect effect, final long id) {
+					}
+				});
+			}
+
+			@Override
+			public long run(final int ops) {
+				long played = 0;
+				for (int i = 0; i < ops; i++) {
+					// A player spamming taps every frame, with the odd possession and lost life
+					bank.update(FRAME);
+					if (bank.play(SoundBank.Effect.THUMP) != SoundBank.NOT_PLAYED) {
+						played++;
+					}
+					if ((i & 15) == 0) {
+						bank.play(SoundBank.Effect.HISS);
+					}
+					if ((i & 63) == 0) {
+						bank.play(SoundBank.Effect.KNOCK);
+					}
+				}
+				return played;
+			}
+		});
+
+		// Scenery models
+
+		benchmarks.add(new Benchmark("CloudModel.move") {
+
+			private CloudModel model;
+
+			@Override
+			public void setup() {
+				model = new CloudModel(560, 300, AtlasRegionId.CLOUD_A, new RandomStream(1));
+			}
+
+			@Override
+			public long run(final int ops) {
+				for (int i = 0; i < ops; i++) {
+					// As per Cloud.CloudAction
+					if (model.isOffscreen()) {
+						model.restart();
+					}
+					model.move(FRAME);
+				}
+				return Float.floatToIntBits(model.x);
+			}
+		});
+
+		benchmarks.add(new Benchmark("MoonModel.update") {
+
+			private MoonModel model;
+
+			@Override
+			public void setup() {
+				model = new MoonModel();
+			}
+
+			@Override
+			public long run(final int ops) {
+				for (int i = 0; i < ops; i++) {
+					model.update(FRAME);
+				}
+				return Float.floatToIntBits(model.angle);
+			}
+		});
+
+		benchmarks.add(new Benchmark("OwlModel.update") {
+
+			private OwlModel model;
+
+			@Override
+			public void setup() {
+				model = new OwlModel(227, 720 - 233, new RandomStream(1));
+			}
+
+			@Override
+			public long run(final int ops) {
+				long changes = 0;
+				for (int i = 0; i < ops; i++) {
+					// As per Owl.OwlAction, without the graphic updates
+					model.update(FRAME);
+					if (model.isTimeToChangeEyes()) {
+						model.pickNewEyeDirection();
+						model.resetEyeChangeTimer();
+						changes++;
+					}
+					if (model.isTimeToBlinkChange()) {
+						model.eyesOpen = !model.eyesOpen;
+						model.resetEyeBlinkTimer();
+						changes++;
+					}
+				}
+				return changes;
+			}
+		});
+
+		return benchmarks;
+	}
+}
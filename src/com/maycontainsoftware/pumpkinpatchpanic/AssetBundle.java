@@ -0,0 +1,369 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A single file holding many assets, as written by util.BuildBundle. Where the bundle can be memory-mapped, it is
+ * mapped once and each entry is read straight from the mapping, so loading opens one file rather than one per asset.
+ * FileHandle cannot map an internal file on Android, where it lies inside the APK, so there only the index is read up
+ * front and each entry is read from the file when it is needed; nothing holds a copy of the whole bundle. Each entry's
+ * checksum is verified the first time it is read.
+ * 
+ * File layout, all values big-endian:
+ * 
+ * <pre>
+ * magic ("PPBN"), version, entry count,
+ * for each entry: name (as DataOutput.writeUTF), offset, length, CRC-32,
+ * entry data...
+ * </pre>
+ * 
+ * The bundle is a FileHandleResolver: names in the bundle resolve to handles that read from it, and any other name
+ * resolves to an internal file, so assets that must remain separate files (such as audio, which Android plays from
+ * file descriptors) are unaffected.
+ * 
+ * @author Charlie
+ */
+class AssetBundle implements FileHandleResolver {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = AssetBundle.class.getSimpleName();
+
+	/** Name of the bundle, in internal storage. */
+	static final String FILE_NAME = "assets.bundle";
+
+	/** Magic number at the start of the file: "PPBN". */
+	static final int MAGIC = 0x5050424E;
+
+	/** Current file version. */
+	static final int VERSION = 1;
+
+	/** An entry in the bundle's index. */
+	private static class Entry {
+		final int offset;
+		final int length;
+		final int crc;
+		boolean verified;
+
+		Entry(final int offset, final int length, final int crc) {
+			this.offset = offset;
+			this.length = length;
+			this.crc = crc;
+		}
+	}
+
+	/** The bundle file. */
+	private final FileHandle file;
+
+	/** The bundle's contents, if it could be mapped, or null if entries are read from the file. */
+	private final ByteBuffer buffer;
+
+	/** The index, by name. */
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/** Resolver for names that are not in the bundle. */
+	private final FileHandleResolver internal = new InternalFileHandleResolver();
+
+	/**
+	 * Get a resolver for the game's assets: the bundle, if there is one, or plain internal files if not.
+	 * 
+	 * @param bundleFile
+	 *            The bundle file.
+	 */
+	static FileHandleResolver createResolver(final FileHandle bundleFile) {
+		if (!bundleFile.exists()) {
+			return new InternalFileHandleResolver();
+		}
+		return new AssetBundle(bundleFile);
+	}
+
+	/**
+	 * Open a bundle and read its index.
+	 * 
+	 * @param file
+	 *            The bundle file.
+	 */
+	public AssetBundle(final FileHandle file) {
+		final long start = System.nanoTime();
+
+		this.file = file;
+
+		ByteBuffer mapped;
+		try {
+			mapped = file.map();
+		} catch (GdxRuntimeException e) {
+			// Not mappable (e.g. within the APK) - read entries from the file instead
+			mapped = null;
+		}
+		buffer = mapped;
+
+		final InputStream stream = buffer != null ? new ByteBufferInputStream(buffer.duplicate())
+				: new BufferedInputStream(file.read());
+		final DataInputStream in = new DataInputStream(stream);
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new GdxRuntimeException("Not an asset bundle: " + file);
+			}
+			final int version = in.readInt();
+			if (version != VERSION) {
+				throw new GdxRuntimeException("Unsupported asset bundle version " + version + ": " + file);
+			}
+			final int count = in.readInt();
+
+			for (int i = 0; i < count; i++) {
+				final String name = in.readUTF();
+				final int offset = in.readInt();
+				final int length = in.readInt();
+				final int crc = in.readInt();
+
+				if (offset < 0 || length < 0 || (buffer != null && offset + length > buffer.limit())) {
+					throw new GdxRuntimeException("Entry " + name + " lies outside asset bundle " + file);
+				}
+				entries.put(name, new Entry(offset, length, crc));
+			}
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to read asset bundle index: " + file, e);
+		} finally {
+			close(in);
+		}
+
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Opened " + file + ": " + entries.size() + " entries in " + (System.nanoTime() - start)
+					/ 1000 + "us");
+		}
+	}
+
+	@Override
+	public FileHandle resolve(final String fileName) {
+		if (entries.containsKey(fileName)) {
+			return new BundleFileHandle(this, fileName);
+		}
+		return internal.resolve(fileName);
+	}
+
+	/**
+	 * Get an entry's contents, verifying its checksum if it has not been read before.
+	 * 
+	 * @param name
+	 *            The entry's name.
+	 * @return A new buffer positioned at the start of the entry, sharing the bundle's contents if it is mapped.
+	 */
+	ByteBuffer get(final String name) {
+		final Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new GdxRuntimeException("Not in asset bundle: " + name);
+		}
+
+		final ByteBuffer slice;
+		if (buffer != null) {
+			synchronized (buffer) {
+				buffer.limit(entry.offset + entry.length);
+				buffer.position(entry.offset);
+				slice = buffer.slice();
+				buffer.clear();
+			}
+		} else {
+			slice = read(name, entry);
+		}
+
+		synchronized (entry) {
+			if (!entry.verified) {
+				final CRC32 crc = new CRC32();
+				final byte[] chunk = new byte[4096];
+				final ByteBuffer check = slice.duplicate();
+				while (check.hasRemaining()) {
+					final int n = Math.min(chunk.length, check.remaining());
+					check.get(chunk, 0, n);
+					crc.update(chunk, 0, n);
+				}
+				if ((int) crc.getValue() != entry.crc) {
+					throw new GdxRuntimeException("Checksum mismatch in asset bundle: " + name);
+				}
+				entry.verified = true;
+			}
+		}
+
+		return slice;
+	}
+
+	/**
+	 * Read an entry from the file, for a bundle that could not be mapped. The entry is copied into a direct buffer of
+	 * its own, as texture data must be, which is freed along with whatever loaded it.
+	 * 
+	 * @param name
+	 *            The entry's name.
+	 * @param entry
+	 *            The entry.
+	 * @return The entry's contents.
+	 */
+	private ByteBuffer read(final String name, final Entry entry) {
+		final byte[] bytes = new byte[entry.length];
+		final DataInputStream in = new DataInputStream(file.read());
+		try {
+			long skipped = 0;
+			while (skipped < entry.offset) {
+				long n = in.skip(entry.offset - skipped);
+				if (n <= 0) {
+					// skip() may make no progress without being at the end, so read a byte to find out
+					if (in.read() == -1) {
+						throw new EOFException();
+					}
+					n = 1;
+				}
+				skipped += n;
+			}
+			in.readFully(bytes);
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Entry " + name + " lies outside asset bundle " + file, e);
+		} finally {
+			close(in);
+		}
+
+		final ByteBuffer data = ByteBuffer.allocateDirect(bytes.length);
+		data.put(bytes);
+		data.flip();
+		return data;
+	}
+
+	/** Close a stream, ignoring any error. */
+	private static void close(final InputStream in) {
+		try {
+			in.close();
+		} catch (IOException e) {
+			// Ignore - the stream was only read from
+		}
+	}
+
+	/** Check whether the bundle holds an entry. */
+	boolean contains(final String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * FileHandle for an entry in a bundle. The bundle is flat, so the parent of every entry is the bundle's root.
+	 * 
+	 * @author Charlie
+	 */
+	static class BundleFileHandle extends FileHandle {
+
+		/** The bundle. */
+		private final AssetBundle bundle;
+
+		BundleFileHandle(final AssetBundle bundle, final String name) {
+			super(name, FileType.Internal);
+			this.bundle = bundle;
+		}
+
+		@Override
+		public InputStream read() {
+			if (isDirectory()) {
+				throw new GdxRuntimeException("Cannot read a directory: " + this);
+			}
+			return new ByteBufferInputStream(bundle.get(path()));
+		}
+
+		@Override
+		public byte[] readBytes() {
+			final ByteBuffer data = bundle.get(path());
+			final byte[] bytes = new byte[data.remaining()];
+			data.get(bytes);
+			return bytes;
+		}
+
+		@Override
+		public ByteBuffer map() {
+			return bundle.get(path());
+		}
+
+		@Override
+		public long length() {
+			return isDirectory() ? 0 : bundle.entries.get(path()).length;
+		}
+
+		@Override
+		public boolean exists() {
+			return isDirectory() || bundle.contains(path());
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return path().length() == 0;
+		}
+
+		@Override
+		public FileHandle parent() {
+			return new BundleFileHandle(bundle, "");
+		}
+
+		@Override
+		public FileHandle child(final String name) {
+			return bundle.resolve(isDirectory() ? name : path() + "/" + name);
+		}
+
+		@Override
+		public FileHandle sibling(final String name) {
+			return bundle.resolve(name);
+		}
+	}
+
+	/**
+	 * InputStream reading from a ByteBuffer.
+	 * 
+	 * @author Charlie
+	 */
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			final int n = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, n);
+			return n;
+		}
+
+		@Override
+		public long skip(final long n) {
+			final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+	}
+}
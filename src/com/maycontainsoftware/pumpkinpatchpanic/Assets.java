@@ -0,0 +1,307 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Loads GameAssets through the AssetManager, tier by tier. The critical tier is queued first, so that the main menu can
+ * be shown as soon as it has loaded, while the background tier continues to load behind it; on-demand assets are only
+ * queued when a screen asks for them. The AssetManager is updated once per frame by PumpkinGame.
+ * 
+ * Screens also acquire the assets they use, and release them when they are disposed. An asset that has been acquired
+ * at some point, but is no longer referenced by any screen, is unloaded after a grace period, so that quickly moving
+ * back and forth between screens does not reload it.
+ * 
+ * Loading progress is weighted by the work needed to load each asset and its dependencies (atlas and font pages), as
+ * estimated at build time and recorded in the asset manifest (see util.GenerateAssetManifest). Without a manifest,
+ * every asset counts equally.
+ * 
+ * @author Charlie
+ */
+class Assets {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = Assets.class.getSimpleName();
+
+	/** The AssetManager that does the actual loading. */
+	final AssetManager manager;
+
+	/** Name of the asset manifest, in internal storage. */
+	static final String MANIFEST_FILE_NAME = "assets.manifest";
+
+	/** Default time an unreferenced asset is kept before unloading, in seconds. */
+	static final float DEFAULT_GRACE_PERIOD = 10.0f;
+
+	// Per-asset state, indexed by ordinal
+
+	/** Whether each asset has been queued. */
+	private final boolean[] queued = new boolean[GameAsset.values().length];
+
+	/** The number of screens referencing each asset. */
+	private final int[] references = new int[GameAsset.values().length];
+
+	/** Whether each asset has ever been acquired, and so is managed by reference count. */
+	private final boolean[] scoped = new boolean[GameAsset.values().length];
+
+	/** How long each scoped asset has been unreferenced. */
+	private final float[] unreferencedTime = new float[GameAsset.values().length];
+
+	/** The files each asset loads, dependencies first and the asset itself last. */
+	private final String[][] parts = new String[GameAsset.values().length][];
+
+	/** The estimated cost of loading each of the files in parts. */
+	private final float[][] partCosts = new float[GameAsset.values().length][];
+
+	/** Time an unreferenced asset is kept before unloading, in seconds. */
+	float gracePeriod = DEFAULT_GRACE_PERIOD;
+
+	/** The number of assets unloaded so far, so that anything caching loaded assets can tell when to drop them. */
+	private int unloadCount;
+
+	/**
+	 * Construct a new Assets object.
+	 * 
+	 * @param manager
+	 *            The AssetManager.
+	 */
+	public Assets(final AssetManager manager) {
+		this.manager = manager;
+
+		for (final GameAsset asset : GameAsset.values()) {
+			parts[asset.ordinal()] = new String[] { asset.fileName };
+			partCosts[asset.ordinal()] = new float[] { 1.0f };
+		}
+	}
+
+	/**
+	 * Read load costs from the asset manifest. Each line of the manifest is an asset's name, a density, then one of the
+	 * files the asset loads at that density, the file's size and the estimated cost of loading it, separated by tabs.
+	 * 
+	 * @param file
+	 *            The manifest.
+	 * @param density
+	 *            The density of the atlases in use; lines for other densities are ignored.
+	 */
+	void loadManifest(final FileHandle file, final Density density) {
+		final String[][] manifestParts = new String[GameAsset.values().length][];
+		final float[][] manifestCosts = new float[GameAsset.values().length][];
+		final int[] counts = new int[GameAsset.values().length];
+
+		try {
+			final BufferedReader reader = new BufferedReader(file.reader(), 1024);
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.length() == 0 || line.charAt(0) == '#') {
+						continue;
+					}
+					final String[] fields = line.split("\\t");
+					if (Density.valueOf(fields[1]) != density) {
+						continue;
+					}
+					final int index = GameAsset.valueOf(fields[0]).ordinal();
+					if (manifestParts[index] == null) {
+						manifestParts[index] = new String[4];
+						manifestCosts[index] = new float[4];
+					} else if (counts[index] == manifestParts[index].length) {
+						manifestParts[index] = copyOf(manifestParts[index], counts[index] * 2);
+						manifestCosts[index] = copyOf(manifestCosts[index], counts[index] * 2);
+					}
+					manifestParts[index][counts[index]] = fields[2];
+					manifestCosts[index][counts[index]] = Float.parseFloat(fields[4]);
+					counts[index]++;
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			Gdx.app.error(TAG, "Unable to read " + file, e);
+			return;
+		} catch (RuntimeException e) {
+			// Malformed, or out of step with GameAsset - progress is still shown, just less evenly
+			Gdx.app.error(TAG, "Unable to read " + file, e);
+			return;
+		}
+
+		for (final GameAsset asset : GameAsset.values()) {
+			final int index = asset.ordinal();
+			if (counts[index] != 0) {
+				parts[index] = copyOf(manifestParts[index], counts[index]);
+				partCosts[index] = copyOf(manifestCosts[index], counts[index]);
+			}
+		}
+	}
+
+	private static String[] copyOf(final String[] array, final int length) {
+		final String[] copy = new String[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(length, array.length));
+		return copy;
+	}
+
+	private static float[] copyOf(final float[] array, final int length) {
+		final float[] copy = new float[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(length, array.length));
+		return copy;
+	}
+
+	/** Queue every asset in a tier. */
+	void queue(final GameAsset.Tier tier) {
+		for (final GameAsset asset : GameAsset.values()) {
+			if (asset.tier == tier) {
+				queue(asset);
+			}
+		}
+	}
+
+	/** Queue an asset, if it has not already been queued. */
+	void queue(final GameAsset asset) {
+		if (!queued[asset.ordinal()]) {
+			if (DEBUG) {
+				Gdx.app.log(TAG, "queue(" + asset + ")");
+			}
+			manager.load(asset.fileName, asset.type);
+			queued[asset.ordinal()] = true;
+		}
+	}
+
+	/**
+	 * Acquire a set of assets, queueing any that are not loaded.
+	 * 
+	 * @param assets
+	 *            The assets.
+	 */
+	void acquire(final GameAsset[] assets) {
+		for (final GameAsset asset : assets) {
+			final int index = asset.ordinal();
+			references[index]++;
+			scoped[index] = true;
+			unreferencedTime[index] = 0.0f;
+			queue(asset);
+		}
+	}
+
+	/**
+	 * Release a set of previously-acquired assets.
+	 * 
+	 * @param assets
+	 *            The assets.
+	 */
+	void release(final GameAsset[] assets) {
+		for (final GameAsset asset : assets) {
+			final int index = asset.ordinal();
+			if (references[index] == 0) {
+				throw new IllegalStateException("Asset released more times than acquired: " + asset);
+			}
+			references[index]--;
+		}
+	}
+
+	/**
+	 * Continue loading queued assets, and unload any scoped assets that have been unreferenced for the grace period.
+	 * 
+	 * @param delta
+	 *            Time since the last update, in seconds.
+	 * @return True if every queued asset has loaded.
+	 */
+	boolean update(final float delta) {
+		final boolean loaded = manager.update();
+
+		for (final GameAsset asset : GameAsset.values()) {
+			final int index = asset.ordinal();
+			if (!scoped[index] || references[index] != 0 || !queued[index]) {
+				continue;
+			}
+
+			// Wait for an asset to finish loading before unloading it
+			if (!manager.isLoaded(asset.fileName)) {
+				continue;
+			}
+
+			unreferencedTime[index] += delta;
+			if (unreferencedTime[index] >= gracePeriod) {
+				if (DEBUG) {
+					Gdx.app.log(TAG, "unload(" + asset + ")");
+				}
+				manager.unload(asset.fileName);
+				queued[index] = false;
+				unreferencedTime[index] = 0.0f;
+				unloadCount++;
+			}
+		}
+
+		return loaded;
+	}
+
+	/** Get the number of assets unloaded so far. */
+	int getUnloadCount() {
+		return unloadCount;
+	}
+
+	/** Get whether an asset has loaded. */
+	boolean isLoaded(final GameAsset asset) {
+		return manager.isLoaded(asset.fileName);
+	}
+
+	/** Get whether every asset in a tier has loaded. */
+	boolean isLoaded(final GameAsset.Tier tier) {
+		for (final GameAsset asset : GameAsset.values()) {
+			if (asset.tier == tier && !isLoaded(asset)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Get the fraction of the work of loading a tier that has been done. */
+	float getProgress(final GameAsset.Tier tier) {
+		float total = 0;
+		float loaded = 0;
+		for (final GameAsset asset : GameAsset.values()) {
+			if (asset.tier != tier) {
+				continue;
+			}
+			final int index = asset.ordinal();
+			final boolean assetLoaded = isLoaded(asset);
+			for (int i = 0; i < parts[index].length; i++) {
+				total += partCosts[index][i];
+				// Dependencies finish loading before the asset itself
+				if (assetLoaded || manager.isLoaded(parts[index][i])) {
+					loaded += partCosts[index][i];
+				}
+			}
+		}
+		return total == 0 ? 1.0f : loaded / total;
+	}
+
+	/** Queue a set of assets, and block until they have all loaded. */
+	void finishLoading(final GameAsset[] assets) {
+		for (final GameAsset asset : assets) {
+			queue(asset);
+		}
+		for (final GameAsset asset : assets) {
+			while (!isLoaded(asset)) {
+				manager.update();
+			}
+		}
+	}
+
+	/**
+	 * Get a loaded asset.
+	 * 
+	 * @param asset
+	 *            The asset.
+	 * @param type
+	 *            The asset type.
+	 * @return The asset.
+	 */
+	<T> T get(final GameAsset asset, final Class<T> type) {
+		return manager.get(asset.fileName, type);
+	}
+}
@@ -0,0 +1,81 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * Regions in atlas.atlas.
+ * 
+ * Generated by util.GenerateRegionIds - do not edit.
+ */
+enum AtlasRegionId implements RegionId {
+	ARROW_LEFT_DOWN("arrow_left_down"),
+	ARROW_LEFT_UP("arrow_left_up"),
+	ARROW_RIGHT_DOWN("arrow_right_down"),
+	ARROW_RIGHT_UP("arrow_right_up"),
+	CLOUD_A("cloud_a"),
+	CLOUD_B("cloud_b"),
+	COG_DOWN("cog_down"),
+	COG_UP("cog_up"),
+	FACE1("face1"),
+	FACE1_EVIL("face1_evil"),
+	FACE2("face2"),
+	FACE2_EVIL("face2_evil"),
+	FACE3("face3"),
+	FACE3_EVIL("face3_evil"),
+	FACE4("face4"),
+	FACE4_EVIL("face4_evil"),
+	FACE5("face5"),
+	FACE5_EVIL("face5_evil"),
+	FACE6("face6"),
+	FACE6_EVIL("face6_evil"),
+	FACE7("face7"),
+	FACE7_EVIL("face7_evil"),
+	FACE8("face8"),
+	FACE8_EVIL("face8_evil"),
+	FACE9("face9"),
+	FACE9_EVIL("face9_evil"),
+	GHOST("ghost"),
+	HELP_DOWN("help_down"),
+	HELP_UP("help_up"),
+	HILLSIDE("hillside"),
+	HOLE("hole"),
+	HORIZONTAL_FLASH_BG("horizontal_flash_bg"),
+	LIFE("life"),
+	LIFE_PLUS("life_plus"),
+	LOGO("logo"),
+	MENU_DOWN("menu_down"),
+	MENU_UP("menu_up"),
+	MOON("moon"),
+	MUSIC_DOWN("music_down"),
+	MUSIC_UP("music_up"),
+	NO_MUSIC_DOWN("no_music_down"),
+	NO_MUSIC_UP("no_music_up"),
+	NO_SOUND_DOWN("no_sound_down"),
+	NO_SOUND_UP("no_sound_up"),
+	OWL_BLINK("owl_blink"),
+	OWL_DOWN("owl_down"),
+	OWL_LEFT("owl_left"),
+	OWL_POKE("owl_poke"),
+	OWL_RIGHT("owl_right"),
+	PLANT("plant"),
+	PLAY_DOWN("play_down"),
+	PLAY_UP("play_up"),
+	PUMPKIN("pumpkin"),
+	RESET_SCORE_DOWN("reset_score_down"),
+	RESET_SCORE_UP("reset_score_up"),
+	SKY("sky"),
+	SOUND_DOWN("sound_down"),
+	SOUND_UP("sound_up"),
+	TREE_LEFT("tree_left"),
+	TREE_RIGHT("tree_right"),
+	;
+
+	private final String regionName;
+
+	private AtlasRegionId(final String regionName) {
+		this.regionName = regionName;
+	}
+
+	@Override
+	public String getRegionName() {
+		return regionName;
+	}
+}
@@ -1,15 +1,24 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 
 /** Actor that represents a cloud. */
 class Cloud extends Image {
 
+	/** The cloud's model. */
+	private final CloudModel model;
+
+	/** The game, for the interpolation between ticks. */
+	private final PumpkinGame game;
+
 	/** Constructor. */
-	public Cloud(final CloudModel model, final TextureAtlas atlas) {
-		super(atlas.findRegion(model.regionName));
+	public Cloud(final CloudModel model, final PumpkinGame game, final RegionRegistry<AtlasRegionId> regions) {
+		super(regions.get(model.region));
+
+		this.model = model;
+		this.game = game;
 
 		// Clouds are semi-transparent
 		setColor(1.0f, 1.0f, 1.0f, 0.9f);
@@ -18,6 +27,13 @@ class Cloud extends Image {
 		addAction(new CloudAction(model));
 	}
 
+	@Override
+	public void draw(SpriteBatch batch, float parentAlpha) {
+		// Draw where the cloud is between ticks
+		setX(model.getX(game.tickAlpha));
+		super.draw(batch, parentAlpha);
+	}
+
 	/** Action to update cloud position and recalculate speed and position after it leaves the screen. */
 	static class CloudAction extends Action {
 
@@ -1,7 +1,5 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import com.badlogic.gdx.math.MathUtils;
-
 /**
  * CloudModel represents a Cloud's logical data model.
  * 
@@ -9,8 +7,8 @@ import com.badlogic.gdx.math.MathUtils;
  */
 public class CloudModel {
 
-	/** The name of the TextureRegion in the default atlas. */
-	final String regionName;
+	/** The cloud's region in the default atlas. */
+	final AtlasRegionId region;
 
 	/** The width of the TextureRegion. */
 	private final int width;
@@ -21,9 +19,15 @@ public class CloudModel {
 	/** The cloud's x-coordinate (updated in CloudAction.) */
 	float x;
 
+	/** The cloud's x-coordinate before the last update, for interpolation. */
+	private float previousX;
+
 	/** The cloud's current velocity, in the form of x-coordinate change in pixels/second. */
 	private float dx;
 
+	/** The random numbers for the cloud's position and speed. */
+	private final RandomStream random;
+
 	/** Minimum cloud speed. */
 	private static final float MIN_SPEED = 10;
 
@@ -37,24 +41,39 @@ public class CloudModel {
 	 *            The fixed y-coordinate.
 	 * @param width
 	 *            The width of the actor.
-	 * @param regionName
-	 *            The name of the cloud's TextureRegion in the default TextureAtlas
+	 * @param region
+	 *            The cloud's region in the default TextureAtlas
+	 * @param random
+	 *            The random numbers for the cloud's position and speed.
 	 */
-	public CloudModel(final float y, final int width, final String regionName) {
+	public CloudModel(final float y, final int width, final AtlasRegionId region, final RandomStream random) {
 		this.y = y;
 		this.width = width;
-		this.regionName = regionName;
+		this.region = region;
+		this.random = random;
 
 		// Set initial position and speed
-		this.x = MathUtils.random(-width, 1280.0f);
-		this.dx = -MathUtils.random(MIN_SPEED, MAX_SPEED);
+		this.x = random.random(-width, 1280.0f);
+		this.dx = -random.random(MIN_SPEED, MAX_SPEED);
+		this.previousX = x;
 	}
 
 	/** Update the model wrt time. */
 	public void move(final float delta) {
+		previousX = x;
 		x += dx * delta;
 	}
 
+	/**
+	 * Get the cloud's x-coordinate between the last two updates.
+	 * 
+	 * @param alpha
+	 *            How far from the previous update to the last, from 0 to 1.
+	 */
+	public float getX(final float alpha) {
+		return previousX + (x - previousX) * alpha;
+	}
+
 	/** Whether or not the cloud is currently off-screen. */
 	public boolean isOffscreen() {
 		return x < -width;
@@ -66,8 +85,10 @@ public class CloudModel {
 	 */
 	public void restart() {
 		// Cloud is off-screen, recalculate speed, then reposition
-		dx = -MathUtils.random(CloudModel.MIN_SPEED, CloudModel.MAX_SPEED);
+		dx = -random.random(CloudModel.MIN_SPEED, CloudModel.MAX_SPEED);
 		// Move cloud beyond right edge, with 1-10 seconds before it reappears
-		x = 1280.0f + MathUtils.random(-dx, -dx * 10);
+		x = 1280.0f + random.random(-dx, -dx * 10);
+		// Jump straight there, rather than interpolating across the screen
+		previousX = x;
 	}
 }
@@ -0,0 +1,89 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * The resolutions at which atlases are built, relative to the 1280x720 virtual screen (see GenerateAtlases -densities).
+ * The game picks the smallest density that is at least as detailed as the physical screen, so small screens load less
+ * and large screens get sharper art. Regions of every density report their size in virtual pixels (see
+ * RegionRegistry), so layout is the same whichever density is loaded.
+ * 
+ * @author Charlie
+ */
+enum Density {
+	// Scale, file name suffix - must match GenerateAtlases
+	LOW(0.5f, "_05x"),
+	NORMAL(1.0f, ""),
+	HIGH(2.0f, "_2x");
+
+	/** Texels per virtual pixel. */
+	final float scale;
+
+	/** Suffix added to the names of atlases of this density. */
+	final String suffix;
+
+	private Density(final float scale, final String suffix) {
+		this.scale = scale;
+		this.suffix = suffix;
+	}
+
+	/**
+	 * Choose the density for a screen size.
+	 * 
+	 * @param width
+	 *            Physical screen width.
+	 * @param height
+	 *            Physical screen height.
+	 * @return The smallest density with at least one texel per physical pixel of the game's viewport.
+	 */
+	static Density choose(final int width, final int height) {
+		// The viewport is letterboxed to the virtual aspect ratio, as in PumpkinGame.resize()
+		final float viewportHeight = Math.min(height, width * PumpkinGame.VIRTUAL_HEIGHT
+				/ (float) PumpkinGame.VIRTUAL_WIDTH);
+		final float pixelsPerVirtualPixel = viewportHeight / PumpkinGame.VIRTUAL_HEIGHT;
+		for (final Density density : values()) {
+			if (pixelsPerVirtualPixel <= density.scale) {
+				return density;
+			}
+		}
+		return HIGH;
+	}
+
+	/** Get the name of an atlas of this density. */
+	String getAtlasName(final String fileName) {
+		final int dot = fileName.lastIndexOf('.');
+		return fileName.substring(0, dot) + suffix + fileName.substring(dot);
+	}
+
+	/**
+	 * Resolver that substitutes atlases of a given density, where the build has produced them. Atlas pages are named
+	 * within the atlas file, so they follow automatically.
+	 * 
+	 * @author Charlie
+	 */
+	static class Resolver implements FileHandleResolver {
+
+		/** Resolver for all files. */
+		private final FileHandleResolver resolver;
+
+		/** The density. */
+		private final Density density;
+
+		public Resolver(final FileHandleResolver resolver, final Density density) {
+			this.resolver = resolver;
+			this.density = density;
+		}
+
+		@Override
+		public FileHandle resolve(final String fileName) {
+			if (density != NORMAL && fileName.endsWith(".atlas")) {
+				final FileHandle variant = resolver.resolve(density.getAtlasName(fileName));
+				if (variant.exists()) {
+					return variant;
+				}
+			}
+			return resolver.resolve(fileName);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * The game constants for a single round, as calculated from a DifficultyCurve. The table is recalculated once at the
+ * start of each round, so the methods called on every pumpkin state change are simple random draws between
+ * precomputed bounds.
+ * 
+ * @author Charlie
+ */
+class Difficulty {
+
+	/** The curve from which values are calculated. */
+	private final DifficultyCurve curve;
+
+	/** The random numbers that values are drawn with. */
+	private final RandomStream random;
+
+	/** The round that the table currently holds values for. */
+	int round;
+
+	// Precomputed values for the current round
+
+	float dormantMin;
+	float dormantMax;
+	float possessionMin;
+	float possessionMax;
+	float possessionDelayMin;
+	float possessionDelayMax;
+	float recoveryChance;
+	float recoveryMin;
+	float recoveryMax;
+	float possessedTime;
+
+	/**
+	 * Construct a new Difficulty table.
+	 * 
+	 * @param curve
+	 *            The curve from which values are calculated.
+	 * @param round
+	 *            The initial round.
+	 * @param random
+	 *            The random numbers to draw values with.
+	 */
+	public Difficulty(final DifficultyCurve curve, final int round, final RandomStream random) {
+		this.curve = curve;
+		this.random = random;
+		setRound(round);
+	}
+
+	/**
+	 * Recalculate the table for a new round.
+	 * 
+	 * @param round
+	 *            The round.
+	 */
+	public void setRound(final int round) {
+		curve.apply(round, this);
+	}
+
+	float getDormantTime() {
+		return random.random(dormantMin, dormantMax);
+	}
+
+	float getPossessionTime() {
+		return random.random(possessionMin, possessionMax);
+	}
+
+	float getPossessionDelay() {
+		return random.random(possessionDelayMin, possessionDelayMax);
+	}
+
+	boolean getRecoveryChance() {
+		return random.randomBoolean(recoveryChance);
+	}
+
+	float getRecoveryTime() {
+		return random.random(recoveryMin, recoveryMax);
+	}
+
+	float getPossessedTime() {
+		return possessedTime;
+	}
+}
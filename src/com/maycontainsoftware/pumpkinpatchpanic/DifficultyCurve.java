@@ -0,0 +1,193 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * Definition of how game constants change with each new round, such that difficulty increases as the game goes on.
+ * Curves can be loaded from data (see assets/data/difficulty.json) so they can be tuned without recompiling.
+ * 
+ * Basis of calculations is an exponential decay, which is of the form:
+ * 
+ * y = initial * e^(-lambda * x)
+ * 
+ * Which we can simplify as follows:
+ * 
+ * a) Set initial = 1, so values are all clamped in range (0, 1]
+ * 
+ * b) Set lambda s.t. the output values decay to ~10% of 0 after a suitable expected round cap. A lambda of 0.1 makes
+ * the output value 10% at 23 rounds, 5% at 30 rounds.
+ * 
+ * Each parameter is then of the form base + scale * y. Because y has all but flattened out by round 30, beyond
+ * tailStart every parameter is additionally multiplied by e^(-tailLambda * (x - tailStart)), so difficulty continues
+ * to increase, until the parameter reaches its floor value.
+ * 
+ * @author Charlie
+ */
+class DifficultyCurve {
+
+	/** A single curve parameter. */
+	static class Parameter {
+
+		/** Value that the parameter tends towards as the decay approaches zero. */
+		final float base;
+
+		/** Amount of the parameter that decays away as rounds progress. */
+		final float scale;
+
+		/** Minimum value of the parameter, no matter the round. */
+		final float floor;
+
+		/** Construct a new Parameter. */
+		public Parameter(final float base, final float scale, final float floor) {
+			this.base = base;
+			this.scale = scale;
+			this.floor = floor;
+		}
+
+		/**
+		 * Calculate the parameter's value.
+		 * 
+		 * @param decay
+		 *            The exponential decay for the round.
+		 * @param tail
+		 *            The additional tail multiplier for the round.
+		 * @return The parameter's value.
+		 */
+		float evaluate(final float decay, final float tail) {
+			return Math.max(floor, (base + scale * decay) * tail);
+		}
+	}
+
+	/** Rate of the main exponential decay. */
+	final float lambda;
+
+	/** Round after which the tail multiplier takes effect. */
+	final int tailStart;
+
+	/** Rate of the tail decay. */
+	final float tailLambda;
+
+	// Parameters
+
+	final Parameter dormantMin;
+	final Parameter dormantMax;
+	final Parameter possessionMin;
+	final Parameter possessionMax;
+	final Parameter possessionDelayMin;
+	final Parameter possessionDelayMax;
+	final Parameter recoveryChance;
+	final Parameter recoveryMin;
+	final Parameter recoveryMax;
+	final Parameter possessedTime;
+
+	/** Construct a new DifficultyCurve. */
+	public DifficultyCurve(final float lambda, final int tailStart, final float tailLambda,
+			final Parameter dormantMin, final Parameter dormantMax, final Parameter possessionMin,
+			final Parameter possessionMax, final Parameter possessionDelayMin, final Parameter possessionDelayMax,
+			final Parameter recoveryChance, final Parameter recoveryMin, final Parameter recoveryMax,
+			final Parameter possessedTime) {
+		this.lambda = lambda;
+		this.tailStart = tailStart;
+		this.tailLambda = tailLambda;
+		this.dormantMin = dormantMin;
+		this.dormantMax = dormantMax;
+		this.possessionMin = possessionMin;
+		this.possessionMax = possessionMax;
+		this.possessionDelayMin = possessionDelayMin;
+		this.possessionDelayMax = possessionDelayMax;
+		this.recoveryChance = recoveryChance;
+		this.recoveryMin = recoveryMin;
+		this.recoveryMax = recoveryMax;
+		this.possessedTime = possessedTime;
+	}
+
+	/** The curve used if no other is loaded. Up to round 30 this matches the original hard-coded difficulty. */
+	static DifficultyCurve createDefault() {
+		return new DifficultyCurve(0.1f, 30, 0.02f,
+				// Dormant time
+				new Parameter(1.0f, 0.0f, 0.5f), new Parameter(1.5f, 2.5f, 0.75f),
+				// Possession time
+				new Parameter(1.0f, 0.0f, 0.5f), new Parameter(1.0f, 3.0f, 0.75f),
+				// Possession delay
+				new Parameter(0.1f, 0.0f, 0.1f), new Parameter(0.5f, 1.5f, 0.25f),
+				// Recovery chance
+				new Parameter(0.0f, 0.8f, 0.0f),
+				// Recovery time
+				new Parameter(0.5f, 0.0f, 0.25f), new Parameter(1.0f, 3.0f, 0.5f),
+				// Possessed time
+				new Parameter(0.5f, 1.0f, 0.35f));
+	}
+
+	/**
+	 * Load a curve from JSON data. Any parameter missing from the data takes its value from the default curve.
+	 * 
+	 * @param json
+	 *            The JSON text.
+	 * @return The loaded curve.
+	 */
+	static DifficultyCurve fromJson(final String json) {
+		final DifficultyCurve defaults = createDefault();
+		final JsonValue root = new JsonReader().parse(json);
+
+		final float lambda = getFloat(root, "lambda", defaults.lambda);
+		final int tailStart = (int) getFloat(root, "tailStart", defaults.tailStart);
+		final float tailLambda = getFloat(root, "tailLambda", defaults.tailLambda);
+
+		return new DifficultyCurve(lambda, tailStart, tailLambda,
+				getParameter(root, "dormantMin", defaults.dormantMin),
+				getParameter(root, "dormantMax", defaults.dormantMax),
+				getParameter(root, "possessionMin", defaults.possessionMin),
+				getParameter(root, "possessionMax", defaults.possessionMax),
+				getParameter(root, "possessionDelayMin", defaults.possessionDelayMin),
+				getParameter(root, "possessionDelayMax", defaults.possessionDelayMax),
+				getParameter(root, "recoveryChance", defaults.recoveryChance),
+				getParameter(root, "recoveryMin", defaults.recoveryMin),
+				getParameter(root, "recoveryMax", defaults.recoveryMax),
+				getParameter(root, "possessedTime", defaults.possessedTime));
+	}
+
+	/** Read a float from a JSON object, falling back to a default if it is missing. */
+	private static float getFloat(final JsonValue object, final String name, final float defaultValue) {
+		final JsonValue value = object.get(name);
+		return value == null ? defaultValue : value.asFloat();
+	}
+
+	/** Read a Parameter from a JSON object, falling back to a default if it (or any of its fields) is missing. */
+	private static Parameter getParameter(final JsonValue object, final String name, final Parameter defaultValue) {
+		final JsonValue value = object.get(name);
+		if (value == null) {
+			return defaultValue;
+		}
+		final float base = getFloat(value, "base", defaultValue.base);
+		final float scale = getFloat(value, "scale", defaultValue.scale);
+		final float floor = getFloat(value, "floor", defaultValue.floor);
+		return new Parameter(base, scale, floor);
+	}
+
+	/**
+	 * Calculate the parameters for a specific round.
+	 * 
+	 * @param round
+	 *            The round.
+	 * @param difficulty
+	 *            The Difficulty table to populate.
+	 */
+	void apply(final int round, final Difficulty difficulty) {
+
+		final float decay = (float) Math.exp(-lambda * round);
+		final float tail = round > tailStart ? (float) Math.exp(-tailLambda * (round - tailStart)) : 1.0f;
+
+		difficulty.round = round;
+		difficulty.dormantMin = dormantMin.evaluate(decay, tail);
+		difficulty.dormantMax = dormantMax.evaluate(decay, tail);
+		difficulty.possessionMin = possessionMin.evaluate(decay, tail);
+		difficulty.possessionMax = possessionMax.evaluate(decay, tail);
+		difficulty.possessionDelayMin = possessionDelayMin.evaluate(decay, tail);
+		difficulty.possessionDelayMax = possessionDelayMax.evaluate(decay, tail);
+		difficulty.recoveryChance = recoveryChance.evaluate(decay, tail);
+		difficulty.recoveryMin = recoveryMin.evaluate(decay, tail);
+		difficulty.recoveryMax = recoveryMax.evaluate(decay, tail);
+		difficulty.possessedTime = possessedTime.evaluate(decay, tail);
+	}
+}
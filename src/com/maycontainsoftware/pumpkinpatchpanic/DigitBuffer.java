@@ -0,0 +1,89 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * A reusable character buffer for displaying a number in a Label. Digits are written directly into the buffer, so
+ * updating the display allocates nothing, and the caller is told whether the displayed value actually changed so that
+ * the Label need only be touched when it has.
+ * 
+ * @author Charlie
+ */
+class DigitBuffer {
+
+	/** The text, suitable for passing to Label.setText(CharSequence). */
+	final StringBuilder text = new StringBuilder(8);
+
+	/** The value currently held in the buffer. */
+	private int value;
+
+	/** Whether or not the buffer holds a value yet. */
+	private boolean valid;
+
+	/**
+	 * Set the buffer to display a non-negative integer.
+	 * 
+	 * @param number
+	 *            The number.
+	 * @return True if the text changed, false otherwise.
+	 */
+	public boolean setNumber(final int number) {
+		if (valid && value == number) {
+			return false;
+		}
+		value = number;
+		valid = true;
+
+		text.setLength(0);
+		appendDigits(number, 1);
+		return true;
+	}
+
+	/**
+	 * Set the buffer to display a time as minutes and seconds, e.g. "0:30".
+	 * 
+	 * @param seconds
+	 *            The time, in whole seconds.
+	 * @return True if the text changed, false otherwise.
+	 */
+	public boolean setTime(final int seconds) {
+		if (valid && value == seconds) {
+			return false;
+		}
+		value = seconds;
+		valid = true;
+
+		text.setLength(0);
+		appendDigits(seconds / 60, 1);
+		text.append(':');
+		appendDigits(seconds % 60, 2);
+		return true;
+	}
+
+	/** Append a number to the text, zero-padded to a minimum number of digits. */
+	private void appendDigits(int number, final int minDigits) {
+		if (number < 0) {
+			text.append('-');
+			number = -number;
+		}
+
+		// Count digits
+		int digits = 1;
+		for (int n = number / 10; n > 0; n /= 10) {
+			digits++;
+		}
+
+		for (int i = digits; i < minDigits; i++) {
+			text.append('0');
+		}
+
+		// Most significant digit first
+		int divisor = 1;
+		for (int i = 1; i < digits; i++) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			text.append((char) ('0' + number / divisor % 10));
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * SpriteBatch for atlases whose pages have been compressed to ETC1 by util.CompressAtlas. ETC1 has no alpha channel,
+ * so each compressed page has a separate alpha plane, which is bound to a second texture unit and combined with the
+ * page's colour in the shader.
+ * 
+ * Textures without an alpha plane (fonts, help panels, uncompressed pages) are drawn as normal: a 1x1 white texture is
+ * bound as their alpha plane, so their own alpha channel is used unchanged. The alpha plane only needs rebinding when
+ * the batch switches texture, which it already flushes for, so this costs no extra render calls.
+ * 
+ * Requires OpenGL ES 2.0.
+ * 
+ * @author Charlie
+ */
+class Etc1AlphaBatch extends SpriteBatch {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = Etc1AlphaBatch.class.getSimpleName();
+
+	/** Number of sprites in the batch, as for the default SpriteBatch. */
+	private static final int SIZE = 1000;
+
+	/** Maximum number of compressed pages. */
+	private static final int MAX_PAGES = 8;
+
+	/** Texture unit to which alpha planes are bound. */
+	private static final int ALPHA_UNIT = 1;
+
+	private static final String VERTEX_SHADER = "" //
+			+ "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" //
+			+ "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" //
+			+ "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" //
+			+ "uniform mat4 u_projTrans;\n" //
+			+ "varying vec4 v_color;\n" //
+			+ "varying vec2 v_texCoords;\n" //
+			+ "\n" //
+			+ "void main() {\n" //
+			+ "	v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" //
+			+ "	v_color.a = v_color.a * (256.0 / 255.0);\n" //
+			+ "	v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" //
+			+ "	gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" //
+			+ "}\n";
+
+	private static final String FRAGMENT_SHADER = "" //
+			+ "#ifdef GL_ES\n" //
+			+ "precision mediump float;\n" //
+			+ "#endif\n" //
+			+ "varying vec4 v_color;\n" //
+			+ "varying vec2 v_texCoords;\n" //
+			+ "uniform sampler2D u_texture;\n" //
+			+ "uniform sampler2D u_alpha;\n" //
+			+ "\n" //
+			+ "void main() {\n" //
+			+ "	vec4 color = texture2D(u_texture, v_texCoords);\n" //
+			+ "	color.a *= texture2D(u_alpha, v_texCoords).r;\n" //
+			+ "	gl_FragColor = v_color * color;\n" //
+			+ "}\n";
+
+	/** The shader. */
+	private final ShaderProgram shader;
+
+	/** Alpha plane for textures that have their own alpha channel. */
+	private final Texture opaque;
+
+	// Compressed pages and their alpha planes, held in parallel arrays
+
+	private final Texture[] pages = new Texture[MAX_PAGES];
+	private final Texture[] alphaPlanes = new Texture[MAX_PAGES];
+	private int pageCount;
+
+	/** The texture most recently drawn, or null at the start of the batch. */
+	private Texture currentTexture;
+
+	/** The alpha plane currently bound, or null at the start of the batch. */
+	private Texture currentAlpha;
+
+	/** Construct a new Etc1AlphaBatch. */
+	public Etc1AlphaBatch() {
+		this(createShader());
+	}
+
+	private Etc1AlphaBatch(final ShaderProgram shader) {
+		super(SIZE, shader);
+		this.shader = shader;
+
+		final Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGB888);
+		pixmap.drawPixel(0, 0, 0xffffffff);
+		opaque = new Texture(pixmap);
+		pixmap.dispose();
+	}
+
+	/** Compile the shader. */
+	private static ShaderProgram createShader() {
+		final ShaderProgram shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+		if (!shader.isCompiled()) {
+			throw new GdxRuntimeException("Unable to compile ETC1 shader: " + shader.getLog());
+		}
+		return shader;
+	}
+
+	/**
+	 * Check whether an atlas has any ETC1-compressed pages. Only the atlas file is read; no textures are loaded.
+	 * 
+	 * @param atlasFile
+	 *            The atlas file.
+	 */
+	static boolean isCompressed(final FileHandle atlasFile) {
+		if (!atlasFile.exists()) {
+			return false;
+		}
+		final TextureAtlasData data = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+		for (final Page page : data.getPages()) {
+			if (page.textureFile.extension().equals("etc1")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Load the alpha planes for a loaded atlas's compressed pages. Each alpha plane lives as long as the batch.
+	 * 
+	 * @param atlas
+	 *            The atlas.
+	 * @param manager
+	 *            The AssetManager that loaded it.
+	 */
+	void addAlphaPlanes(final TextureAtlas atlas, final AssetManager manager) {
+		for (final Texture page : atlas.getTextures()) {
+			final String fileName = manager.getAssetFileName(page);
+			if (fileName == null || !fileName.endsWith(".etc1")) {
+				continue;
+			}
+			if (pageCount == MAX_PAGES) {
+				throw new IllegalStateException("Too many compressed pages");
+			}
+
+			final FileHandle pageFile = manager.getFileHandleResolver().resolve(fileName);
+			final Texture alpha = new Texture(pageFile.sibling(pageFile.nameWithoutExtension() + "_alpha.etc1"));
+			alpha.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+			pages[pageCount] = page;
+			alphaPlanes[pageCount] = alpha;
+			pageCount++;
+
+			if (DEBUG) {
+				Gdx.app.log(TAG, "Added alpha plane for " + fileName);
+			}
+		}
+	}
+
+	/** Bind the alpha plane for a texture about to be drawn, flushing sprites drawn with the previous one. */
+	private void prepare(final Texture texture) {
+		if (texture == currentTexture) {
+			return;
+		}
+		currentTexture = texture;
+
+		Texture alpha = opaque;
+		for (int i = 0; i < pageCount; i++) {
+			if (pages[i] == texture) {
+				alpha = alphaPlanes[i];
+				break;
+			}
+		}
+		if (alpha == currentAlpha) {
+			return;
+		}
+
+		flush();
+		currentAlpha = alpha;
+		alpha.bind(ALPHA_UNIT);
+		// SpriteBatch binds its own textures to whichever unit is active
+		Gdx.gl.glActiveTexture(GL10.GL_TEXTURE0);
+	}
+
+	@Override
+	public void begin() {
+		super.begin();
+		shader.setUniformi("u_alpha", ALPHA_UNIT);
+		currentTexture = null;
+		currentAlpha = null;
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		shader.dispose();
+		opaque.dispose();
+		for (int i = 0; i < pageCount; i++) {
+			alphaPlanes[i].dispose();
+			pages[i] = null;
+			alphaPlanes[i] = null;
+		}
+		pageCount = 0;
+	}
+
+	// Every draw method selects the alpha plane first
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y, final float originX, final float originY,
+			final float width, final float height, final float scaleX, final float scaleY, final float rotation,
+			final int srcX, final int srcY, final int srcWidth, final int srcHeight, final boolean flipX,
+			final boolean flipY) {
+		prepare(texture);
+		super.draw(texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation, srcX, srcY, srcWidth,
+				srcHeight, flipX, flipY);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y, final float width, final float height,
+			final int srcX, final int srcY, final int srcWidth, final int srcHeight, final boolean flipX,
+			final boolean flipY) {
+		prepare(texture);
+		super.draw(texture, x, y, width, height, srcX, srcY, srcWidth, srcHeight, flipX, flipY);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y, final int srcX, final int srcY,
+			final int srcWidth, final int srcHeight) {
+		prepare(texture);
+		super.draw(texture, x, y, srcX, srcY, srcWidth, srcHeight);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y, final float width, final float height,
+			final float u, final float v, final float u2, final float v2) {
+		prepare(texture);
+		super.draw(texture, x, y, width, height, u, v, u2, v2);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y) {
+		prepare(texture);
+		super.draw(texture, x, y);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float x, final float y, final float width, final float height) {
+		prepare(texture);
+		super.draw(texture, x, y, width, height);
+	}
+
+	@Override
+	public void draw(final Texture texture, final float[] spriteVertices, final int offset, final int count) {
+		prepare(texture);
+		super.draw(texture, spriteVertices, offset, count);
+	}
+
+	@Override
+	public void draw(final TextureRegion region, final float x, final float y) {
+		prepare(region.getTexture());
+		super.draw(region, x, y);
+	}
+
+	@Override
+	public void draw(final TextureRegion region, final float x, final float y, final float width, final float height) {
+		prepare(region.getTexture());
+		super.draw(region, x, y, width, height);
+	}
+
+	@Override
+	public void draw(final TextureRegion region, final float x, final float y, final float originX,
+			final float originY, final float width, final float height, final float scaleX, final float scaleY,
+			final float rotation) {
+		prepare(region.getTexture());
+		super.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+	}
+
+	@Override
+	public void draw(final TextureRegion region, final float x, final float y, final float originX,
+			final float originY, final float width, final float height, final float scaleX, final float scaleY,
+			final float rotation, final boolean clockwise) {
+		prepare(region.getTexture());
+		super.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation, clockwise);
+	}
+}
@@ -0,0 +1,317 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Records where frame time goes, for the last few seconds of frames, and optionally draws a summary on screen.
+ * 
+ * Each frame is divided into sections (clearing and viewport setup, Stage acting, Stage drawing and asset loading),
+ * which are timed separately, along with the number of SpriteBatch render calls. Timings are kept in preallocated
+ * primitive arrays used as a ring buffer, so recording allocates nothing. When the profiler is disabled every method
+ * returns immediately.
+ * 
+ * @author Charlie
+ */
+class FrameProfiler {
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = FrameProfiler.class.getSimpleName();
+
+	// Sections
+
+	static final int CLEAR = 0;
+	static final int ACT = 1;
+	static final int DRAW = 2;
+	static final int LOAD = 3;
+	static final int SECTION_COUNT = 4;
+
+	/** Section names, for display. */
+	private static final String[] SECTION_NAMES = { "clear", "act", "draw", "load" };
+
+	/** Duration of a 60Hz frame. */
+	private static final long FRAME_NANOS = 1000000000L / 60;
+
+	/** Frames taking longer than this are counted as janky. */
+	private static final long JANK_NANOS = FRAME_NANOS * 3 / 2;
+
+	/** Frames taking longer than this are counted as hitches. */
+	private static final long HITCH_NANOS = 100000000L;
+
+	/** How often the overlay text is recalculated. */
+	private static final long OVERLAY_REFRESH_NANOS = 500000000L;
+
+	/** Number of frames held by default; small enough that sorting them does not allocate. */
+	static final int DEFAULT_CAPACITY = 240;
+
+	/** Number of frames held. */
+	private final int capacity;
+
+	// Ring buffer, indexed by frame slot
+
+	/** Time between the start of the previous frame and the start of this frame. */
+	private final long[] frameNanos;
+
+	/** Time spent in render() this frame. */
+	private final long[] workNanos;
+
+	/** Time spent in each section, indexed by slot * SECTION_COUNT + section. */
+	private final long[] sectionNanos;
+
+	/** SpriteBatch render calls this frame. */
+	private final int[] renderCalls;
+
+	/** The slot of the current frame. */
+	private int head = -1;
+
+	/** Number of frames recorded, up to capacity. */
+	private int count;
+
+	// Current frame
+
+	private long frameStart;
+	private int renderCallsAtStart;
+	private final long[] sectionStart = new long[SECTION_COUNT];
+
+	/** Whether the profiler is recording. */
+	private boolean enabled;
+
+	// Overlay
+
+	/** Scratch space for sorting frame times. */
+	private final long[] sorted;
+
+	/** One line of overlay text. */
+	private final StringBuilder line = new StringBuilder(64);
+
+	/** The overlay text, recalculated periodically. */
+	private final StringBuilder[] lines = { new StringBuilder(64), new StringBuilder(64), new StringBuilder(64) };
+
+	/** When the overlay text was last recalculated. */
+	private long overlayUpdated;
+
+	/** The overlay font, created when first drawn. */
+	private BitmapFont font;
+
+	/**
+	 * Construct a new FrameProfiler.
+	 * 
+	 * @param capacity
+	 *            The number of frames to hold.
+	 */
+	public FrameProfiler(final int capacity) {
+		this.capacity = capacity;
+		frameNanos = new long[capacity];
+		workNanos = new long[capacity];
+		sectionNanos = new long[capacity * SECTION_COUNT];
+		renderCalls = new int[capacity];
+		sorted = new long[capacity];
+	}
+
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	/** Enable or disable the profiler. Re-enabling clears previously-recorded frames. */
+	void setEnabled(final boolean enabled) {
+		if (enabled && !this.enabled) {
+			head = -1;
+			count = 0;
+			frameStart = 0;
+			overlayUpdated = 0;
+		}
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Start a new frame. Must be called at the very start of render().
+	 * 
+	 * @param batch
+	 *            The SpriteBatch whose render calls are counted.
+	 */
+	void startFrame(final SpriteBatch batch) {
+		if (!enabled) {
+			return;
+		}
+
+		final long now = System.nanoTime();
+		final long interval = frameStart == 0 ? 0 : now - frameStart;
+		frameStart = now;
+
+		head = (head + 1) % capacity;
+		if (count < capacity) {
+			count++;
+		}
+
+		frameNanos[head] = interval;
+		workNanos[head] = 0;
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			sectionNanos[head * SECTION_COUNT + i] = 0;
+		}
+		renderCallsAtStart = batch.totalRenderCalls;
+	}
+
+	/**
+	 * End the current frame. Must be called at the very end of render().
+	 * 
+	 * @param batch
+	 *            The SpriteBatch whose render calls are counted.
+	 */
+	void endFrame(final SpriteBatch batch) {
+		if (!enabled || head == -1) {
+			return;
+		}
+		workNanos[head] = System.nanoTime() - frameStart;
+		renderCalls[head] = batch.totalRenderCalls - renderCallsAtStart;
+	}
+
+	/** Start timing a section of the current frame. */
+	void begin(final int section) {
+		if (!enabled) {
+			return;
+		}
+		sectionStart[section] = System.nanoTime();
+	}
+
+	/** Stop timing a section of the current frame. A section may be timed more than once per frame. */
+	void end(final int section) {
+		if (!enabled || head == -1) {
+			return;
+		}
+		sectionNanos[head * SECTION_COUNT + section] += System.nanoTime() - sectionStart[section];
+	}
+
+	/**
+	 * Draw the overlay. The batch must not be drawing, and its projection must already be set.
+	 * 
+	 * @param batch
+	 *            The SpriteBatch to draw with.
+	 * @param x
+	 *            Left edge of the overlay.
+	 * @param y
+	 *            Top edge of the overlay.
+	 */
+	void drawOverlay(final SpriteBatch batch, final float x, final float y) {
+		if (!enabled) {
+			return;
+		}
+
+		if (font == null) {
+			font = new BitmapFont();
+		}
+
+		if (frameStart - overlayUpdated >= OVERLAY_REFRESH_NANOS) {
+			overlayUpdated = frameStart;
+			updateOverlay();
+		}
+
+		batch.begin();
+		float lineY = y;
+		for (final StringBuilder text : lines) {
+			font.draw(batch, text, x, lineY);
+			lineY -= font.getLineHeight();
+		}
+		batch.end();
+	}
+
+	/** Recalculate the overlay text from the frames held. */
+	private void updateOverlay() {
+
+		// Frame time percentiles, from frames with a known interval
+		int frames = 0;
+		long totalNanos = 0;
+		int jank = 0;
+		int hitches = 0;
+		for (int i = 0; i < count; i++) {
+			final long nanos = frameNanos[i];
+			if (nanos == 0) {
+				continue;
+			}
+			sorted[frames++] = nanos;
+			totalNanos += nanos;
+			if (nanos > JANK_NANOS) {
+				jank++;
+			}
+			if (nanos > HITCH_NANOS) {
+				hitches++;
+			}
+		}
+		Arrays.sort(sorted, 0, frames);
+
+		// Line 1: fps and percentiles
+		final StringBuilder line1 = lines[0];
+		line1.setLength(0);
+		line1.append("fps ").append(totalNanos == 0 ? 0 : (int) (frames * 1000000000L / totalNanos));
+		line1.append("  p50 ");
+		appendMillis(line1, percentile(frames, 50));
+		line1.append("  p95 ");
+		appendMillis(line1, percentile(frames, 95));
+		line1.append("  p99 ");
+		appendMillis(line1, percentile(frames, 99));
+		line1.append(" ms");
+
+		// Line 2: jank
+		final StringBuilder line2 = lines[1];
+		line2.setLength(0);
+		line2.append("jank ").append(jank).append("  hitches ").append(hitches).append("  of ").append(frames);
+
+		// Line 3: average section times and render calls
+		final StringBuilder line3 = lines[2];
+		line3.setLength(0);
+		long calls = 0;
+		for (int i = 0; i < count; i++) {
+			calls += renderCalls[i];
+		}
+		for (int section = 0; section < SECTION_COUNT; section++) {
+			long nanos = 0;
+			for (int i = 0; i < count; i++) {
+				nanos += sectionNanos[i * SECTION_COUNT + section];
+			}
+			line3.append(SECTION_NAMES[section]).append(' ');
+			appendMillis(line3, count == 0 ? 0 : nanos / count);
+			line3.append("  ");
+		}
+		line3.append("calls ").append(count == 0 ? 0 : (int) (calls / count));
+	}
+
+	/** Get a percentile of the sorted frame times. */
+	private long percentile(final int frames, final int percent) {
+		if (frames == 0) {
+			return 0;
+		}
+		return sorted[Math.min(frames - 1, frames * percent / 100)];
+	}
+
+	/** Append a time in milliseconds, to one decimal place. */
+	private static void appendMillis(final StringBuilder text, final long nanos) {
+		final int tenths = (int) ((nanos + 50000) / 100000);
+		text.append(tenths / 10).append('.').append(tenths % 10);
+	}
+
+	/** Log every frame held, oldest first, as comma-separated values. This allocates, so is only for debugging. */
+	void logFrames() {
+		Gdx.app.log(TAG, "frame_us,work_us,clear_us,act_us,draw_us,load_us,render_calls");
+		for (int n = count - 1; n >= 0; n--) {
+			final int slot = (head - n + capacity) % capacity;
+			line.setLength(0);
+			line.append((int) (frameNanos[slot] / 1000)).append(',').append((int) (workNanos[slot] / 1000));
+			for (int section = 0; section < SECTION_COUNT; section++) {
+				line.append(',').append((int) (sectionNanos[slot * SECTION_COUNT + section] / 1000));
+			}
+			line.append(',').append(renderCalls[slot]);
+			Gdx.app.log(TAG, line.toString());
+		}
+	}
+
+	/** Dispose of the overlay font, if created. */
+	void dispose() {
+		if (font != null) {
+			font.dispose();
+			font = null;
+		}
+	}
+}
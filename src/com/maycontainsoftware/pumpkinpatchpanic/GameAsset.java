@@ -0,0 +1,62 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+
+/**
+ * All assets loaded through the AssetManager, other than those of the loading screen itself, along with the tier each
+ * is loaded in.
+ * 
+ * @author Charlie
+ */
+enum GameAsset {
+	// Main menu
+	ATLAS("atlas.atlas", TextureAtlas.class, Tier.Critical),
+	FONT_32("arialb_32.fnt", BitmapFont.class, Tier.Critical),
+	FONT_64("arialb_64.fnt", BitmapFont.class, Tier.Critical),
+	THUMP("thump.mp3", Sound.class, Tier.Critical),
+	SQUARK("squark.mp3", Sound.class, Tier.Critical),
+
+	// Game screen, and menu music
+	SPIRIT("spirit.mp3", Sound.class, Tier.Background),
+	HISS("hiss.mp3", Sound.class, Tier.Background),
+	KNOCK("knock.mp3", Sound.class, Tier.Background),
+	WIND("wind.mp3", Music.class, Tier.Background),
+	MENU_MUSIC("comeplaywithme.mp3", Music.class, Tier.Background),
+
+	// Help screen
+	HELP_PANEL_1("help_panel_1.png", Texture.class, Tier.OnDemand),
+	HELP_PANEL_2("help_panel_2.png", Texture.class, Tier.OnDemand),
+	HELP_PANEL_3("help_panel_3.png", Texture.class, Tier.OnDemand),
+	HELP_PANEL_4("help_panel_4.png", Texture.class, Tier.OnDemand),
+	HELP_PANEL_5("help_panel_5.png", Texture.class, Tier.OnDemand),
+	HELP_PANEL_6("help_panel_6.png", Texture.class, Tier.OnDemand);
+
+	/** Loading tiers, in the order they are loaded. */
+	static enum Tier {
+		/** Needed before the main menu can be shown. */
+		Critical,
+		/** Loaded in the background once the main menu is showing. */
+		Background,
+		/** Loaded only when a screen acquires them. */
+		OnDemand,
+	}
+
+	/** The asset file name. */
+	final String fileName;
+
+	/** The asset type. */
+	final Class<?> type;
+
+	/** The tier in which the asset is loaded. */
+	final Tier tier;
+
+	private GameAsset(final String fileName, final Class<?> type, final Tier tier) {
+		this.fileName = fileName;
+		this.type = type;
+		this.tier = tier;
+	}
+}
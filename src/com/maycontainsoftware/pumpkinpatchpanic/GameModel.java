@@ -0,0 +1,238 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * GameModel represents the logical data model of a running game: the pumpkins, lives, the round timer and transitions
+ * between rounds. It has no dependency on Scene2D, textures or audio, so it can be stepped headlessly as fast as
+ * required. Anything a view might want to react to is reported through the Listener interface.
+ * 
+ * @author Charlie
+ */
+class GameModel {
+
+	/** Number of lives at the start of a game. */
+	static final int INITIAL_LIVES = 3;
+
+	/** Length of a round, in seconds. */
+	static final float ROUND_TIME = 30.0f;
+
+	/** An extra life is granted after completing every round that is a multiple of this value. */
+	static final int EXTRA_LIFE_INTERVAL = 5;
+
+	/**
+	 * Interface to be notified of game events. All methods are called from within GameModel.update(float) or
+	 * PumpkinModel.touch().
+	 * 
+	 * @author Charlie
+	 */
+	static interface Listener {
+
+		/** A pumpkin has become possessed. */
+		public void pumpkinPossessed(PumpkinModel pumpkin);
+
+		/** A possessed pumpkin has been tapped in time, and the spirit exorcised. */
+		public void pumpkinExorcised(PumpkinModel pumpkin);
+
+		/** A possessed pumpkin was left for too long, and the spirit escaped. */
+		public void spiritReleased(PumpkinModel pumpkin);
+
+		/** The player lost a life, either by tapping a pumpkin too early or by allowing a spirit to escape. */
+		public void lifeLost();
+
+		/** The player has no lives left. */
+		public void gameOver();
+
+		/** The round timer has run out. */
+		public void roundOver();
+
+		/** A new round has started. */
+		public void roundStarted();
+	}
+
+	/** The pumpkins. */
+	final PumpkinModel[] pumpkins;
+
+	/** Number of lives left. Game is over when all lives lost. */
+	int livesLeft;
+
+	/** Time left in the current round. */
+	float timeLeft;
+
+	/** Current round. */
+	int currentRound;
+
+	/** The game constants for the current round. */
+	final Difficulty difficulty;
+
+	/**
+	 * Whether or not the game is running. When set to false, game logic should not run (although it may be appropriate
+	 * to run certain animations.)
+	 */
+	boolean running;
+
+	/** The listener to be notified of game events. */
+	private Listener listener;
+
+	/** The random numbers: gameplay for the pumpkins' timers, effects for their faces. */
+	final RandomStreams random;
+
+	/**
+	 * Construct a new GameModel.
+	 * 
+	 * @param pumpkinCount
+	 *            The number of pumpkins in the pumpkin patch.
+	 * @param curve
+	 *            The curve that defines how difficulty increases with each round.
+	 * @param random
+	 *            The random numbers to play with.
+	 */
+	public GameModel(final int pumpkinCount, final DifficultyCurve curve, final RandomStreams random) {
+
+		this.random = random;
+
+		// Start with three lives
+		livesLeft = INITIAL_LIVES;
+
+		// 30 seconds on the clock
+		timeLeft = ROUND_TIME;
+
+		// Start on round one
+		currentRound = 1;
+		difficulty = new Difficulty(curve, currentRound, random.gameplay);
+
+		// Game starts running
+		running = true;
+
+		// Pumpkins are created once the round is known, as their initial timers depend on it
+		pumpkins = new PumpkinModel[pumpkinCount];
+		for (int i = 0; i < pumpkinCount; i++) {
+			pumpkins[i] = new PumpkinModel(this);
+		}
+	}
+
+	/**
+	 * Set the listener to be notified of game events.
+	 * 
+	 * @param listener
+	 *            The listener. May be null.
+	 */
+	public void setListener(final Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Update the model wrt time. Handles the round timer countdown and round-over detection, then updates each pumpkin.
+	 * 
+	 * @param delta
+	 *            Number of seconds since last update.
+	 */
+	public void update(final float delta) {
+
+		// Only act if the game is currently running
+		if (!running) {
+			return;
+		}
+
+		// Decrement time left
+		timeLeft -= delta;
+
+		// Check for end of round
+		if (timeLeft <= 0.0f) {
+
+			// Set time left in round to exactly zero
+			timeLeft = 0.0f;
+
+			// Mark the game as not currently running
+			running = false;
+
+			if (listener != null) {
+				listener.roundOver();
+			}
+		}
+
+		// Update pumpkins; game may stop part-way through (e.g. the last life is lost)
+		for (final PumpkinModel pumpkin : pumpkins) {
+			if (!running) {
+				break;
+			}
+			pumpkin.update(delta);
+		}
+	}
+
+	/** Update game state for next round. */
+	public void nextRound() {
+
+		// 30 seconds on the clock
+		timeLeft = ROUND_TIME;
+
+		// Extra life every five levels, so only if last level was divisible by 5
+		if (currentRound % EXTRA_LIFE_INTERVAL == 0) {
+			livesLeft++;
+		}
+
+		// Increment round
+		currentRound++;
+		difficulty.setRound(currentRound);
+
+		// Reset pumpkins
+		for (final PumpkinModel pumpkin : pumpkins) {
+			pumpkin.resetToDormant();
+		}
+
+		// Game is running again
+		running = true;
+
+		if (listener != null) {
+			listener.roundStarted();
+		}
+	}
+
+	/** Whether or not the game is over, i.e. all lives have been lost. */
+	public boolean isGameOver() {
+		return livesLeft <= 0;
+	}
+
+	/** Called by a PumpkinModel that has become possessed. */
+	void pumpkinPossessed(final PumpkinModel pumpkin) {
+		if (listener != null) {
+			listener.pumpkinPossessed(pumpkin);
+		}
+	}
+
+	/** Called by a PumpkinModel that has been tapped while possessed. */
+	void pumpkinExorcised(final PumpkinModel pumpkin) {
+		if (listener != null) {
+			listener.pumpkinExorcised(pumpkin);
+		}
+	}
+
+	/** Called by a PumpkinModel that has been tapped before becoming possessed. */
+	void pumpkinHitTooEarly(final PumpkinModel pumpkin) {
+		loseLife();
+	}
+
+	/** Called by a PumpkinModel whose spirit has escaped. */
+	void spiritReleased(final PumpkinModel pumpkin) {
+		if (listener != null) {
+			listener.spiritReleased(pumpkin);
+		}
+		loseLife();
+	}
+
+	/** Decrement lives, and check for game over condition. */
+	private void loseLife() {
+
+		livesLeft--;
+
+		if (listener != null) {
+			listener.lifeLost();
+		}
+
+		if (isGameOver()) {
+			running = false;
+
+			if (listener != null) {
+				listener.gameOver();
+			}
+		}
+	}
+}
@@ -5,17 +5,19 @@ import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
-import com.badlogic.gdx.scenes.scene2d.ui.HorizontalGroup;
-import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.Widget;
 import com.badlogic.gdx.scenes.scene2d.utils.Align;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
@@ -25,7 +27,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
  * 
  * @author Charlie
  */
-public class GameScreen extends PumpkinScreen {
+public class GameScreen extends PumpkinScreen implements GameModel.Listener {
 
 	/** Whether debug output should be logged. */
 	static final boolean DEBUG = false;
@@ -35,24 +37,12 @@ public class GameScreen extends PumpkinScreen {
 
 	// Game data
 
-	/** Number of lives left. Game is over when all lives lost. */
-	int livesLeft;
-
-	/** Time left in the current round. */
-	private float timeLeft;
+	/** The game's logical data model - pumpkins, lives, round timer and round transitions. */
+	final GameModel model;
 
 	/** Highest round reached - either this game, or from previous game and loaded from prefs. */
 	private int highestRound;
 
-	/** Current round. */
-	int currentRound;
-
-	/**
-	 * Whether or not the game is running. When set to false, game logic should not run (although it may be appropriate
-	 * to run certain animations.)
-	 */
-	boolean gameRunning;
-
 	/**
 	 * The current dialog being displayed. A "dialog" in this app is a message flashed up on top of everything else.
 	 * Only one dialog is supported at a time.
@@ -67,6 +57,9 @@ public class GameScreen extends PumpkinScreen {
 
 	private final Music wind;
 
+	/** The assets used by the game screen. */
+	private static final GameAsset[] ASSETS = { GameAsset.SPIRIT, GameAsset.HISS, GameAsset.KNOCK, GameAsset.WIND, };
+
 	/**
 	 * Construct a new GameScreen.
 	 * 
@@ -74,32 +67,25 @@ public class GameScreen extends PumpkinScreen {
 	 *            The Game instance.
 	 */
 	public GameScreen(final PumpkinGame game) {
-		super(game);
-
-		// Set up game data
+		super(game, ASSETS);
 
-		// Start with three lives
-		livesLeft = 3;
+		// Make sure this screen's assets are ready - this only blocks if they are still loading
+		game.assets.finishLoading(ASSETS);
 
-		// 30 seconds on the clock
-		timeLeft = 30.0f;
+		// Set up game data - five pumpkins, three lives, 30 seconds on the clock, round one
+		model = new GameModel(5, game.difficultyCurve, game.random);
+		model.setListener(this);
 
 		// Highest round reached
 		highestRound = game.getHighestRound();
 
-		// Start on round one
-		currentRound = 1;
-
-		// Game starts running
-		gameRunning = true;
-
 		// If music is playing, stop it; we don't play the background music while the game is running
-		if (game.music.isPlaying()) {
+		if (game.music != null && game.music.isPlaying()) {
 			game.music.stop();
 		}
 
 		// Load atmospheric wind track
-		wind = game.manager.get("wind.mp3", Music.class);
+		wind = game.assets.get(GameAsset.WIND, Music.class);
 		wind.setLooping(false);
 		// TODO: Should this follow music or sound setting?
 		if (game.soundEnabled) {
@@ -116,25 +102,25 @@ public class GameScreen extends PumpkinScreen {
 		// Let PumpkinScreen do its thing
 		super.show();
 
-		final PumpkinActor backLeft = new PumpkinActor(this);
+		final PumpkinActor backLeft = new PumpkinActor(this, model.pumpkins[0]);
 		backLeft.setPosition(480 - 230 / 2, 720 - 510);
 		backLeft.setScale(0.875f);
 		stage.addActor(backLeft);
 
-		final PumpkinActor backRight = new PumpkinActor(this);
+		final PumpkinActor backRight = new PumpkinActor(this, model.pumpkins[1]);
 		backRight.setPosition(800 - 230 / 2, 720 - 510);
 		backRight.setScale(0.875f);
 		stage.addActor(backRight);
 
-		final PumpkinActor frontLeft = new PumpkinActor(this);
+		final PumpkinActor frontLeft = new PumpkinActor(this, model.pumpkins[2]);
 		frontLeft.setPosition(320 - 230 / 2, 720 - 670);
 		stage.addActor(frontLeft);
 
-		final PumpkinActor frontMiddle = new PumpkinActor(this);
+		final PumpkinActor frontMiddle = new PumpkinActor(this, model.pumpkins[3]);
 		frontMiddle.setPosition(640 - 230 / 2, 720 - 670);
 		stage.addActor(frontMiddle);
 
-		final PumpkinActor frontRight = new PumpkinActor(this);
+		final PumpkinActor frontRight = new PumpkinActor(this, model.pumpkins[4]);
 		frontRight.setPosition(960 - 230 / 2, 720 - 670);
 		stage.addActor(frontRight);
 
@@ -144,30 +130,17 @@ public class GameScreen extends PumpkinScreen {
 		hud = new Hud();
 		stage.addActor(hud);
 
-		// Stage action - this handles the timer countdown and round-over detection
+		// Stage action - this drives the game model, which handles the timer countdown, round-over detection and pumpkin
+		// state changes. It runs once per fixed tick (see PumpkinGame.tick()), so a long frame cannot skip a state.
 		stage.addAction(new Action() {
 			@Override
 			public boolean act(float delta) {
 
 				// Only act if the game is currently running
-				if (gameRunning) {
-
-					// Decrement time left
-					timeLeft -= delta;
-
-					// Check for end of round
-					if (timeLeft <= 0.0f) {
+				if (model.running) {
 
-						// Set time left in round to exactly zero
-						timeLeft = 0.0f;
-
-						// Mark the game as not currently running
-						gameRunning = false;
-
-						// Show round-over dialog
-						dialog = createRoundOverDialog();
-						stage.addActor(dialog);
-					}
+					// Update the model
+					model.update(delta);
 
 					// Update label
 					hud.updateTimeLeft();
@@ -187,6 +160,11 @@ public class GameScreen extends PumpkinScreen {
 						@Override
 						public void run() {
 
+							// The screen may have been left in the meantime
+							if (disposed) {
+								return;
+							}
+
 							// Stop atmospheric sound
 							if (wind.isPlaying()) {
 								wind.stop();
@@ -213,6 +191,84 @@ public class GameScreen extends PumpkinScreen {
 		// Table.drawDebug(stage);
 	}
 
+	// GameModel.Listener
+
+	@Override
+	public void pumpkinPossessed(final PumpkinModel pumpkin) {
+		// Play hiss sound
+		getPumpkinActor(pumpkin).hissId = game.playHiss();
+	}
+
+	@Override
+	public void pumpkinExorcised(final PumpkinModel pumpkin) {
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Correct hit");
+		}
+
+		// Stop this pumpkin's hissing sound
+		game.stopHiss(getPumpkinActor(pumpkin).hissId);
+	}
+
+	@Override
+	public void spiritReleased(final PumpkinModel pumpkin) {
+		final PumpkinActor actor = getPumpkinActor(pumpkin);
+
+		// Release spirit
+		final float x = actor.getX() + actor.getWidth() / 2;
+		final float y = actor.getY() + actor.getHeight() / 2;
+		final Spirit spirit = new Spirit(regions.get(AtlasRegionId.GHOST), x, y, game.random.effects);
+		stage.addActor(spirit);
+
+		// Stop hissing
+		game.stopHiss(actor.hissId);
+
+		// Play sound effect
+		game.playSpirit();
+	}
+
+	@Override
+	public void lifeLost() {
+		hud.updateLives();
+
+		// Life lost - play ominous sound
+		game.playKnock();
+	}
+
+	@Override
+	public void gameOver() {
+		// Open game-over dialog
+		dialog = createGameOverDialog();
+		stage.addActor(dialog);
+	}
+
+	@Override
+	public void roundOver() {
+		// Show round-over dialog
+		dialog = createRoundOverDialog();
+		stage.addActor(dialog);
+	}
+
+	@Override
+	public void roundStarted() {
+		hud.updateLives();
+		hud.updateCurrentRound();
+
+		// Start atmospheric sound as required
+		if (game.soundEnabled) {
+			wind.play();
+		}
+	}
+
+	/** Find the PumpkinActor that renders the specified model. */
+	private PumpkinActor getPumpkinActor(final PumpkinModel pumpkin) {
+		for (final PumpkinActor actor : pumpkins) {
+			if (actor.model == pumpkin) {
+				return actor;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
 	/** Create a dialog to notify of "round over" condition. */
 	private final Table createRoundOverDialog() {
 		/**
@@ -225,21 +281,21 @@ public class GameScreen extends PumpkinScreen {
 			/** Countdown time before next round starts. */
 			private float countdown = 5.0f;
 
-			/** Integer version of countdown time. */
-			private int countdownInt = MathUtils.ceil(countdown);
+			/** Displayed version of countdown time. */
+			private final DigitBuffer countdownText = new DigitBuffer();
 
 			public RoundOverDialog() {
 
 				// White background, black border top and bottom
-				setBackground(new NinePatchDrawable(atlas.createPatch("horizontal_flash_bg")));
+				setBackground(new NinePatchDrawable(regions.getPatch(AtlasRegionId.HORIZONTAL_FLASH_BG)));
 
 				// Bounds of dialog
 				final int height = 340;
 				setBounds(0, 720 / 2 - height / 2, 1280, height);
 
 				// Get references to required widget styles
-				final BitmapFont font32 = game.manager.get("arialb_32.fnt", BitmapFont.class);
-				final BitmapFont font64 = game.manager.get("arialb_64.fnt", BitmapFont.class);
+				final BitmapFont font32 = game.assets.get(GameAsset.FONT_32, BitmapFont.class);
+				final BitmapFont font64 = game.assets.get(GameAsset.FONT_64, BitmapFont.class);
 				final Label.LabelStyle style32 = new Label.LabelStyle(font32, Color.WHITE);
 				final Label.LabelStyle style64 = new Label.LabelStyle(font64, Color.WHITE);
 
@@ -252,7 +308,8 @@ public class GameScreen extends PumpkinScreen {
 				add(new Label("Next round starts in:", style32));
 
 				row();
-				final Label countdownLabel = new Label("0:0" + countdownInt, style64);
+				countdownText.setTime(MathUtils.ceil(countdown));
+				final Label countdownLabel = new Label(countdownText.text, style64);
 				add(countdownLabel);
 
 				addAction(new Action() {
@@ -262,18 +319,11 @@ public class GameScreen extends PumpkinScreen {
 						// Update the countdown value
 						countdown -= delta;
 
-						// Determine the preferred display value
-						final int newCountdownInt = MathUtils.ceil(countdown);
-
 						// If full second has passed (i.e. the display value has changed), update it
-						if (countdownInt != newCountdownInt) {
-
-							// Update the local value
-							countdownInt = newCountdownInt;
+						if (countdownText.setTime(MathUtils.ceil(countdown))) {
 
 							// Update the Label
-							// Note that this will NOT WORK for values >= 10 seconds
-							countdownLabel.setText("0:0" + countdownInt);
+							countdownLabel.setText(countdownText.text);
 
 							// Highlight the change with a simple animation
 							countdownLabel.setColor(Color.RED);
@@ -288,7 +338,7 @@ public class GameScreen extends PumpkinScreen {
 							dialog = null;
 
 							// Reset the game
-							nextRound();
+							model.nextRound();
 
 							// Consume the Action
 							return true;
@@ -316,15 +366,15 @@ public class GameScreen extends PumpkinScreen {
 			public GameOverDialog() {
 
 				// White background, black border top and bottom
-				setBackground(new NinePatchDrawable(atlas.createPatch("horizontal_flash_bg")));
+				setBackground(new NinePatchDrawable(regions.getPatch(AtlasRegionId.HORIZONTAL_FLASH_BG)));
 
 				// Bounds of dialog
 				final int height = 340;
 				setBounds(0, 720 / 2 - height / 2, 1280, height);
 
 				// Get references to required widget styles
-				final BitmapFont font32 = game.manager.get("arialb_32.fnt", BitmapFont.class);
-				final BitmapFont font64 = game.manager.get("arialb_64.fnt", BitmapFont.class);
+				final BitmapFont font32 = game.assets.get(GameAsset.FONT_32, BitmapFont.class);
+				final BitmapFont font64 = game.assets.get(GameAsset.FONT_64, BitmapFont.class);
 				final Label.LabelStyle style32 = new Label.LabelStyle(font32, Color.WHITE);
 				final Label.LabelStyle style64 = new Label.LabelStyle(font64, Color.WHITE);
 
@@ -335,30 +385,26 @@ public class GameScreen extends PumpkinScreen {
 				add().width(394.0f);
 
 				row();
-				add(new Label("You reached round " + currentRound, style32));
+				add(new Label("You reached round " + model.currentRound, style32));
 
-				if (currentRound > highestRound) {
+				if (model.currentRound > highestRound) {
 					row();
 					add(new Label("New high score!", style32));
 
 					// Update local value
-					highestRound = currentRound;
+					highestRound = model.currentRound;
 
 					// Save to preferences
 					game.setHighestRound(highestRound);
 
 					// Update HUD, apply an interesting value-change effect
-					hud.highestRoundLabel.setText(String.valueOf(highestRound));
-					hud.highestRoundLabel.setColor(Color.RED);
-					hud.highestRoundLabel.addAction(Actions.color(Color.WHITE, 1.0f));
+					hud.updateHighestRound();
 				}
 
-				gameRunning = false;
-
 				// debug();
 
 				// The "Menu" pumpkin-button
-				final Button menuBtn = new PumpkinButton(atlas, "menu", game);
+				final Button menuBtn = new PumpkinButton(regions, AtlasRegionId.MENU_UP, AtlasRegionId.MENU_DOWN, game);
 				menuBtn.setPosition(940 - 200 / 2, 340 / 2 - 190 / 2 + 30);
 				menuBtn.addListener(new ChangeListener() {
 					@Override
@@ -379,38 +425,9 @@ public class GameScreen extends PumpkinScreen {
 		return new GameOverDialog();
 	}
 
-	/** Update game state for next round. */
-	private void nextRound() {
-
-		// 30 seconds on the clock
-		timeLeft = 30.0f;
-
-		// Extra life every five levels, so only if last level was divisible by 5
-		if (currentRound % 5 == 0) {
-			livesLeft++;
-			hud.updateLives();
-		}
-
-		// Increment round
-		currentRound++;
-		hud.updateCurrentRound();
-
-		// Reset pumpkins
-		for (final PumpkinActor pumpkin : pumpkins) {
-			pumpkin.resetToDormant();
-		}
-
-		// Game is running again
-		gameRunning = true;
-
-		// Start atmospheric sound as required
-		if (game.soundEnabled) {
-			wind.play();
-		}
-	}
-
 	/**
-	 * Inner class that represents the head-up display.
+	 * Inner class that represents the head-up display. Values are only written to Labels when the displayed text actually
+	 * changes, and digits are written into reusable buffers, so a steady-state frame allocates nothing.
 	 * 
 	 * @author Charlie
 	 */
@@ -419,17 +436,23 @@ public class GameScreen extends PumpkinScreen {
 		/** Label containing the current highest round reached. */
 		private final Label highestRoundLabel;
 
+		/** Text of the highest round label. */
+		private final DigitBuffer highestRoundText = new DigitBuffer();
+
 		/** Label containing the current round reached. */
 		private final Label currentRoundLabel;
 
+		/** Text of the current round label. */
+		private final DigitBuffer currentRoundText = new DigitBuffer();
+
 		/** Label containing the current time left. */
 		private final Label timeLeftLabel;
 
-		/** Array of tokens to represent lives on the HUD - used by the updateLives() method. */
-		final Image[] lifeTokens;
+		/** Text of the time left label. */
+		private final DigitBuffer timeLeftText = new DigitBuffer();
 
-		/** Container for the life tokens. */
-		private final HorizontalGroup lifeContainer;
+		/** Widget displaying the life tokens. */
+		private final LifeTokens lifeTokens;
 
 		/** Construct the HUD. */
 		public Hud() {
@@ -442,8 +465,8 @@ public class GameScreen extends PumpkinScreen {
 			// debug();
 
 			// Load fonts
-			final BitmapFont font32 = game.manager.get("arialb_32.fnt", BitmapFont.class);
-			final BitmapFont font64 = game.manager.get("arialb_64.fnt", BitmapFont.class);
+			final BitmapFont font32 = game.assets.get(GameAsset.FONT_32, BitmapFont.class);
+			final BitmapFont font64 = game.assets.get(GameAsset.FONT_64, BitmapFont.class);
 
 			// Label styles
 			Label.LabelStyle style32 = new Label.LabelStyle(font32, Color.WHITE);
@@ -459,20 +482,16 @@ public class GameScreen extends PumpkinScreen {
 			add(currentRoundTextLabel).right();
 
 			row();
-			add(highestRoundLabel = new Label(String.valueOf(highestRound), style64)).left();
+			highestRoundText.setNumber(highestRound);
+			add(highestRoundLabel = new Label(highestRoundText.text, style64)).left();
 
 			// Life tokens are five lives and one "overflow" indication
-			lifeTokens = new Image[] { new Image(atlas.findRegion("life")), new Image(atlas.findRegion("life")),
-					new Image(atlas.findRegion("life")), new Image(atlas.findRegion("life")),
-					new Image(atlas.findRegion("life")), new Image(atlas.findRegion("life_plus")) };
+			lifeTokens = new LifeTokens(regions.get(AtlasRegionId.LIFE), regions.get(AtlasRegionId.LIFE_PLUS), 5);
+			lifeTokens.setLives(model.livesLeft);
+			add(lifeTokens).top();
 
-			// Life container
-			lifeContainer = new HorizontalGroup();
-			add(lifeContainer).top();
-			// Update initial life token state
-			updateLives();
-
-			add(currentRoundLabel = new Label(String.valueOf(currentRound), style64)).right();
+			currentRoundText.setNumber(model.currentRound);
+			add(currentRoundLabel = new Label(currentRoundText.text, style64)).right();
 
 			row();
 			add().width(400.0f);
@@ -481,43 +500,118 @@ public class GameScreen extends PumpkinScreen {
 
 			row();
 			add();
-			add(timeLeftLabel = new Label(getTimeLeftAsString(), style64)).expandY().top();
+			timeLeftText.setTime(getTimeLeftSeconds());
+			add(timeLeftLabel = new Label(timeLeftText.text, style64)).expandY().top();
 			add();
 		}
 
-		/** Update the time left label using the value held at Screen level. */
+		/** Update the time left label using the value held in the model. */
 		private void updateTimeLeft() {
-			timeLeftLabel.setText(getTimeLeftAsString());
+			if (timeLeftText.setTime(getTimeLeftSeconds())) {
+				timeLeftLabel.setText(timeLeftText.text);
+			}
+		}
+
+		/** Return the time left in whole seconds. */
+		private int getTimeLeftSeconds() {
+			// Using ceil instead of integer-cast because we want time to terminate as soon as it reaches 0:00
+			return MathUtils.ceil(model.timeLeft);
 		}
 
-		/** Update the current round label using the value held at Screen level. */
+		/** Update the current round label using the value held in the model. */
 		private void updateCurrentRound() {
-			currentRoundLabel.setText(String.valueOf(currentRound));
-			currentRoundLabel.setColor(Color.RED);
-			currentRoundLabel.addAction(Actions.color(Color.WHITE, 1.0f));
+			if (currentRoundText.setNumber(model.currentRound)) {
+				currentRoundLabel.setText(currentRoundText.text);
+				currentRoundLabel.setColor(Color.RED);
+				currentRoundLabel.addAction(Actions.color(Color.WHITE, 1.0f));
+			}
 		}
 
-		/** Return the time left as a String. */
-		private String getTimeLeftAsString() {
-			// Using ceil instead of integer-cast because we want time to terminate as soon as it reaches 0:00
-			int time = MathUtils.ceil(timeLeft);
-			int mins = time / 60;
-			int secs = time % 60;
-			return mins + ":" + (secs < 10 ? "0" + secs : secs);
+		/** Update the highest round label using the value held at Screen level. */
+		private void updateHighestRound() {
+			if (highestRoundText.setNumber(highestRound)) {
+				highestRoundLabel.setText(highestRoundText.text);
+				highestRoundLabel.setColor(Color.RED);
+				highestRoundLabel.addAction(Actions.color(Color.WHITE, 1.0f));
+			}
 		}
 
 		/** Update the lives display. */
 		final void updateLives() {
-			// Remove all life tokens
-			for (final Image token : lifeTokens) {
-				lifeContainer.removeActor(token);
+			lifeTokens.setLives(model.livesLeft);
+		}
+	}
+
+	/**
+	 * Widget that displays a row of life tokens, centred within its bounds. The widget's size is fixed at the maximum
+	 * number of tokens, so changing the number of lives never invalidates the surrounding layout.
+	 * 
+	 * @author Charlie
+	 */
+	static class LifeTokens extends Widget {
+
+		/** A single life. */
+		private final TextureRegion life;
+
+		/** The "overflow" token, displayed in place of the last token when there are more lives than tokens. */
+		private final TextureRegion lifePlus;
+
+		/** Number of normal life tokens that can be displayed before the overflow token is used. */
+		private final int maxLives;
+
+		/** Number of lives currently displayed. */
+		private int lives;
+
+		public LifeTokens(final TextureRegion life, final TextureRegion lifePlus, final int maxLives) {
+			this.life = life;
+			this.lifePlus = lifePlus;
+			this.maxLives = maxLives;
+			setTouchable(Touchable.disabled);
+		}
+
+		/** Set the number of lives to display. */
+		public void setLives(final int lives) {
+			this.lives = lives;
+		}
+
+		@Override
+		public float getPrefWidth() {
+			return life.getRegionWidth() * maxLives + lifePlus.getRegionWidth();
+		}
+
+		@Override
+		public float getPrefHeight() {
+			return Math.max(life.getRegionHeight(), lifePlus.getRegionHeight());
+		}
+
+		@Override
+		public void draw(final SpriteBatch batch, final float parentAlpha) {
+			if (lives <= 0) {
+				return;
 			}
-			// Add back as many as we have lives, to a maximum of the total available
-			for (int i = 0; i < lifeTokens.length; i++) {
-				if (livesLeft > i) {
-					lifeContainer.addActor(lifeTokens[i]);
-				}
+
+			// As many tokens as we have lives, to a maximum of the total available
+			final int lifeCount = Math.min(lives, maxLives);
+			final boolean overflow = lives > maxLives;
+
+			// Centre the visible tokens horizontally, align them to the top
+			float width = life.getRegionWidth() * lifeCount;
+			if (overflow) {
+				width += lifePlus.getRegionWidth();
+			}
+			float x = getX() + (getWidth() - width) / 2;
+			final float top = getY() + getHeight();
+
+			final Color color = getColor();
+			batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+			for (int i = 0; i < lifeCount; i++) {
+				batch.draw(life, x, top - life.getRegionHeight());
+				x += life.getRegionWidth();
+			}
+			if (overflow) {
+				batch.draw(lifePlus, x, top - lifePlus.getRegionHeight());
 			}
+			batch.setColor(Color.WHITE);
 		}
 	}
 }
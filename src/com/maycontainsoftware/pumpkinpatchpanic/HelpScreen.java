@@ -27,7 +27,11 @@ public class HelpScreen extends PumpkinScreen {
 	/** Tag, for logging purposes. */
 	private static final String TAG = HelpScreen.class.getSimpleName();
 
-	/** The Drawables that make up the help panels. */
+	/** The help panel assets, in order. */
+	private static final GameAsset[] HELP_PANELS = { GameAsset.HELP_PANEL_1, GameAsset.HELP_PANEL_2,
+			GameAsset.HELP_PANEL_3, GameAsset.HELP_PANEL_4, GameAsset.HELP_PANEL_5, GameAsset.HELP_PANEL_6, };
+
+	/** The Drawables that make up the help panels. Each is null until its texture has loaded. */
 	private Drawable[] helpPanels;
 
 	/** The index of the current help panel. */
@@ -43,7 +47,7 @@ public class HelpScreen extends PumpkinScreen {
 	 *            The Game instance.
 	 */
 	public HelpScreen(final PumpkinGame game) {
-		super(game);
+		super(game, HELP_PANELS);
 	}
 
 	@Override
@@ -54,27 +58,22 @@ public class HelpScreen extends PumpkinScreen {
 
 		super.show();
 
-		// Get reference to all extra textures required outside of the atlas
-		helpPanels = new Drawable[] {
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_1.png", Texture.class))),
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_2.png", Texture.class))),
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_3.png", Texture.class))),
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_4.png", Texture.class))),
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_5.png", Texture.class))),
-				new TextureRegionDrawable(new TextureRegion(game.manager.get("help_panel_6.png", Texture.class))),
-
-		};
+		// The help panels are outside of the atlas, and are loaded when the screen is created; the Drawables are created
+		// as each panel finishes loading
+		helpPanels = new Drawable[HELP_PANELS.length];
 
 		// Start by showing the first panel
 		helpIndex = 0;
 
-		// The help panel
-		helpPanel = new Image(helpPanels[helpIndex]);
-		helpPanel.setPosition(1280 / 2 - 512 / 2, 100);
+		// The help panel, which is 512x512
+		helpPanel = new Image();
+		helpPanel.setBounds(1280 / 2 - 512 / 2, 100, 512, 512);
 		stage.addActor(helpPanel);
+		updateHelpPanel();
 
 		// The "Previous" pumpkin-button
-		final Button previousBtn = new PumpkinButton(atlas, "arrow_left", game);
+		final Button previousBtn = new PumpkinButton(regions, AtlasRegionId.ARROW_LEFT_UP, AtlasRegionId.ARROW_LEFT_DOWN,
+				game);
 		previousBtn.setPosition(1280 / 2 - 280 - 170 / 2, 25);
 		previousBtn.addListener(new ChangeListener() {
 			@Override
@@ -88,7 +87,7 @@ public class HelpScreen extends PumpkinScreen {
 		stage.addActor(previousBtn);
 
 		// The "Menu" pumpkin-button
-		final Button menuBtn = new PumpkinButton(atlas, "menu", game);
+		final Button menuBtn = new PumpkinButton(regions, AtlasRegionId.MENU_UP, AtlasRegionId.MENU_DOWN, game);
 		menuBtn.setPosition(1280 / 2 - 170 / 2, 25);
 		menuBtn.addListener(new ChangeListener() {
 			@Override
@@ -100,7 +99,8 @@ public class HelpScreen extends PumpkinScreen {
 		stage.addActor(menuBtn);
 
 		// The "Next" pumpkin-button
-		final Button nextBtn = new PumpkinButton(atlas, "arrow_right", game);
+		final Button nextBtn = new PumpkinButton(regions, AtlasRegionId.ARROW_RIGHT_UP, AtlasRegionId.ARROW_RIGHT_DOWN,
+				game);
 		nextBtn.setPosition(1280 / 2 + 280 - 170 / 2, 25);
 		nextBtn.addListener(new ChangeListener() {
 			@Override
@@ -125,6 +125,10 @@ public class HelpScreen extends PumpkinScreen {
 					Gdx.app.postRunnable(new Runnable() {
 						@Override
 						public void run() {
+							// The screen may have been left in the meantime
+							if (disposed) {
+								return;
+							}
 							game.setScreen(new MainMenuScreen(game));
 							HelpScreen.this.dispose();
 						}
@@ -139,8 +143,22 @@ public class HelpScreen extends PumpkinScreen {
 		game.currentScreenCallback.notifyScreenVisible(ICurrentScreenCallback.Screen.HELP);
 	}
 
+	@Override
+	public void render(final float delta) {
+		// Show the current panel once it has loaded
+		if (helpPanels[helpIndex] == null) {
+			updateHelpPanel();
+		}
+
+		super.render(delta);
+	}
+
 	/** Update the currently-displayed help panel as per the current help-panel index. */
 	private final void updateHelpPanel() {
+		if (helpPanels[helpIndex] == null && game.assets.isLoaded(HELP_PANELS[helpIndex])) {
+			final Texture texture = game.assets.get(HELP_PANELS[helpIndex], Texture.class);
+			helpPanels[helpIndex] = new TextureRegionDrawable(new TextureRegion(texture));
+		}
 		helpPanel.setDrawable(helpPanels[helpIndex]);
 	}
 }
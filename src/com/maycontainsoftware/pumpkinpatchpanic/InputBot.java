@@ -0,0 +1,421 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Buttons;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A simulated player, for leaving the game running unattended (e.g. for profiling, or hunting leaks). The bot plays
+ * through the same input path as a person: each tick, it looks at the current screen and delivers touches and back-key
+ * presses to the screen's InputProcessor, so buttons, pumpkins, dialogs and screen transitions all behave as they
+ * would for a real player.
+ * 
+ * In the game, the bot reacts to each pumpkin as it becomes Possessed, one at a time, after a reaction time drawn
+ * around the configured latency. A tap misses the pumpkin altogether unless it is accurate, and a mistake taps the
+ * wrong pumpkin. Either way, the bot reacts again if the pumpkin is still Possessed. After some rounds it quits to the
+ * menu part-way through a game, and after the game is over it returns to the menu.
+ * 
+ * From the main menu it mostly plays, but also reads the help, paging back and forth, and visits the settings, where
+ * it toggles the sound or music and back again. It leaves both screens with either the menu button or the back
+ * key. It never resets the high score.
+ * 
+ * The bot draws from a random stream of its own, so it never disturbs the game's random numbers. Live input is ignored
+ * while it plays.
+ * 
+ * @author Charlie
+ */
+class InputBot {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = InputBot.class.getSimpleName();
+
+	/** Number of ticks a touch is held down for. */
+	private static final int TAP_TICKS = 4;
+
+	/** The quickest the bot can react, in seconds. */
+	private static final float MIN_REACTION = 0.1f;
+
+	// Pause before each action on the menu screens, in seconds
+	private static final float MIN_MENU_PAUSE = 0.5f;
+	private static final float MAX_MENU_PAUSE = 2.0f;
+
+	/** The chance of quitting to the menu when a round ends. */
+	private static final float QUIT_CHANCE = 0.1f;
+
+	/** The most help pages the bot turns before leaving the help screen. */
+	private static final int MAX_HELP_PAGES = 8;
+
+	/** The game, for the current screen and the viewport. */
+	private final PumpkinGame game;
+
+	/** The bot's random numbers. */
+	private final RandomStream random;
+
+	/** The chance of a tap landing on the intended pumpkin. */
+	private final float accuracy;
+
+	/** The mean reaction time, in seconds. */
+	private final float latency;
+
+	/** The chance of tapping the wrong pumpkin instead of a Possessed one. */
+	private final float mistakeChance;
+
+	/** The screen the bot last acted on. */
+	private Screen screen;
+
+	/** The earliest tick at which the next menu action may be taken. */
+	private long nextActionTick;
+
+	// The touch being held down, if any
+
+	private long releaseTick = -1;
+	private int touchX;
+	private int touchY;
+
+	/** The pumpkins on the game screen, or null on any other screen. */
+	private PumpkinActor[] pumpkins;
+
+	/** The tick at which each pumpkin will be tapped, or -1 if it isn't going to be. */
+	private long[] tapAt;
+
+	/** The length of the reaction to each pumpkin that will be tapped, in ticks. */
+	private long[] reactionTicks;
+
+	/** The tick at which the bot finishes reacting to the pumpkins it has already seen. */
+	private long busyUntil;
+
+	/** The last round for which the bot has decided whether to quit. */
+	private int quitDecidedRound;
+
+	/** Number of help pages still to turn. */
+	private int helpPages;
+
+	/** The settings button tapped once, to be tapped again to restore the setting, or null. */
+	private PumpkinButton toggled;
+
+	/** Whether the settings have been changed and restored on this visit. */
+	private boolean settingsChanged;
+
+	/** Number of games played to the end. */
+	private int games;
+
+	/** Temporary vector, for coordinate conversion. */
+	private final Vector2 tmp = new Vector2();
+
+	/**
+	 * Construct a new bot.
+	 * 
+	 * @param game
+	 *            The game.
+	 * @param seed
+	 *            The random seed the game has been started with.
+	 * @param accuracy
+	 *            The chance, from 0 to 1, of a tap landing on the intended pumpkin.
+	 * @param latency
+	 *            The mean reaction time to a Possessed pumpkin, in seconds.
+	 * @param mistakeChance
+	 *            The chance, from 0 to 1, of tapping the wrong pumpkin instead of a Possessed one.
+	 */
+	InputBot(final PumpkinGame game, final long seed, final float accuracy, final float latency,
+			final float mistakeChance) {
+		this.game = game;
+		this.accuracy = accuracy;
+		this.latency = latency;
+		this.mistakeChance = mistakeChance;
+
+		// Distinct from the game's streams (see RandomStreams)
+		random = new RandomStream(RandomStream.mix(seed) - 1);
+
+		Gdx.app.log(TAG, "Playing with accuracy " + accuracy + ", latency " + latency + "s, mistakes " + mistakeChance);
+	}
+
+	/**
+	 * Take any action due before a tick.
+	 * 
+	 * @param tick
+	 *            The number of ticks completed.
+	 * @param processor
+	 *            The processor to deliver events to.
+	 */
+	void act(final long tick, final InputProcessor processor) {
+
+		// Finish a tap before doing anything else; the screen may change as a result
+		if (releaseTick != -1) {
+			if (tick >= releaseTick) {
+				releaseTick = -1;
+				processor.touchUp(touchX, touchY, 0, Buttons.LEFT);
+			}
+			return;
+		}
+
+		// Look around a new screen before acting on it
+		if (game.getScreen() != screen) {
+			screen = game.getScreen();
+			if (DEBUG) {
+				Gdx.app.log(TAG, "Screen: " + screen.getClass().getSimpleName());
+			}
+			startScreen(tick);
+			return;
+		}
+
+		if (screen instanceof GameScreen) {
+			playGame(tick, (GameScreen) screen, processor);
+		} else if (tick >= nextActionTick) {
+			if (screen instanceof MainMenuScreen) {
+				actOnMainMenu(tick, processor);
+			} else if (screen instanceof HelpScreen) {
+				actOnHelp(tick, processor);
+			} else if (screen instanceof SettingsScreen) {
+				actOnSettings(tick, processor);
+			}
+		}
+	}
+
+	/** Reset the bot's plans for a newly-shown screen. */
+	private void startScreen(final long tick) {
+		nextActionTick = tick + randomPause();
+		pumpkins = null;
+		helpPages = random.random(MAX_HELP_PAGES);
+		toggled = null;
+		settingsChanged = false;
+
+		if (screen instanceof GameScreen) {
+			final Array<Actor> actors = new Array<Actor>();
+			findPumpkins(((PumpkinScreen) screen).stage.getRoot(), actors);
+			pumpkins = new PumpkinActor[actors.size];
+			for (int i = 0; i < actors.size; i++) {
+				pumpkins[i] = (PumpkinActor) actors.get(i);
+			}
+			tapAt = new long[pumpkins.length];
+			reactionTicks = new long[pumpkins.length];
+			clearTaps(tick);
+			quitDecidedRound = 0;
+		}
+	}
+
+	/** Play a tick of the game. */
+	private void playGame(final long tick, final GameScreen gameScreen, final InputProcessor processor) {
+		final GameModel model = gameScreen.model;
+
+		if (!model.running) {
+			clearTaps(tick);
+
+			if (model.isGameOver()) {
+				// Wait a moment, then leave the game-over dialog for the menu; the game is only counted once the dialog
+				// is up, as it may not be straight away
+				if (tick >= nextActionTick && tapButton(tick, gameScreen, AtlasRegionId.MENU_UP, processor)) {
+					games++;
+					final Runtime runtime = Runtime.getRuntime();
+					Gdx.app.log(TAG, "Game " + games + " over at round " + model.currentRound + ", tick " + tick
+							+ ", heap " + (runtime.totalMemory() - runtime.freeMemory()) / 1024 + "KB");
+				}
+			} else if (model.currentRound != quitDecidedRound) {
+				// A round is over; now and then, quit while the next round is counted down
+				quitDecidedRound = model.currentRound;
+				if (random.randomBoolean(QUIT_CHANCE)) {
+					pressBack(processor);
+				}
+			}
+			return;
+		}
+		nextActionTick = tick + randomPause();
+
+		// Notice newly-possessed pumpkins, and forget about any that have escaped
+		for (int i = 0; i < pumpkins.length; i++) {
+			final boolean possessed = pumpkins[i].model.state == PumpkinModel.State.Possessed;
+			if (possessed && tapAt[i] == -1) {
+				// Start reacting once done with any other pumpkins
+				reactionTicks[i] = Math.round(reactionTime() / PumpkinGame.TICK);
+				busyUntil = Math.max(busyUntil, tick) + reactionTicks[i];
+				tapAt[i] = busyUntil;
+			} else if (!possessed && tapAt[i] != -1) {
+				// The rest of the reaction to it is not needed, so the pumpkins queued behind it are tapped sooner
+				final long saved = tapAt[i] - Math.max(tick, tapAt[i] - reactionTicks[i]);
+				for (int j = 0; j < pumpkins.length; j++) {
+					if (tapAt[j] > tapAt[i]) {
+						tapAt[j] -= saved;
+					}
+				}
+				busyUntil -= saved;
+				tapAt[i] = -1;
+			}
+		}
+
+		// Tap the first pumpkin due
+		for (int i = 0; i < pumpkins.length; i++) {
+			if (tapAt[i] != -1 && tapAt[i] <= tick) {
+				tapAt[i] = -1;
+				PumpkinActor target = pumpkins[i];
+				if (random.randomBoolean(mistakeChance)) {
+					// Tap a pumpkin at random, most likely one that isn't Possessed
+					target = pumpkins[random.random(pumpkins.length - 1)];
+				}
+				if (random.randomBoolean(accuracy)) {
+					tapActor(tick, target, processor);
+				} else {
+					// Miss, landing a pumpkin's height above or below
+					getCentre(target);
+					tap(tick, tmp.x + random.random(-1.0f, 1.0f) * target.getWidth(), tmp.y + target.getHeight()
+							* (random.randomBoolean() ? 1 : -1), processor);
+				}
+				return;
+			}
+		}
+	}
+
+	/** Forget about any pumpkins waiting to be tapped. */
+	private void clearTaps(final long tick) {
+		if (tapAt != null) {
+			for (int i = 0; i < tapAt.length; i++) {
+				tapAt[i] = -1;
+			}
+		}
+		busyUntil = tick;
+	}
+
+	/** Choose where to go from the main menu. */
+	private void actOnMainMenu(final long tick, final InputProcessor processor) {
+		final float choice = random.random();
+		if (choice < 0.7f) {
+			tapButton(tick, screen, AtlasRegionId.PLAY_UP, processor);
+		} else if (choice < 0.85f) {
+			tapButton(tick, screen, AtlasRegionId.HELP_UP, processor);
+		} else {
+			tapButton(tick, screen, AtlasRegionId.COG_UP, processor);
+		}
+	}
+
+	/** Turn the help pages, then leave. */
+	private void actOnHelp(final long tick, final InputProcessor processor) {
+		if (helpPages > 0) {
+			helpPages--;
+			tapButton(tick, screen, random.randomBoolean(0.75f) ? AtlasRegionId.ARROW_RIGHT_UP
+					: AtlasRegionId.ARROW_LEFT_UP, processor);
+		} else {
+			leave(tick, processor);
+		}
+	}
+
+	/** Toggle the sound or music and back again, then leave. */
+	private void actOnSettings(final long tick, final InputProcessor processor) {
+		if (toggled != null) {
+			tapActor(tick, toggled, processor);
+			toggled = null;
+			nextActionTick = tick + randomPause();
+		} else if (!settingsChanged) {
+			settingsChanged = true;
+			toggled = findButton(((PumpkinScreen) screen).stage.getRoot(),
+					random.randomBoolean() ? AtlasRegionId.SOUND_UP : AtlasRegionId.MUSIC_UP);
+			if (toggled != null) {
+				tapActor(tick, toggled, processor);
+			}
+			nextActionTick = tick + randomPause();
+		} else {
+			leave(tick, processor);
+		}
+	}
+
+	/** Leave a menu screen, with either the menu button or the back key. */
+	private void leave(final long tick, final InputProcessor processor) {
+		if (random.randomBoolean()) {
+			tapButton(tick, screen, AtlasRegionId.MENU_UP, processor);
+		} else {
+			pressBack(processor);
+			nextActionTick = tick + randomPause();
+		}
+	}
+
+	/** Draw a reaction time, in seconds, from a normal distribution (Box-Muller) with a deviation of a quarter. */
+	private float reactionTime() {
+		final double gaussian = Math.sqrt(-2.0 * Math.log(1.0f - random.random()))
+				* Math.cos(2.0 * Math.PI * random.random());
+		return Math.max(MIN_REACTION, (float) (latency * (1.0 + 0.25 * gaussian)));
+	}
+
+	/** Draw a pause before a menu action, in ticks. */
+	private long randomPause() {
+		return Math.round(random.random(MIN_MENU_PAUSE, MAX_MENU_PAUSE) / PumpkinGame.TICK);
+	}
+
+	/** Tap the centre of an actor. */
+	private void tapActor(final long tick, final Actor actor, final InputProcessor processor) {
+		getCentre(actor);
+		tap(tick, tmp.x, tmp.y, processor);
+	}
+
+	/**
+	 * Tap one of a screen's buttons, if it has it.
+	 * 
+	 * @return True if the button was found and tapped.
+	 */
+	private boolean tapButton(final long tick, final Screen buttonScreen, final AtlasRegionId id,
+			final InputProcessor processor) {
+		final PumpkinButton button = findButton(((PumpkinScreen) buttonScreen).stage.getRoot(), id);
+		if (button != null) {
+			tapActor(tick, button, processor);
+		} else if (DEBUG) {
+			Gdx.app.log(TAG, "No " + id + " button on " + buttonScreen.getClass().getSimpleName());
+		}
+		nextActionTick = tick + randomPause();
+		return button != null;
+	}
+
+	/** Touch down at a point in virtual coordinates, to be released TAP_TICKS later. */
+	private void tap(final long tick, final float x, final float y, final InputProcessor processor) {
+		touchX = game.virtualToScreenX(x);
+		touchY = game.virtualToScreenY(y);
+		releaseTick = tick + TAP_TICKS;
+		processor.touchDown(touchX, touchY, 0, Buttons.LEFT);
+	}
+
+	/** Press and release the back key. */
+	private void pressBack(final InputProcessor processor) {
+		processor.keyDown(Keys.ESCAPE);
+		processor.keyUp(Keys.ESCAPE);
+	}
+
+	/** Set tmp to the centre of an actor, in virtual coordinates. */
+	private void getCentre(final Actor actor) {
+		actor.localToStageCoordinates(tmp.set(actor.getWidth() / 2, actor.getHeight() / 2));
+	}
+
+	/** Find a button by its up region, anywhere in a group. */
+	private static PumpkinButton findButton(final Group group, final AtlasRegionId id) {
+		final Array<Actor> children = group.getChildren();
+		for (int i = 0; i < children.size; i++) {
+			final Actor child = children.get(i);
+			if (child instanceof PumpkinButton && ((PumpkinButton) child).id == id) {
+				return (PumpkinButton) child;
+			}
+			if (child instanceof Group) {
+				final PumpkinButton button = findButton((Group) child, id);
+				if (button != null) {
+					return button;
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Find the pumpkins anywhere in a group, in stage order. */
+	private static void findPumpkins(final Group group, final Array<Actor> pumpkins) {
+		final Array<Actor> children = group.getChildren();
+		for (int i = 0; i < children.size; i++) {
+			final Actor child = children.get(i);
+			if (child instanceof PumpkinActor) {
+				pumpkins.add(child);
+			} else if (child instanceof Group) {
+				findPumpkins((Group) child, pumpkins);
+			}
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * InputProcessor that records every input event to a log, then passes it on to the game. Together with the random
+ * seed, which is recorded first, the log is enough for InputReplayer to play the session back tick for tick.
+ * 
+ * Each event is stamped with the number of simulation ticks completed when it arrived (see PumpkinGame.TICK), and
+ * touch positions are recorded in virtual screen coordinates, so a log can be replayed at any frame rate and on any
+ * screen size. Mouse movement and scrolling are not recorded, as the game does not use them, and nor is input that
+ * arrives before the first screen has set a processor, as the game never sees it.
+ * 
+ * File layout, all values big-endian:
+ * 
+ * <pre>
+ * magic ("PPIR"), version, random seed (long),
+ * for each event: type (byte), ticks since the previous event (varint), then by type:
+ *   touch down/up: x, y (float), pointer, button (byte)
+ *   touch dragged: x, y (float), pointer (byte)
+ *   key down/up: key code (short)
+ *   key typed: character (char)
+ *   end: no more
+ * </pre>
+ * 
+ * @author Charlie
+ */
+class InputRecorder implements InputProcessor {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = InputRecorder.class.getSimpleName();
+
+	/** Magic number at the start of the file: "PPIR". */
+	static final int MAGIC = 0x50504952;
+
+	/** Current file version. */
+	static final int VERSION = 1;
+
+	// Event types
+
+	static final byte END = 0;
+	static final byte TOUCH_DOWN = 1;
+	static final byte TOUCH_UP = 2;
+	static final byte TOUCH_DRAGGED = 3;
+	static final byte KEY_DOWN = 4;
+	static final byte KEY_UP = 5;
+	static final byte KEY_TYPED = 6;
+
+	/** The game, for the tick count and the viewport. */
+	private final PumpkinGame game;
+
+	/** The log. */
+	private final DataOutputStream out;
+
+	/** The tick of the previous event. */
+	private long previousTick;
+
+	/** The processor events are passed on to. */
+	private InputProcessor processor;
+
+	/** Number of events recorded. */
+	private int events;
+
+	/**
+	 * Start recording.
+	 * 
+	 * @param game
+	 *            The game.
+	 * @param file
+	 *            The file to record to, which is overwritten.
+	 * @param seed
+	 *            The random seed the game has been started with.
+	 */
+	InputRecorder(final PumpkinGame game, final FileHandle file, final long seed) {
+		this.game = game;
+		out = new DataOutputStream(new BufferedOutputStream(file.write(false)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(seed);
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to record input to " + file, e);
+		}
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Recording input to " + file + ", seed " + seed);
+		}
+	}
+
+	/** Set the processor that recorded events are passed on to. */
+	void setProcessor(final InputProcessor processor) {
+		this.processor = processor;
+	}
+
+	/** Write out recorded events, in case the app is killed. */
+	void flush() {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			Gdx.app.error(TAG, "Unable to write input log", e);
+		}
+	}
+
+	/** Finish the log, marking the tick at which the session ended. */
+	void close() {
+		try {
+			startEvent(END);
+			out.close();
+		} catch (IOException e) {
+			Gdx.app.error(TAG, "Unable to write input log", e);
+		}
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Recorded " + events + " events over " + game.tickCount + " ticks");
+		}
+	}
+
+	/** Write an event's type and tick. */
+	private void startEvent(final byte type) throws IOException {
+		out.writeByte(type);
+		writeVarInt(out, (int) (game.tickCount - previousTick));
+		previousTick = game.tickCount;
+		events++;
+	}
+
+	/** Write a touch event. */
+	private void writeTouch(final byte type, final int screenX, final int screenY, final int pointer,
+			final int button) {
+		try {
+			startEvent(type);
+			out.writeFloat(game.screenToVirtualX(screenX));
+			out.writeFloat(game.screenToVirtualY(screenY));
+			out.writeByte(pointer);
+			if (type != TOUCH_DRAGGED) {
+				out.writeByte(button);
+			}
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to write input log", e);
+		}
+	}
+
+	/** Write a key event. */
+	private void writeKey(final byte type, final int keycode) {
+		try {
+			startEvent(type);
+			out.writeShort(keycode);
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to write input log", e);
+		}
+	}
+
+	/** Write an unsigned integer in 7-bit groups, low group first, so small values take a single byte. */
+	static void writeVarInt(final DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	@Override
+	public boolean keyDown(final int keycode) {
+		if (processor == null) {
+			return false;
+		}
+		writeKey(KEY_DOWN, keycode);
+		return processor.keyDown(keycode);
+	}
+
+	@Override
+	public boolean keyUp(final int keycode) {
+		if (processor == null) {
+			return false;
+		}
+		writeKey(KEY_UP, keycode);
+		return processor.keyUp(keycode);
+	}
+
+	@Override
+	public boolean keyTyped(final char character) {
+		if (processor == null) {
+			return false;
+		}
+		try {
+			startEvent(KEY_TYPED);
+			out.writeChar(character);
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to write input log", e);
+		}
+		return processor.keyTyped(character);
+	}
+
+	@Override
+	public boolean touchDown(final int screenX, final int screenY, final int pointer, final int button) {
+		if (processor == null) {
+			return false;
+		}
+		writeTouch(TOUCH_DOWN, screenX, screenY, pointer, button);
+		return processor.touchDown(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchUp(final int screenX, final int screenY, final int pointer, final int button) {
+		if (processor == null) {
+			return false;
+		}
+		writeTouch(TOUCH_UP, screenX, screenY, pointer, button);
+		return processor.touchUp(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchDragged(final int screenX, final int screenY, final int pointer) {
+		if (processor == null) {
+			return false;
+		}
+		writeTouch(TOUCH_DRAGGED, screenX, screenY, pointer, 0);
+		return processor.touchDragged(screenX, screenY, pointer);
+	}
+
+	@Override
+	public boolean mouseMoved(final int screenX, final int screenY) {
+		return processor != null && processor.mouseMoved(screenX, screenY);
+	}
+
+	@Override
+	public boolean scrolled(final int amount) {
+		return processor != null && processor.scrolled(amount);
+	}
+}
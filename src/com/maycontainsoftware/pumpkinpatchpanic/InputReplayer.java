@@ -0,0 +1,186 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Plays back a log written by InputRecorder. The game is started with the recorded random seed, live input is ignored,
+ * and each recorded event is delivered to the game's InputProcessor just before the tick at which it originally
+ * arrived. As game logic only advances in fixed ticks, the session then plays out exactly as it was recorded.
+ * 
+ * In real time, the replay runs at the usual tick rate, and the player takes over when it ends. In fast mode, the game
+ * simulates as many ticks as it can between frames, and exits when the replay ends, so a recorded session can be used
+ * as a repeatable workload.
+ * 
+ * @author Charlie
+ */
+class InputReplayer {
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = InputReplayer.class.getSimpleName();
+
+	/** The game, for the viewport. */
+	private final PumpkinGame game;
+
+	/** The log. */
+	private final DataInputStream in;
+
+	/** The random seed the session was recorded with. */
+	final long seed;
+
+	/** Whether to replay as fast as possible. */
+	final boolean fast;
+
+	/** The type of the next event. */
+	private byte nextType;
+
+	/** The tick of the next event. */
+	private long nextTick;
+
+	/** Number of events delivered. */
+	private int events;
+
+	/** The time at which the first tick was replayed. */
+	private long startNanos;
+
+	/**
+	 * Open a log for replay.
+	 * 
+	 * @param game
+	 *            The game.
+	 * @param file
+	 *            The log.
+	 * @param fast
+	 *            Whether to replay as fast as possible, rather than in real time.
+	 */
+	InputReplayer(final PumpkinGame game, final FileHandle file, final boolean fast) {
+		this.game = game;
+		this.fast = fast;
+		in = new DataInputStream(new BufferedInputStream(file.read()));
+		try {
+			if (in.readInt() != InputRecorder.MAGIC) {
+				throw new GdxRuntimeException("Not an input log: " + file);
+			}
+			final int version = in.readInt();
+			if (version != InputRecorder.VERSION) {
+				throw new GdxRuntimeException("Unsupported input log version " + version + ": " + file);
+			}
+			seed = in.readLong();
+			readNextEvent();
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to read input log " + file, e);
+		}
+	}
+
+	/**
+	 * Read the type and tick of the next event. The recorder writes in buffered chunks, so a log cut short (e.g. by the
+	 * app being killed) usually ends part way through an event; the replay then ends after the last complete event,
+	 * whether the log ends here or in deliver().
+	 */
+	private void readNextEvent() throws IOException {
+		try {
+			nextType = in.readByte();
+			nextTick += readVarInt(in);
+		} catch (EOFException e) {
+			nextType = InputRecorder.END;
+		}
+	}
+
+	/** Read an integer written by InputRecorder.writeVarInt(). */
+	static int readVarInt(final DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Deliver the events due before a tick.
+	 * 
+	 * @param tick
+	 *            The number of ticks completed.
+	 * @param processor
+	 *            The processor to deliver events to.
+	 * @return False if the replay has ended.
+	 */
+	boolean deliver(final long tick, final InputProcessor processor) {
+		if (startNanos == 0) {
+			startNanos = System.nanoTime();
+		}
+		try {
+			while (nextTick <= tick) {
+				if (nextType == InputRecorder.END) {
+					Gdx.app.log(TAG, "Replayed " + events + " events over " + tick + " ticks in "
+							+ (System.nanoTime() - startNanos) / 1000000 + "ms");
+					in.close();
+					return false;
+				}
+				try {
+					deliverNext(processor);
+				} catch (EOFException e) {
+					// Cut short part way through the event, which is dropped
+					nextType = InputRecorder.END;
+					continue;
+				}
+				events++;
+				readNextEvent();
+			}
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Unable to read input log", e);
+		}
+		return true;
+	}
+
+	/**
+	 * Read the rest of the next event, and deliver it. Nothing is delivered until the whole event has been read.
+	 * 
+	 * @param processor
+	 *            The processor to deliver the event to.
+	 */
+	private void deliverNext(final InputProcessor processor) throws IOException {
+		switch (nextType) {
+		case InputRecorder.TOUCH_DOWN:
+		case InputRecorder.TOUCH_UP: {
+			final int screenX = game.virtualToScreenX(in.readFloat());
+			final int screenY = game.virtualToScreenY(in.readFloat());
+			final int pointer = in.readByte();
+			final int button = in.readByte();
+			if (nextType == InputRecorder.TOUCH_DOWN) {
+				processor.touchDown(screenX, screenY, pointer, button);
+			} else {
+				processor.touchUp(screenX, screenY, pointer, button);
+			}
+			break;
+		}
+		case InputRecorder.TOUCH_DRAGGED: {
+			final int screenX = game.virtualToScreenX(in.readFloat());
+			final int screenY = game.virtualToScreenY(in.readFloat());
+			final int pointer = in.readByte();
+			processor.touchDragged(screenX, screenY, pointer);
+			break;
+		}
+		case InputRecorder.KEY_DOWN:
+			processor.keyDown(in.readShort());
+			break;
+		case InputRecorder.KEY_UP:
+			processor.keyUp(in.readShort());
+			break;
+		case InputRecorder.KEY_TYPED:
+			processor.keyTyped(in.readChar());
+			break;
+		default:
+			throw new GdxRuntimeException("Unknown event type in input log: " + nextType);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * Regions in loading.atlas.
+ * 
+ * Generated by util.GenerateRegionIds - do not edit.
+ */
+enum LoadingRegionId implements RegionId {
+	LOADING_BAR_BG("loading_bar_bg"),
+	LOADING_BAR_FG("loading_bar_fg"),
+	LOADING_BG("loading_bg"),
+	LOADING_TEXT("loading_text"),
+	;
+
+	private final String regionName;
+
+	private LoadingRegionId(final String regionName) {
+		this.regionName = regionName;
+	}
+
+	@Override
+	public String getRegionName() {
+		return regionName;
+	}
+}
@@ -2,11 +2,6 @@ package com.maycontainsoftware.pumpkinpatchpanic;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -53,7 +48,12 @@ public class LoadingScreen implements Screen {
 		// Load any assets required for the loading screen
 		game.manager.load("loading.atlas", TextureAtlas.class);
 		game.manager.finishLoading();
-		TextureAtlas loadingAtlas = game.manager.get("loading.atlas", TextureAtlas.class);
+		final RegionRegistry<LoadingRegionId> loadingRegions = new RegionRegistry<LoadingRegionId>(game.manager.get(
+				"loading.atlas", TextureAtlas.class), LoadingRegionId.class, game.density);
+		if (game.batch instanceof Etc1AlphaBatch) {
+			((Etc1AlphaBatch) game.batch).addAlphaPlanes(game.manager.get("loading.atlas", TextureAtlas.class),
+					game.manager);
+		}
 
 		// Create the Stage
 		stage = game.createStage();
@@ -65,44 +65,21 @@ public class LoadingScreen implements Screen {
 		stage.addActor(table);
 
 		// Blue gradient background
-		table.setBackground(new TextureRegionDrawable(loadingAtlas.findRegion("loading_bg")));
+		table.setBackground(new TextureRegionDrawable(loadingRegions.get(LoadingRegionId.LOADING_BG)));
 
 		// Text saying "Loading"
-		table.add(new Image(loadingAtlas.findRegion("loading_text")));
+		table.add(new Image(loadingRegions.get(LoadingRegionId.LOADING_TEXT)));
 
 		// Loading progress bar
 		table.row();
-		table.add(new LoadingBar(game.manager, loadingAtlas.findRegion("loading_bar_bg"), loadingAtlas
-				.findRegion("loading_bar_fg")));
-
-		// Load assets in AssetManager
-
-		// Texture atlases
-		game.manager.load("atlas.atlas", TextureAtlas.class);
-
-		// Textures
-		game.manager.load("help_panel_1.png", Texture.class);
-		game.manager.load("help_panel_2.png", Texture.class);
-		game.manager.load("help_panel_3.png", Texture.class);
-		game.manager.load("help_panel_4.png", Texture.class);
-		game.manager.load("help_panel_5.png", Texture.class);
-		game.manager.load("help_panel_6.png", Texture.class);
-
-		// Fonts
-		game.manager.load("arialb_32.fnt", BitmapFont.class);
-		game.manager.load("arialb_64.fnt", BitmapFont.class);
-
-		// Sound effects
-		game.manager.load("squark.mp3", Sound.class);
-		game.manager.load("spirit.mp3", Sound.class);
-		game.manager.load("thump.mp3", Sound.class);
-		game.manager.load("hiss.mp3", Sound.class);
-		game.manager.load("knock.mp3", Sound.class);
-
-		// Music
+		table.add(new LoadingBar(game.assets, loadingRegions.get(LoadingRegionId.LOADING_BAR_BG), loadingRegions
+				.get(LoadingRegionId.LOADING_BAR_FG)));
+
+		// Queue assets in AssetManager - those needed by the main menu first, then the rest of the game's assets, which
+		// continue to load in the background once the main menu is showing. Help panels are loaded on demand.
 		// Note that the MusicParameter class cannot be used to set looping to true, so this will need to be set later
-		game.manager.load("comeplaywithme.mp3", Music.class);
-		game.manager.load("wind.mp3", Music.class);
+		game.assets.queue(GameAsset.Tier.Critical);
+		game.assets.queue(GameAsset.Tier.Background);
 
 		game.currentScreenCallback.notifyScreenVisible(ICurrentScreenCallback.Screen.LOADING);
 	}
@@ -110,17 +87,36 @@ public class LoadingScreen implements Screen {
 	@Override
 	public void render(final float delta) {
 
+		final FrameProfiler profiler = game.profiler;
+
 		// Update and render the Stage
+		profiler.begin(FrameProfiler.ACT);
 		stage.act();
+		profiler.end(FrameProfiler.ACT);
+		profiler.begin(FrameProfiler.DRAW);
 		stage.draw();
-
-		// Continue to load assets
-		if (game.manager.update()) {
-			// Assets have been loaded!
-			if (DEBUG) {
-				Gdx.app.log(TAG, "game.manager.update() = true");
+		profiler.end(FrameProfiler.DRAW);
+
+		// Assets continue to load in PumpkinGame.render()
+		if (game.assets.isLoaded(GameAsset.Tier.Critical)) {
+			// Main menu assets have been loaded!
+			Gdx.app.log(TAG, "Main menu ready " + (System.nanoTime() - game.createNanos) / 1000000
+					+ "ms after create()");
+
+			// Resolve all atlas regions once, up front
+			game.regions = new RegionRegistry<AtlasRegionId>(game.assets.get(GameAsset.ATLAS, TextureAtlas.class),
+					AtlasRegionId.class, game.density);
+			if (game.batch instanceof Etc1AlphaBatch) {
+				((Etc1AlphaBatch) game.batch).addAlphaPlanes(game.assets.get(GameAsset.ATLAS, TextureAtlas.class),
+						game.manager);
 			}
 
+			// Resolve all sound effects once, up front
+			game.sounds = new SoundBank(new SoundBank.GdxBackend(game.assets));
+
+			// Build the scenery shared by all subsequent screens
+			game.scenery = new Scenery(game);
+
 			// Open main menu
 			game.setScreen(new MainMenuScreen(game));
 			this.dispose();
@@ -165,18 +161,24 @@ public class LoadingScreen implements Screen {
 		final float offsetY;
 		final float minU;
 		final float widthU;
-		final AssetManager manager;
+		final float width;
+		final float height;
+		final Assets assets;
 
-		public LoadingBar(final AssetManager manager, final TextureRegion background, final TextureRegion foreground) {
+		public LoadingBar(final Assets assets, final TextureRegion background, final TextureRegion foreground) {
 			super(background);
 
-			this.manager = manager;
+			this.assets = assets;
 
 			// Copy the TextureRegion as we're going to mess with its U2 coord
 			this.foreground = new TextureRegion(foreground);
 			minU = foreground.getU();
 			widthU = foreground.getU2() - minU;
 
+			// Size in virtual pixels, which the copy does not preserve for atlases of other densities
+			width = foreground.getRegionWidth();
+			height = foreground.getRegionHeight();
+
 			// Calculate offset of foreground wrt background
 			offsetX = (background.getRegionWidth() - foreground.getRegionWidth()) / 2.0f;
 			offsetY = (background.getRegionHeight() - foreground.getRegionHeight()) / 2.0f;
@@ -189,10 +191,11 @@ public class LoadingScreen implements Screen {
 			super.draw(batch, parentAlpha);
 
 			// Update the portion of the foreground bar to display
-			foreground.setU2(minU + widthU * manager.getProgress());
+			final float progress = assets.getProgress(GameAsset.Tier.Critical);
+			foreground.setU2(minU + widthU * progress);
 
 			// Draw the foreground bar
-			batch.draw(foreground, getX() + offsetX, getY() + offsetY);
+			batch.draw(foreground, getX() + offsetX, getY() + offsetY, width * progress, height);
 		}
 	}
 }
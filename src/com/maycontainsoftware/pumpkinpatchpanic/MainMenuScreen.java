@@ -43,7 +43,7 @@ public class MainMenuScreen extends PumpkinScreen {
 		// Note that all pumpkin-buttons are 230x150px
 
 		// The "Help" pumpkin-button
-		final Button btnHelp = new PumpkinButton(atlas, "help", game);
+		final Button btnHelp = new PumpkinButton(regions, AtlasRegionId.HELP_UP, AtlasRegionId.HELP_DOWN, game);
 		btnHelp.setPosition(1280 / 2 - 300 - 170 / 2, 150);
 		btnHelp.addListener(new ChangeListener() {
 			@Override
@@ -55,7 +55,7 @@ public class MainMenuScreen extends PumpkinScreen {
 		stage.addActor(btnHelp);
 
 		// The "Play" pumpkin-button
-		final Button btnPlay = new PumpkinButton(atlas, "play", game);
+		final Button btnPlay = new PumpkinButton(regions, AtlasRegionId.PLAY_UP, AtlasRegionId.PLAY_DOWN, game);
 		btnPlay.setPosition(1280 / 2 - 170 / 2, 95);
 		btnPlay.addListener(new ChangeListener() {
 			@Override
@@ -67,7 +67,7 @@ public class MainMenuScreen extends PumpkinScreen {
 		stage.addActor(btnPlay);
 
 		// The "Settings" pumpkin-button
-		final Button btnSettings = new PumpkinButton(atlas, "cog", game);
+		final Button btnSettings = new PumpkinButton(regions, AtlasRegionId.COG_UP, AtlasRegionId.COG_DOWN, game);
 		btnSettings.setPosition(1280 / 2 + 300 - 170 / 2, 150);
 		btnSettings.addListener(new ChangeListener() {
 			@Override
@@ -79,7 +79,7 @@ public class MainMenuScreen extends PumpkinScreen {
 		stage.addActor(btnSettings);
 
 		// And the logo!
-		final Image logo = new Image(atlas.findRegion("logo"));
+		final Image logo = new Image(regions.get(AtlasRegionId.LOGO));
 		logo.setPosition(1280 / 2 - logo.getWidth() / 2, 720 - 422);
 		logo.setTouchable(Touchable.disabled);
 		stage.addActor(logo);
@@ -98,4 +98,14 @@ public class MainMenuScreen extends PumpkinScreen {
 
 		game.currentScreenCallback.notifyScreenVisible(ICurrentScreenCallback.Screen.MAIN_MENU);
 	}
+
+	@Override
+	public void render(final float delta) {
+		super.render(delta);
+
+		// Start the music once it has finished loading in the background
+		if (game.music == null && game.assets.isLoaded(GameAsset.MENU_MUSIC)) {
+			game.updateMusic();
+		}
+	}
 }
@@ -0,0 +1,186 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * TextureData for a pre-decoded texture (".ptx") file, as written by util.PreDecodeTextures. The file holds pixel data
+ * exactly as it is passed to glTexImage2D, after a small header. The file is memory-mapped and uploaded straight from
+ * the mapping, so no PNG is inflated and no Pixmap is created.
+ * 
+ * File layout, all values big-endian ints:
+ * 
+ * <pre>
+ * magic ("PPTX"), version, GL internal format, GL format, GL type, width, height, data length, data...
+ * </pre>
+ * 
+ * On Android, files can only be mapped if aapt stores them uncompressed; otherwise they are read into a direct buffer
+ * instead, which is still much cheaper than decoding a PNG.
+ * 
+ * @author Charlie
+ */
+class MappedTextureData implements TextureData {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = MappedTextureData.class.getSimpleName();
+
+	/** Extension of pre-decoded texture files. */
+	static final String EXTENSION = ".ptx";
+
+	/** Magic number at the start of the file: "PPTX". */
+	static final int MAGIC = 0x50505458;
+
+	/** Current file version. */
+	static final int VERSION = 1;
+
+	/** Size of the header, in bytes. */
+	static final int HEADER_SIZE = 32;
+
+	/** The file. */
+	private final FileHandle file;
+
+	// Header fields, read by prepare()
+
+	private int glInternalFormat;
+	private int glFormat;
+	private int glType;
+	private int width;
+	private int height;
+
+	/** The pixel data, between prepare() and upload. */
+	private ByteBuffer pixels;
+
+	/**
+	 * Construct a new MappedTextureData.
+	 * 
+	 * @param file
+	 *            The pre-decoded texture file.
+	 */
+	public MappedTextureData(final FileHandle file) {
+		this.file = file;
+	}
+
+	@Override
+	public TextureDataType getType() {
+		// Not compressed as such, but uploaded by consumeCompressedData() rather than from a Pixmap
+		return TextureDataType.Compressed;
+	}
+
+	@Override
+	public boolean isPrepared() {
+		return pixels != null;
+	}
+
+	@Override
+	public void prepare() {
+		if (pixels != null) {
+			throw new GdxRuntimeException("Already prepared");
+		}
+
+		final long start = System.nanoTime();
+
+		ByteBuffer buffer;
+		try {
+			buffer = file.map();
+		} catch (GdxRuntimeException e) {
+			// Not mappable (e.g. compressed within the APK) - read it instead
+			final byte[] bytes = file.readBytes();
+			buffer = ByteBuffer.allocateDirect(bytes.length);
+			buffer.put(bytes);
+			buffer.flip();
+		}
+
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new GdxRuntimeException("Not a pre-decoded texture: " + file);
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new GdxRuntimeException("Unsupported pre-decoded texture version " + buffer.getInt(4) + ": " + file);
+		}
+		glInternalFormat = buffer.getInt(8);
+		glFormat = buffer.getInt(12);
+		glType = buffer.getInt(16);
+		width = buffer.getInt(20);
+		height = buffer.getInt(24);
+		final int length = buffer.getInt(28);
+		if (length != width * height * getBytesPerPixel() || buffer.remaining() < HEADER_SIZE + length) {
+			throw new GdxRuntimeException("Truncated pre-decoded texture: " + file);
+		}
+
+		buffer.position(HEADER_SIZE);
+		buffer.limit(HEADER_SIZE + length);
+		pixels = buffer.slice();
+
+		if (DEBUG) {
+			Gdx.app.log(TAG, "prepare(): " + file + ", " + width + "x" + height + " in "
+					+ (System.nanoTime() - start) / 1000 + "us");
+		}
+	}
+
+	@Override
+	public void consumeCompressedData(final int target) {
+		if (pixels == null) {
+			throw new GdxRuntimeException("Call prepare() before consumeCompressedData()");
+		}
+		Gdx.gl.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 1);
+		Gdx.gl.glTexImage2D(target, 0, glInternalFormat, width, height, 0, glFormat, glType, pixels);
+
+		// Release the mapping; the file is mapped again if the context is lost
+		pixels = null;
+	}
+
+	@Override
+	public Pixmap consumePixmap() {
+		throw new GdxRuntimeException("Pre-decoded textures are not uploaded from a Pixmap");
+	}
+
+	@Override
+	public boolean disposePixmap() {
+		throw new GdxRuntimeException("Pre-decoded textures are not uploaded from a Pixmap");
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public Format getFormat() {
+		if (glFormat == GL10.GL_RGBA && glType == GL10.GL_UNSIGNED_BYTE) {
+			return Format.RGBA8888;
+		}
+		if (glFormat == GL10.GL_RGB && glType == GL10.GL_UNSIGNED_BYTE) {
+			return Format.RGB888;
+		}
+		throw new GdxRuntimeException("Unsupported pixel format in " + file);
+	}
+
+	/** Get the size of a pixel, in bytes. */
+	private int getBytesPerPixel() {
+		return getFormat() == Format.RGBA8888 ? 4 : 3;
+	}
+
+	@Override
+	public boolean useMipMaps() {
+		return false;
+	}
+
+	@Override
+	public boolean isManaged() {
+		return true;
+	}
+}
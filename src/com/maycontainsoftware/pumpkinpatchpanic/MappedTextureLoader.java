@@ -0,0 +1,88 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Texture loader that uses a pre-decoded (".ptx") version of a PNG in place of the PNG itself, when one is present.
+ * Registered as the AssetManager's Texture loader, so existing load("....png", Texture.class) calls, and the pages of
+ * atlases and fonts, pick up pre-decoded files without any change. Anything without a pre-decoded version is loaded by
+ * a standard TextureLoader.
+ * 
+ * The file is mapped and its header read on the loading thread; only the upload happens on the rendering thread.
+ * 
+ * @author Charlie
+ */
+class MappedTextureLoader extends AsynchronousAssetLoader<Texture, TextureParameter> {
+
+	/** Loader for textures without a pre-decoded version. */
+	private final TextureLoader fallback;
+
+	/** The data of the texture being loaded, or null if the fallback is loading it. */
+	private MappedTextureData data;
+
+	public MappedTextureLoader(final FileHandleResolver resolver) {
+		super(resolver);
+		fallback = new TextureLoader(resolver);
+	}
+
+	/** Find the pre-decoded version of a texture, if there is one. */
+	private FileHandle resolveMapped(final String fileName) {
+		if (fileName.endsWith(MappedTextureData.EXTENSION)) {
+			return resolve(fileName);
+		}
+		if (fileName.endsWith(".png")) {
+			final FileHandle mapped = resolve(fileName.substring(0, fileName.length() - 4)
+					+ MappedTextureData.EXTENSION);
+			if (mapped.exists()) {
+				return mapped;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void loadAsync(final AssetManager manager, final String fileName, final TextureParameter parameter) {
+		final FileHandle mapped = resolveMapped(fileName);
+		if (mapped == null) {
+			data = null;
+			fallback.loadAsync(manager, fileName, parameter);
+			return;
+		}
+
+		data = new MappedTextureData(mapped);
+		data.prepare();
+	}
+
+	@Override
+	public Texture loadSync(final AssetManager manager, final String fileName, final TextureParameter parameter) {
+		if (data == null) {
+			return fallback.loadSync(manager, fileName, parameter);
+		}
+
+		Texture texture = parameter != null ? parameter.texture : null;
+		if (texture != null) {
+			texture.load(data);
+		} else {
+			texture = new Texture(data);
+		}
+		if (parameter != null) {
+			texture.setFilter(parameter.minFilter, parameter.magFilter);
+		}
+		data = null;
+		return texture;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Array<AssetDescriptor> getDependencies(final String fileName, final TextureParameter parameter) {
+		return null;
+	}
+}
@@ -15,6 +15,9 @@ public class MenuHud extends Table {
 	/** Label containing the current highest round reached. */
 	final Label highestRoundLabel;
 
+	/** Text of the highest round label. */
+	private final DigitBuffer highestRoundText = new DigitBuffer();
+
 	/** The game instance. */
 	private final PumpkinGame game;
 
@@ -31,8 +34,8 @@ public class MenuHud extends Table {
 		// debug();
 
 		// Load fonts
-		final BitmapFont font32 = game.manager.get("arialb_32.fnt", BitmapFont.class);
-		final BitmapFont font64 = game.manager.get("arialb_64.fnt", BitmapFont.class);
+		final BitmapFont font32 = game.assets.get(GameAsset.FONT_32, BitmapFont.class);
+		final BitmapFont font64 = game.assets.get(GameAsset.FONT_64, BitmapFont.class);
 
 		// Label styles
 		Label.LabelStyle style32 = new Label.LabelStyle(font32, Color.WHITE);
@@ -46,8 +49,10 @@ public class MenuHud extends Table {
 		updateHighestRound();
 	}
 
-	/** Update the highest round display from the game (via prefs). */
+	/** Update the highest round display from the game (via prefs). The Label is only touched if the value changed. */
 	public void updateHighestRound() {
-		highestRoundLabel.setText(String.valueOf(game.getHighestRound()));
+		if (highestRoundText.setNumber(game.getHighestRound())) {
+			highestRoundLabel.setText(highestRoundText.text);
+		}
 	}
 }
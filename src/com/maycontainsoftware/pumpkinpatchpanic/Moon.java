@@ -1,5 +1,6 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
@@ -11,10 +12,19 @@ import com.badlogic.gdx.scenes.scene2d.ui.Image;
  */
 class Moon extends Image {
 
+	/** The moon's model. */
+	private final MoonModel model;
+
+	/** The game, for the interpolation between ticks. */
+	private final PumpkinGame game;
+
 	/** Construct a new Moon actor. */
-	public Moon(final MoonModel model, final TextureRegion region) {
+	public Moon(final MoonModel model, final PumpkinGame game, final TextureRegion region) {
 		super(region);
 
+		this.model = model;
+		this.game = game;
+
 		// Moon's position and origin are known and fixed
 		// Position is middle of top edge of screen
 		setPosition(640 - 150 / 2, 720 - 150 / 2);
@@ -24,6 +34,13 @@ class Moon extends Image {
 		addAction(new MoonAction(model));
 	}
 
+	@Override
+	public void draw(SpriteBatch batch, float parentAlpha) {
+		// Draw where the moon is between ticks
+		setRotation(model.getAngle(game.tickAlpha));
+		super.draw(batch, parentAlpha);
+	}
+
 	/** Action to animate the moon. */
 	class MoonAction extends Action {
 
@@ -53,6 +53,9 @@ class MoonModel {
 	/** Angle of rotation. Note that angle is wrt vertical, with positive numbers being more CCW rotation. */
 	float angle;
 
+	/** Angle of rotation before the last update, for interpolation. */
+	private float previousAngle;
+
 	/** Angular speed in degrees per second. */
 	float angularSpeed;
 
@@ -61,6 +64,7 @@ class MoonModel {
 		// Want moon to start at far left horizon (not visible) so a delay exists before it appears
 		// Note that positive angle is a CCW rotation
 		angle = 90.0f;
+		previousAngle = angle;
 		// Actually rotating three times slower than previously calculated - three minute arc horizon to horizon
 		angularSpeed = 360.0f / (197.53f * 3);
 	}
@@ -72,7 +76,22 @@ class MoonModel {
 	 *            Number of seconds since last update.
 	 */
 	public void update(final float delta) {
+		previousAngle = angle;
 		angle -= delta * angularSpeed;
-		angle %= 360.0f;
+		if (angle <= -360.0f) {
+			// Wrap both angles, so interpolation doesn't spin the moon the long way round
+			angle += 360.0f;
+			previousAngle += 360.0f;
+		}
+	}
+
+	/**
+	 * Get the angle of rotation between the last two updates.
+	 * 
+	 * @param alpha
+	 *            How far from the previous update to the last, from 0 to 1.
+	 */
+	public float getAngle(final float alpha) {
+		return previousAngle + (angle - previousAngle) * alpha;
 	}
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -22,20 +21,20 @@ class Owl extends Image {
 	 * 
 	 * @param x
 	 * @param y
-	 * @param atlas
+	 * @param regions
 	 * @param model
 	 */
-	public Owl(final OwlModel model, final PumpkinGame game, final TextureAtlas atlas) {
+	public Owl(final OwlModel model, final PumpkinGame game, final RegionRegistry<AtlasRegionId> regions) {
 
 		// Call super with a graphic - mainly just to set up size for us
-		super(atlas.findRegion("owl_down"));
+		super(regions.get(AtlasRegionId.OWL_DOWN));
 
 		// Load owl frames
-		eyesDown = new TextureRegionDrawable(atlas.findRegion("owl_down"));
-		eyesLeft = new TextureRegionDrawable(atlas.findRegion("owl_left"));
-		eyesRight = new TextureRegionDrawable(atlas.findRegion("owl_right"));
-		blink = new TextureRegionDrawable(atlas.findRegion("owl_blink"));
-		poke = new TextureRegionDrawable(atlas.findRegion("owl_poke"));
+		eyesDown = new TextureRegionDrawable(regions.get(AtlasRegionId.OWL_DOWN));
+		eyesLeft = new TextureRegionDrawable(regions.get(AtlasRegionId.OWL_LEFT));
+		eyesRight = new TextureRegionDrawable(regions.get(AtlasRegionId.OWL_RIGHT));
+		blink = new TextureRegionDrawable(regions.get(AtlasRegionId.OWL_BLINK));
+		poke = new TextureRegionDrawable(regions.get(AtlasRegionId.OWL_POKE));
 
 		// Position the Owl on the stage
 		setPosition(model.x, model.y);
@@ -1,7 +1,5 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import com.badlogic.gdx.math.MathUtils;
-
 /**
  * OwlModel represents an Owl's logical data model.
  * 
@@ -43,22 +41,27 @@ class OwlModel {
 	/** Time until the next blink change. */
 	float timeToBlinkChange;
 
+	/** The random numbers for the owl's eye movements. */
+	private final RandomStream random;
+
 	/** Construct a new model. */
-	public OwlModel(final float x, final float y) {
+	public OwlModel(final float x, final float y, final RandomStream random) {
 
 		// Remember coordinates
 		this.x = x;
 		this.y = y;
 
+		this.random = random;
+
 		// Start off looking down
 		eyeDirection = EyeDirection.DOWN;
 		timeSinceEyeChange = 0.0f;
-		timeToEyeChange = MathUtils.random(0.5f, 4.0f);
+		timeToEyeChange = random.random(0.5f, 4.0f);
 
 		// And not blinking
 		eyesOpen = true;
 		timeSinceBlinkChange = 0.0f;
-		timeToBlinkChange = MathUtils.random(3.0f, 6.0f);
+		timeToBlinkChange = random.random(3.0f, 6.0f);
 
 		// And not poked
 		poked = false;
@@ -67,13 +70,13 @@ class OwlModel {
 	public void pickNewEyeDirection() {
 		switch (eyeDirection) {
 		case DOWN:
-			eyeDirection = MathUtils.randomBoolean() ? EyeDirection.LEFT : EyeDirection.RIGHT;
+			eyeDirection = random.randomBoolean() ? EyeDirection.LEFT : EyeDirection.RIGHT;
 			break;
 		case LEFT:
-			eyeDirection = MathUtils.randomBoolean() ? EyeDirection.DOWN : EyeDirection.RIGHT;
+			eyeDirection = random.randomBoolean() ? EyeDirection.DOWN : EyeDirection.RIGHT;
 			break;
 		case RIGHT:
-			eyeDirection = MathUtils.randomBoolean() ? EyeDirection.DOWN : EyeDirection.LEFT;
+			eyeDirection = random.randomBoolean() ? EyeDirection.DOWN : EyeDirection.LEFT;
 			break;
 		}
 	}
@@ -85,14 +88,14 @@ class OwlModel {
 
 	public void resetEyeChangeTimer() {
 		timeSinceEyeChange = 0.0f;
-		timeToEyeChange = MathUtils.random(0.5f, 4.0f);
+		timeToEyeChange = random.random(0.5f, 4.0f);
 	}
 
 	public void resetEyeBlinkTimer() {
 		if (eyesOpen) {
-			timeToBlinkChange = MathUtils.random(3.0f, 6.0f);
+			timeToBlinkChange = random.random(3.0f, 6.0f);
 		} else {
-			timeToBlinkChange = MathUtils.random(0.25f);
+			timeToBlinkChange = random.random(0.25f);
 		}
 		timeSinceBlinkChange = 0.0f;
 		// Blink also resets the poked state
@@ -112,7 +115,7 @@ class OwlModel {
 		eyesOpen = true;
 		timeToBlinkChange = 0.25f;
 		timeSinceBlinkChange = 0.0f;
-		timeToEyeChange = timeToBlinkChange + MathUtils.random(0.5f, 4.0f);
+		timeToEyeChange = timeToBlinkChange + random.random(0.5f, 4.0f);
 		timeSinceEyeChange = 0.0f;
 	}
 }
@@ -1,7 +1,6 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -12,23 +11,8 @@ import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.utils.TimeUtils;
 
 /**
- * Actor that represents a haunted pumpkin. During the game, a pumpkin goes through a number of stages:
- * 
- * 1) Initial delay. Initially, the pumpkin is dormant - a random delay exists before any other action takes place.
- * 
- * 2) Possession. Spirit begins to enter the pumpkin. Carved face fades in (fully) over random period of time.
- * 
- * 3) Possession Delay. Once face is completely visible, a random delay exists before either the pumpkin recovers, or it
- * becomes possessed.
- * 
- * 4a) Recovery. Carved face fades away to a partially-visible state over a random period of time, then continues
- * Possession.
- * 
- * 4b) Possessed. Evil face appears. In this state, player can tap pumpkin to exorcise it, returning it to the initial
- * state. If left in Possessed state for a fixed period of time, the spirit escapes.
- * 
- * 5) Spirit Release. The spirit escapes from the pumpkin. The carved face disappears altogether, the pumpkin reverts to
- * the initial state and the player loses a life.
+ * Actor that represents a haunted pumpkin. All game logic is held in the pumpkin's PumpkinModel; this Actor simply
+ * renders the model's current state and forwards touches to it.
  * 
  * @author Charlie
  */
@@ -49,131 +33,63 @@ class PumpkinActor extends Actor {
 	/** The hole texture. */
 	final TextureRegion hole;
 
-	/** Reference to the game screen, used for accessing resources and global game state. */
-	private final GameScreen screen;
-
-	/** Enumeration representing pumpkin state. */
-	private static enum PumpkinState {
-		Dormant,
-		Possession,
-		Possession_Delay,
-		Recovery,
-		Possessed,
-		Spirit_Release,
-	}
-
-	/** Pumpkin state. */
-	private PumpkinActor.PumpkinState state;
+	/** The normal face regions, indexed by face number - 1. */
+	private static final AtlasRegionId[] FACES = { AtlasRegionId.FACE1, AtlasRegionId.FACE2, AtlasRegionId.FACE3,
+			AtlasRegionId.FACE4, AtlasRegionId.FACE5, AtlasRegionId.FACE6, AtlasRegionId.FACE7, AtlasRegionId.FACE8,
+			AtlasRegionId.FACE9, };
 
-	/** Temporary variable used for meausing time left in current state. */
-	private float timer;
+	/** The evil face regions, indexed by face number - 1. */
+	private static final AtlasRegionId[] EVIL_FACES = { AtlasRegionId.FACE1_EVIL, AtlasRegionId.FACE2_EVIL,
+			AtlasRegionId.FACE3_EVIL, AtlasRegionId.FACE4_EVIL, AtlasRegionId.FACE5_EVIL, AtlasRegionId.FACE6_EVIL,
+			AtlasRegionId.FACE7_EVIL, AtlasRegionId.FACE8_EVIL, AtlasRegionId.FACE9_EVIL, };
 
-	/** Current alpha value of face graphic. */
-	private float faceAlpha;
+	/** Reference to the game screen, used for accessing resources and global game state. */
+	private final GameScreen screen;
 
-	/** Change in face alpha value, per second. Note this can be (and frequently is) negative. */
-	private float alphaChangePerSecond;
+	/** The pumpkin's logical data model. */
+	final PumpkinModel model;
 
-	/** Hiss sound, made by a pumpkin in the Possessed state. */
-	private final Sound hiss;
+	/** The face number that the face textures were last looked up for. */
+	private int faceNumber;
 
 	/** Id of the currently-playing hiss sound. */
-	private long hissId;
+	long hissId = SoundBank.NOT_PLAYED;
 
 	/** Construct a PumpkinActor. */
-	public PumpkinActor(final GameScreen screen) {
+	public PumpkinActor(final GameScreen screen, final PumpkinModel model) {
 
-		// Store reference to the screen
+		// Store reference to the screen and model
 		this.screen = screen;
+		this.model = model;
 
 		// Load textures required for rendering
-		plant = screen.atlas.findRegion("plant");
-		pumpkin = screen.atlas.findRegion("pumpkin");
-		hole = screen.atlas.findRegion("hole");
-		// Note: face and evilFace are set in resetToDormant();
+		plant = screen.regions.get(AtlasRegionId.PLANT);
+		pumpkin = screen.regions.get(AtlasRegionId.PUMPKIN);
+		hole = screen.regions.get(AtlasRegionId.HOLE);
+		// Note: face and evilFace are set in updateFace();
+		updateFace();
 
 		// For collision-detection reasons, the size of the Actor is the size of just the pumpkin
 		setWidth(pumpkin.getRegionWidth());
 		setHeight(pumpkin.getRegionHeight());
 
-		// Get reference to sound file
-		hiss = screen.game.manager.get("hiss.mp3", Sound.class);
-
-		// Initial state
-		resetToDormant();
-
 		addListener(new InputListener() {
 			@Override
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
 
-				if (!screen.gameRunning) {
-					// If game isn't running, return false (ignore input, leave for other Actors to intercept)
+				if (GameScreen.DEBUG) {
+					Gdx.app.log(GameScreen.TAG, "Pumpkin touched in state " + model.state);
+				}
+
+				// If game isn't running, the model will ignore input, leave for other Actors to intercept
+				if (!model.touch()) {
 					return false;
-				} else {
-					switch (state) {
-					case Dormant:
-					case Possession:
-					case Possession_Delay:
-					case Recovery:
-						// Too early
-						if (GameScreen.DEBUG) {
-							Gdx.app.log(GameScreen.TAG, "Hit too early");
-						}
-
-						// Decrement lives
-						screen.livesLeft--;
-						screen.hud.updateLives();
-
-						// Life lost - play ominous sound
-						screen.game.playKnock();
-
-						// Check for game over condition
-						if (screen.livesLeft <= 0) {
-							// Open game-over dialog
-							screen.dialog = screen.createGameOverDialog();
-							screen.stage.addActor(screen.dialog);
-						}
-
-						// Move to dormant state
-						resetToDormant();
-
-						break;
-					case Possessed:
-						// Correct timing
-						if (GameScreen.DEBUG) {
-							Gdx.app.log(GameScreen.TAG, "Correct hit");
-						}
-
-						// Stop this pumpkin's hissing sound
-						hiss.stop(hissId);
-
-						// Move to dormant state
-						resetToDormant();
-
-						break;
-					case Spirit_Release:
-						// Too late
-						if (GameScreen.DEBUG) {
-							Gdx.app.log(GameScreen.TAG, "Hit too late");
-						}
-
-						// Ignore this input.
-
-						// Player has already been penalised for letting the spirit escape, so no further penalty
-						// required.
-
-						// No state change required - pumpkin will automatically recover
-
-						break;
-					default:
-						throw new IllegalStateException();
-					}
-
-					// Play the "interaction" sound effect
-					screen.game.playThump();
-
-					return true;
 				}
+
+				// Play the "interaction" sound effect
+				screen.game.playThump();
+
+				return true;
 			}
 		});
 	}
@@ -183,115 +99,19 @@ class PumpkinActor extends Actor {
 		// Run any Actions added to this Actor
 		super.act(delta);
 
-		if (screen.gameRunning) {
-			// Whatever we're doing, decrement the timer
-			timer -= delta;
-
-			// Additional processing
-			switch (state) {
-			case Dormant:
-			case Possession_Delay:
-			case Possessed:
-			case Spirit_Release:
-				// No additional processing
-				break;
-			case Possession:
-				// Update face alpha value (alphaChangePerSecond will be positive)
-				faceAlpha += alphaChangePerSecond * delta;
-				break;
-			case Recovery:
-				// Update face alpha value (alphaChangePerSecond will be negative)
-				faceAlpha += alphaChangePerSecond * delta;
-				break;
-			default:
-				throw new IllegalStateException();
-			}
-
-			// Timer expiration
-			if (timer <= 0.0f) {
-				switch (state) {
-				case Dormant:
-					// If timer expired, move to Possession state
-					state = PumpkinState.Possession;
-					timer = Difficulty.getPossessionTime(screen.currentRound);
-					alphaChangePerSecond = (1.0f - 0.0f) / timer;
-					faceAlpha = 0.0f;
-					break;
-				case Possession:
-					// If timer expired, move to Possession_Delay state
-					state = PumpkinState.Possession_Delay;
-					timer = Difficulty.getPossessionDelay(screen.currentRound);
-					faceAlpha = 1.0f;
-					break;
-				case Possession_Delay:
-					// If timer expired, either become Possessed or move to Recovery
-					if (Difficulty.getRecoveryChance(screen.currentRound)) {
-						// Proceed to Recovery
-						state = PumpkinState.Recovery;
-						timer = Difficulty.getRecoveryTime(screen.currentRound);
-						final float alphaTo = MathUtils.random(0.0f, 0.5f);
-						alphaChangePerSecond = (alphaTo - 1.0f) / timer;
-					} else {
-						// Proceed to Possessed
-						state = PumpkinState.Possessed;
-						timer = Difficulty.getPossessedTime(screen.currentRound);
-
-						// Play hiss sound
-						if (screen.game.soundEnabled) {
-							hissId = hiss.play();
-						}
-					}
-					break;
-				case Recovery:
-					// If timer expired, move to Possession state
-					state = PumpkinState.Possession;
-					timer = Difficulty.getPossessionTime(screen.currentRound);
-
-					alphaChangePerSecond = (1.0f - faceAlpha) / timer;
-					break;
-				case Possessed:
-					// Decrement lives
-					screen.livesLeft--;
-					screen.hud.updateLives();
-
-					// Life lost - play ominous sound
-					screen.game.playKnock();
-
-					// Check for game over condition
-					if (screen.livesLeft <= 0) {
-						// Open game-over dialog
-						screen.dialog = screen.createGameOverDialog();
-						screen.stage.addActor(screen.dialog);
-					}
-
-					// Move to spirit-released state
-					state = PumpkinState.Spirit_Release;
-					timer = 2.0f;
-
-					// Release spirit
-					final float x = getX() + getWidth() / 2;
-					final float y = getY() + getHeight() / 2;
-					final Spirit spirit = new Spirit(screen.atlas.findRegion("ghost"), x, y);
-					screen.stage.addActor(spirit);
-
-					// Stop hissing
-					hiss.stop(hissId);
-
-					// Play sound effect
-					screen.game.playSpirit();
-
-					break;
-				case Spirit_Release:
-					// Move to dormant state
-					resetToDormant();
-					break;
-				default:
-					throw new IllegalStateException();
-				}
-			}
+		// The model is updated by the GameModel; just keep the face textures in step with it
+		if (faceNumber != model.faceNumber) {
+			updateFace();
 		}
 	}
 
+	/** Look up the face textures for the model's current face number. */
+	private void updateFace() {
+		faceNumber = model.faceNumber;
+		face = screen.regions.get(FACES[faceNumber - 1]);
+		evilFace = screen.regions.get(EVIL_FACES[faceNumber - 1]);
+	}
+
 	@Override
 	public void draw(SpriteBatch batch, float parentAlpha) {
 
@@ -304,7 +124,7 @@ class PumpkinActor extends Actor {
 		final float amplitude;
 		final float normalizedAngle;
 
-		switch (state) {
+		switch (model.state) {
 		case Dormant:
 		case Spirit_Release:
 			amplitude = 0.0f;
@@ -313,7 +133,7 @@ class PumpkinActor extends Actor {
 		case Possession:
 		case Possession_Delay:
 		case Recovery:
-			amplitude = 1.0f * faceAlpha;
+			amplitude = 1.0f * model.faceAlpha;
 			normalizedAngle = MathUtils.sinDeg(2 * TimeUtils.millis() % 360);
 			break;
 		case Possessed:
@@ -331,7 +151,7 @@ class PumpkinActor extends Actor {
 				getScaleY(), angle);
 
 		// Draw the detail texture
-		switch (state) {
+		switch (model.state) {
 		case Dormant:
 			// No face visible
 			break;
@@ -340,7 +160,7 @@ class PumpkinActor extends Actor {
 		case Recovery:
 			// Normal face visible, potentially with alpha
 			// Face is always 170x130
-			batch.setColor(1.0f, 1.0f, 1.0f, faceAlpha);
+			batch.setColor(1.0f, 1.0f, 1.0f, model.faceAlpha);
 			batch.draw(face, getX() + 15, getY() + 10, 170 / 2, 130 / 2, 170, 130, getScaleX(), getScaleY(), angle);
 			batch.setColor(Color.WHITE);
 			break;
@@ -353,7 +173,7 @@ class PumpkinActor extends Actor {
 			// Hole visible
 			// Know that timer in Spirit_Release state counts from 2.0f down to 0.0f
 			// Calculate hole alpha from timer value
-			batch.setColor(1.0f, 1.0f, 1.0f, Math.min(1.0f, timer));
+			batch.setColor(1.0f, 1.0f, 1.0f, Math.min(1.0f, model.timer));
 			batch.draw(hole, getX() + 15, getY() + 10, 170 / 2, 130 / 2, 170, 130, getScaleX(), getScaleY(), angle);
 			batch.setColor(Color.WHITE);
 			break;
@@ -361,64 +181,4 @@ class PumpkinActor extends Actor {
 			throw new IllegalStateException();
 		}
 	}
-
-	/** Reset the pumpkin to initial state. Used primarily at the start of each round. */
-	public void resetToDormant() {
-		state = PumpkinState.Dormant;
-		timer = Difficulty.getDormantTime(screen.currentRound);
-		faceAlpha = 0.0f;
-
-		// Pick a random face, which might be the same one as currently displayed
-		final int faceNumber = MathUtils.random(1, 9);
-		face = screen.atlas.findRegion("face" + faceNumber);
-		evilFace = screen.atlas.findRegion("face" + faceNumber + "_evil");
-	}
-
-	/**
-	 * Class to calculate game constants in such a way that difficulty increases with each new round.
-	 * 
-	 * Basic of calculations is an exponential decay, which is of the form:
-	 * 
-	 * y = initial * e^(-lambda * x)
-	 * 
-	 * Which we can simplify as follows:
-	 * 
-	 * a) Set initial = 1, so values are all clamped in range (0, 1]
-	 * 
-	 * c) Set lambda s.t. the output values decay to ~10% of 0 after a suitable expected round cap. A lambda of 0.1
-	 * makes the output value 10% at 23 rounds, 5% at 30 rounds.
-	 * 
-	 * @author Charlie
-	 */
-	static class Difficulty {
-
-		private static final float decay(int round) {
-			return (float) Math.pow(Math.E, -0.1 * round);
-		}
-
-		static float getDormantTime(int round) {
-			return MathUtils.random(1.0f, 1.5f + decay(round) * 2.5f);
-		}
-
-		static float getPossessionTime(int round) {
-			return MathUtils.random(1.0f, 1.0f + decay(round) * 3.0f);
-		}
-
-		static float getPossessionDelay(int round) {
-			return MathUtils.random(0.1f, 0.5f + decay(round) * 1.5f);
-		}
-
-		static boolean getRecoveryChance(int round) {
-			float chance = decay(round) * 0.8f;
-			return MathUtils.randomBoolean(chance);
-		}
-
-		static float getRecoveryTime(int round) {
-			return MathUtils.random(0.5f, 1.0f + decay(round) * 3.0f);
-		}
-
-		static float getPossessedTime(int round) {
-			return 0.5f + decay(round) * 1.0f;
-		}
-	}
 }
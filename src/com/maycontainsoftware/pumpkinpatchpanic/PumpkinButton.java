@@ -1,25 +1,26 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 
 class PumpkinButton extends Button {
-	final TextureAtlas atlas;
 	final TextureRegion plant;
 	final TextureRegion pumpkin;
 	final PumpkinGame game;
 
-	public PumpkinButton(final TextureAtlas atlas, final String prefix, final PumpkinGame game) {
-		super(new TextureRegionDrawable(atlas.findRegion(prefix + "_up")), new TextureRegionDrawable(
-				atlas.findRegion(prefix + "_down")));
-		this.atlas = atlas;
+	/** The button's up region, which identifies the button (e.g. to InputBot). */
+	final AtlasRegionId id;
+
+	public PumpkinButton(final RegionRegistry<AtlasRegionId> regions, final AtlasRegionId up,
+			final AtlasRegionId down, final PumpkinGame game) {
+		super(new TextureRegionDrawable(regions.get(up)), new TextureRegionDrawable(regions.get(down)));
 		this.game = game;
+		this.id = up;
 
-		this.plant = atlas.findRegion("plant");
-		this.pumpkin = atlas.findRegion("pumpkin");
+		this.plant = regions.get(AtlasRegionId.PLANT);
+		this.pumpkin = regions.get(AtlasRegionId.PUMPKIN);
 	}
 
 	@Override
@@ -39,40 +40,46 @@ class PumpkinButton extends Button {
 	}
 
 	/**
-	 * A PumpkinButton with two sets of up/down states, plus utility methods to easily switch between them.
+	 * A PumpkinButton with two sets of up/down states, plus utility methods to easily switch between them. Both sets of
+	 * drawables are created up front, so switching between them allocates nothing.
 	 * 
 	 * @author Charlie
 	 */
 	static class TogglePumpkinButton extends PumpkinButton {
 
-		final String onPrefix;
-		final String offPrefix;
+		final TextureRegionDrawable onUp;
+		final TextureRegionDrawable onDown;
+		final TextureRegionDrawable offUp;
+		final TextureRegionDrawable offDown;
 
 		/** Constructor. */
-		public TogglePumpkinButton(final TextureAtlas atlas, final String onPrefix, final String offPrefix,
+		public TogglePumpkinButton(final RegionRegistry<AtlasRegionId> regions, final AtlasRegionId onUp,
+				final AtlasRegionId onDown, final AtlasRegionId offUp, final AtlasRegionId offDown,
 				final PumpkinGame game) {
-			super(atlas, onPrefix, game);
+			super(regions, onUp, onDown, game);
 
-			this.onPrefix = onPrefix;
-			this.offPrefix = offPrefix;
+			this.onUp = new TextureRegionDrawable(regions.get(onUp));
+			this.onDown = new TextureRegionDrawable(regions.get(onDown));
+			this.offUp = new TextureRegionDrawable(regions.get(offUp));
+			this.offDown = new TextureRegionDrawable(regions.get(offDown));
 		}
 
 		/** Switch the button graphics to a different up/down pair. */
-		private void switchGraphics(String prefix) {
+		private void switchGraphics(final TextureRegionDrawable up, final TextureRegionDrawable down) {
 			final Button.ButtonStyle style = getStyle();
-			style.up = new TextureRegionDrawable(atlas.findRegion(prefix + "_up"));
-			style.down = new TextureRegionDrawable(atlas.findRegion(prefix + "_down"));
+			style.up = up;
+			style.down = down;
 			setStyle(style);
 		}
 
 		/** Switch the button graphics to the previously-specified "on" up/down pair. */
 		public void on() {
-			switchGraphics(onPrefix);
+			switchGraphics(onUp, onDown);
 		}
 
 		/** Switch the button graphics to the previously-specified "off" up/down pair. */
 		public void off() {
-			switchGraphics(offPrefix);
+			switchGraphics(offUp, offDown);
 		}
 
 	}
@@ -1,15 +1,17 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import java.util.List;
-
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL10;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
@@ -38,6 +40,20 @@ public class PumpkinGame extends Game {
 	/** The aspect ratio of the virtual render area. */
 	private static final float VIRTUAL_ASPECT_RATIO = (float) VIRTUAL_WIDTH / (float) VIRTUAL_HEIGHT;
 
+	// Simulation timing
+
+	/** Length of a simulation tick, in seconds. Game logic always advances by exactly this much at a time. */
+	static final float TICK = 1.0f / 60.0f;
+
+	/**
+	 * The most time simulated in a single frame, in seconds. After a longer frame (a GC pause, or resuming from the
+	 * background), the game slows down rather than running so many ticks that the next frame is late too.
+	 */
+	static final float MAX_FRAME_TIME = 0.25f;
+
+	/** Time spent simulating between frames when replaying input as fast as possible, in nanoseconds. */
+	private static final long FAST_REPLAY_FRAME_NANOS = 100 * 1000000L;
+
 	/**
 	 * The app-global SpriteBatch. For performance reasons, a single SpriteBatch exists and is accessed from all Screens
 	 * in the app,
@@ -50,9 +66,24 @@ public class PumpkinGame extends Game {
 	/** Rectangle that represents the glViewport. */
 	final Rectangle viewport = new Rectangle();
 
+	/** Resolves asset names to files, in the asset bundle or in internal storage. */
+	FileHandleResolver files;
+
+	/** The density of the atlases in use. */
+	Density density;
+
 	/** The asset manager used by the loading screen to load all assets not directly required by the loading screen. */
 	AssetManager manager;
 
+	/** The game's assets, loaded in tiers through the asset manager. */
+	Assets assets;
+
+	/** Whether the background tier of assets has finished loading. */
+	private boolean backgroundLoaded;
+
+	/** The time at which create() was called, for measuring start-up time. */
+	long createNanos;
+
 	/** The Scene2D UI skin instance. */
 	// Skin skin;
 
@@ -61,11 +92,11 @@ public class PumpkinGame extends Game {
 
 	// Preferences
 
-	/** Name of preferences file for state persistence. */
+	/** Name of preferences file used for state persistence by earlier versions. */
 	private static final String PREFERENCES_NAME = "com.maycontainsoftware.pumpkinpatchpanic";
 
-	/** Preferences file. */
-	Preferences mPrefs;
+	/** The player's settings, held in memory and persisted in the background. */
+	Settings settings;
 
 	/** Background music. */
 	Music music;
@@ -73,11 +104,64 @@ public class PumpkinGame extends Game {
 	/** Boolean value to track whether sounds are enabled or disabled. */
 	boolean soundEnabled;
 
-	// Scenery models
+	/** The sound effects, created once loading is complete. */
+	SoundBank sounds;
+
+	/** The curve that defines how difficulty increases with each round. */
+	DifficultyCurve difficultyCurve;
 
-	List<OwlModel> owls;
-	List<CloudModel> clouds;
-	MoonModel moon;
+	/** The random numbers for each subsystem, all derived from one seed. */
+	RandomStreams random;
+
+	/** The regions of the main TextureAtlas, resolved once loading is complete. */
+	RegionRegistry<AtlasRegionId> regions;
+
+	/**
+	 * Whether the unmoving scenery layers are baked into a SpriteCache, rather than drawn through the SpriteBatch every
+	 * frame. This trades per-frame vertex work for a couple of extra render calls.
+	 */
+	final boolean cacheStaticScenery;
+
+	/** The frame profiler, toggled with F3. F4 logs the frames it holds. */
+	final FrameProfiler profiler = new FrameProfiler(FrameProfiler.DEFAULT_CAPACITY);
+
+	// Previous state of the profiler keys, to detect presses
+	private boolean profilerKeyDown;
+	private boolean profilerLogKeyDown;
+
+	/** The scenery shared by all PumpkinScreens, created once loading is complete. */
+	Scenery scenery;
+
+	/** Time not yet simulated, always less than one tick after render() has advanced the simulation. */
+	private float accumulator;
+
+	/** Number of ticks simulated since the first screen was shown. Recorded input is stamped with this. */
+	long tickCount;
+
+	/**
+	 * How far between the last tick and the next one this frame is drawn, from 0 to 1. Actors that move smoothly draw
+	 * their models' state interpolated by this much, so movement is smooth at any display rate.
+	 */
+	float tickAlpha;
+
+	// Input recording and replay
+
+	private FileHandle recordFile;
+	private FileHandle replayFile;
+	private boolean replayFast;
+	private InputRecorder recorder;
+	private InputReplayer replayer;
+
+	// Simulated player
+
+	private boolean botEnabled;
+	private float botAccuracy;
+	private float botLatency;
+	private float botMistakeChance;
+	private InputBot bot;
+
+	/** The current screen's InputProcessor. */
+	private InputProcessor inputProcessor;
 
 	/**
 	 * Construct a new PPPGame.
@@ -85,14 +169,107 @@ public class PumpkinGame extends Game {
 	 * @param adVisibilityCallback
 	 */
 	public PumpkinGame(final ICurrentScreenCallback currentScreenCallback) {
+		this(currentScreenCallback, false);
+	}
+
+	/**
+	 * Construct a new PPPGame.
+	 * 
+	 * @param currentScreenCallback
+	 * @param cacheStaticScenery
+	 *            Whether to bake the unmoving scenery layers into a SpriteCache.
+	 */
+	public PumpkinGame(final ICurrentScreenCallback currentScreenCallback, final boolean cacheStaticScenery) {
 		this.currentScreenCallback = currentScreenCallback;
+		this.cacheStaticScenery = cacheStaticScenery;
+	}
+
+	/**
+	 * Record the session's input and random seed, for replay with replayInput(). Call before the game is started.
+	 * 
+	 * @param file
+	 *            The file to record to.
+	 */
+	public void recordInput(final FileHandle file) {
+		recordFile = file;
+	}
+
+	/**
+	 * Replay a session recorded with recordInput(). Call before the game is started.
+	 * 
+	 * @param file
+	 *            The recording.
+	 * @param fast
+	 *            True to replay as fast as possible and exit at the end, false to replay in real time and then hand
+	 *            over to the player.
+	 */
+	public void replayInput(final FileHandle file, final boolean fast) {
+		replayFile = file;
+		replayFast = fast;
+	}
+
+	/**
+	 * Let a simulated player play the game, through the normal input path, until it is closed (see InputBot). Live
+	 * input is ignored. Combined with recordInput(), the session can be replayed. Call before the game is started.
+	 * 
+	 * @param accuracy
+	 *            The chance, from 0 to 1, of a tap landing on the intended pumpkin.
+	 * @param latency
+	 *            The mean reaction time to a Possessed pumpkin, in seconds.
+	 * @param mistakeChance
+	 *            The chance, from 0 to 1, of tapping the wrong pumpkin instead of a Possessed one.
+	 */
+	public void playBot(final float accuracy, final float latency, final float mistakeChance) {
+		botEnabled = true;
+		botAccuracy = accuracy;
+		botLatency = latency;
+		botMistakeChance = mistakeChance;
 	}
 
 	@Override
 	public void create() {
 
-		// Set up SpriteBatch
-		batch = new SpriteBatch();
+		createNanos = System.nanoTime();
+
+		// Seed the random numbers before anything uses them, from the recording if replaying
+		long seed = System.nanoTime();
+		if (replayFile != null) {
+			replayer = new InputReplayer(this, replayFile, replayFast);
+			seed = replayer.seed;
+		} else if (recordFile != null) {
+			recorder = new InputRecorder(this, recordFile, seed);
+		}
+		random = new RandomStreams(seed);
+
+		// A replay already has its input
+		if (botEnabled && replayer == null) {
+			bot = new InputBot(this, seed, botAccuracy, botLatency, botMistakeChance);
+		}
+
+		// Read assets from the bundle, if the build has produced one
+		final FileHandleResolver bundle = AssetBundle.createResolver(Gdx.files.internal(AssetBundle.FILE_NAME));
+
+		// Choose the atlas density for the screen, if the build has produced atlases at more than one density
+		density = Density.choose(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		if (!bundle.resolve(density.getAtlasName(GameAsset.ATLAS.fileName)).exists()) {
+			density = Density.NORMAL;
+		}
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Density: " + density);
+		}
+		files = new Density.Resolver(bundle, density);
+
+		// Set up SpriteBatch - atlases built with ETC1-compressed pages need a batch that can combine their alpha planes
+		if (Etc1AlphaBatch.isCompressed(files.resolve(GameAsset.ATLAS.fileName))) {
+			if (Gdx.graphics.isGL20Available()) {
+				batch = new Etc1AlphaBatch();
+			} else {
+				Gdx.app.error(TAG, "ETC1 atlases require OpenGL ES 2.0; transparency will be lost");
+				batch = new SpriteBatch();
+			}
+		} else {
+			batch = new SpriteBatch();
+		}
 
 		// Set up camera
 		camera = new OrthographicCamera(VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
@@ -100,10 +277,28 @@ public class PumpkinGame extends Game {
 		camera.position.set(VIRTUAL_WIDTH / 2, VIRTUAL_HEIGHT / 2, 0);
 
 		// Create the AssetManager
-		manager = new AssetManager();
+		manager = new AssetManager(files);
+		// Use pre-decoded textures in place of PNGs, where the build has produced them
+		manager.setLoader(Texture.class, new MappedTextureLoader(files));
+		assets = new Assets(manager);
+
+		// Weight loading progress by the costs recorded at build time
+		final FileHandle manifestFile = files.resolve(Assets.MANIFEST_FILE_NAME);
+		if (manifestFile.exists()) {
+			assets.loadManifest(manifestFile, density);
+		}
 
-		// Get reference to preferences file
-		mPrefs = Gdx.app.getPreferences(PREFERENCES_NAME);
+		// Load settings, and start writing changes in the background
+		settings = Settings.load(PREFERENCES_NAME);
+		settings.start();
+
+		// Load the difficulty curve from data, falling back to the built-in default
+		final FileHandle difficultyFile = files.resolve("difficulty.json");
+		if (difficultyFile.exists()) {
+			difficultyCurve = DifficultyCurve.fromJson(difficultyFile.readString());
+		} else {
+			difficultyCurve = DifficultyCurve.createDefault();
+		}
 
 		// Start on the loading screen, which will load all assets then go to the main menu
 		this.setScreen(new LoadingScreen(this));
@@ -112,6 +307,9 @@ public class PumpkinGame extends Game {
 	@Override
 	public void render() {
 
+		profiler.startFrame(batch);
+		profiler.begin(FrameProfiler.CLEAR);
+
 		// Don't scissor this clear operation
 		Gdx.gl.glDisable(GL10.GL_SCISSOR_TEST);
 		// Clear colour buffer to black
@@ -127,8 +325,147 @@ public class PumpkinGame extends Game {
 		Gdx.gl.glEnable(GL10.GL_SCISSOR_TEST);
 		Gdx.gl.glScissor((int) viewport.x, (int) viewport.y, (int) viewport.width, (int) viewport.height);
 
+		profiler.end(FrameProfiler.CLEAR);
+
+		// Continue loading any queued assets
+		profiler.begin(FrameProfiler.LOAD);
+		assets.update(Gdx.graphics.getDeltaTime());
+		profiler.end(FrameProfiler.LOAD);
+		if (!backgroundLoaded && assets.isLoaded(GameAsset.Tier.Background)) {
+			backgroundLoaded = true;
+			Gdx.app.log(TAG, "All assets ready " + (System.nanoTime() - createNanos) / 1000000 + "ms after create()");
+		}
+
+		// Advance the sound effects' clock
+		if (sounds != null) {
+			sounds.update(Gdx.graphics.getDeltaTime());
+		}
+
+		// Simulate the fixed ticks due this frame
+		profiler.begin(FrameProfiler.ACT);
+		if (replayer != null && replayer.fast) {
+			// Replaying as fast as possible - simulate until it's time to show progress
+			final long deadline = System.nanoTime() + FAST_REPLAY_FRAME_NANOS;
+			while (System.nanoTime() < deadline && tick()) {
+			}
+			tickAlpha = 0.0f;
+		} else {
+			accumulator += Math.min(Gdx.graphics.getRawDeltaTime(), MAX_FRAME_TIME);
+			final int ticks = (int) (accumulator / TICK);
+			accumulator -= ticks * TICK;
+			tickAlpha = accumulator / TICK;
+			for (int i = 0; i < ticks && tick(); i++) {
+			}
+		}
+		profiler.end(FrameProfiler.ACT);
+
 		// Pass render() call to active Screen
 		super.render();
+
+		profiler.endFrame(batch);
+
+		// Profiler overlay, in the top-left corner
+		if (profiler.isEnabled()) {
+			batch.setProjectionMatrix(camera.combined);
+			profiler.drawOverlay(batch, 10, VIRTUAL_HEIGHT - 10);
+		}
+
+		checkProfilerKeys();
+	}
+
+	/**
+	 * Simulate one tick on the current screen, after delivering any replayed or simulated input due. Each tick runs on
+	 * whichever screen is current at the time, so a screen change takes effect from the next tick.
+	 * 
+	 * @return False if the current screen does not simulate ticks, or a fast replay has ended.
+	 */
+	private boolean tick() {
+		if (!(getScreen() instanceof PumpkinScreen)) {
+			return false;
+		}
+
+		if (replayer != null && !replayer.deliver(tickCount, inputProcessor)) {
+			replayer = null;
+			if (replayFast) {
+				Gdx.app.exit();
+				return false;
+			}
+			// Hand over to the player
+			setInputProcessor(inputProcessor);
+		}
+
+		// Simulated input goes through the recorder, if recording, so the session can be replayed
+		if (bot != null) {
+			bot.act(tickCount, recorder != null ? recorder : inputProcessor);
+		}
+
+		// Replayed or simulated input may have changed the screen
+		final Screen screen = getScreen();
+		if (!(screen instanceof PumpkinScreen)) {
+			return false;
+		}
+		((PumpkinScreen) screen).tick(TICK);
+		tickCount++;
+		return true;
+	}
+
+	/**
+	 * Direct input to a screen's InputProcessor, through the recorder if recording. While replaying or playing with the
+	 * bot, live input is ignored, and the replay or the bot's input is delivered to the processor instead.
+	 */
+	void setInputProcessor(final InputProcessor processor) {
+		inputProcessor = processor;
+		if (recorder != null) {
+			recorder.setProcessor(processor);
+		}
+		if (replayer != null || bot != null) {
+			Gdx.input.setInputProcessor(null);
+		} else {
+			Gdx.input.setInputProcessor(recorder != null ? recorder : processor);
+		}
+	}
+
+	// Conversion between screen coordinates (origin top-left) and virtual coordinates (origin bottom-left)
+
+	float screenToVirtualX(final int screenX) {
+		return (screenX - viewport.x) * VIRTUAL_WIDTH / viewport.width;
+	}
+
+	float screenToVirtualY(final int screenY) {
+		return (Gdx.graphics.getHeight() - screenY - viewport.y) * VIRTUAL_HEIGHT / viewport.height;
+	}
+
+	int virtualToScreenX(final float virtualX) {
+		return Math.round(viewport.x + virtualX * viewport.width / VIRTUAL_WIDTH);
+	}
+
+	int virtualToScreenY(final float virtualY) {
+		return Gdx.graphics.getHeight() - Math.round(viewport.y + virtualY * viewport.height / VIRTUAL_HEIGHT);
+	}
+
+	/** Check for the profiler's keys being pressed. */
+	private void checkProfilerKeys() {
+		final boolean profilerKey = Gdx.input.isKeyPressed(Keys.F3);
+		if (profilerKey && !profilerKeyDown) {
+			profiler.setEnabled(!profiler.isEnabled());
+		}
+		profilerKeyDown = profilerKey;
+
+		final boolean profilerLogKey = Gdx.input.isKeyPressed(Keys.F4);
+		if (profilerLogKey && !profilerLogKeyDown && profiler.isEnabled()) {
+			profiler.logFrames();
+		}
+		profilerLogKeyDown = profilerLogKey;
+	}
+
+	/**
+	 * Enable or disable the frame profiler and its overlay, e.g. from a launcher on a device without F3.
+	 * 
+	 * @param enabled
+	 *            True to enable the profiler, false to disable it.
+	 */
+	public void setProfilerEnabled(final boolean enabled) {
+		profiler.setEnabled(enabled);
 	}
 
 	@Override
@@ -156,16 +493,66 @@ public class PumpkinGame extends Game {
 			viewport.setPosition(0, 0);
 		}
 
+		// Update the shared scenery's viewport calculations
+		if (scenery != null) {
+			updateViewport(scenery.stage);
+		}
+
 		// Pass resize() call to active Screen
 		super.resize(width, height);
 	}
 
+	@Override
+	public void pause() {
+
+		// Allow superclass to pause as required
+		super.pause();
+
+		// Make sure settings are on disk, as the app may be killed while paused
+		if (settings != null) {
+			settings.flush();
+		}
+
+		// Likewise the input recording
+		if (recorder != null) {
+			recorder.flush();
+		}
+	}
+
+	@Override
+	public void resume() {
+
+		// Allow superclass to resume as required
+		super.resume();
+
+		// Don't simulate the time spent paused
+		accumulator = 0.0f;
+	}
+
 	@Override
 	public void dispose() {
 
 		// Allow superclass to dispose as required
 		super.dispose();
 
+		// Write outstanding settings and stop the background writer
+		if (settings != null) {
+			settings.stop();
+		}
+
+		// Finish the input recording
+		if (recorder != null) {
+			recorder.close();
+		}
+
+		// Dispose of scenery if it's valid
+		if (scenery != null) {
+			scenery.dispose();
+		}
+
+		// Dispose of profiler overlay
+		profiler.dispose();
+
 		// Dispose of SpriteBatch if it's valid
 		if (batch != null) {
 			batch.dispose();
@@ -197,12 +584,12 @@ public class PumpkinGame extends Game {
 	}
 
 	/**
-	 * Get the current highest round reached from preferences.
+	 * Get the current highest round reached.
 	 * 
 	 * @return The current highest round that has been reached.
 	 */
 	public int getHighestRound() {
-		return mPrefs.getInteger("highest_round", 0);
+		return settings.getHighestRound();
 	}
 
 	/**
@@ -212,17 +599,16 @@ public class PumpkinGame extends Game {
 	 *            The new highest round.
 	 */
 	public void setHighestRound(int round) {
-		mPrefs.putInteger("highest_round", round);
-		mPrefs.flush();
+		settings.setHighestRound(round);
 	}
 
 	/**
-	 * Get whether or not music is enabled. (Setting comes from preferences.)
+	 * Get whether or not music is enabled.
 	 * 
 	 * @return False if music is explicitly disabled, true otherwise.
 	 */
 	public boolean isMusicEnabled() {
-		return mPrefs.getBoolean("music", true);
+		return settings.isMusicEnabled();
 	}
 
 	/**
@@ -232,18 +618,21 @@ public class PumpkinGame extends Game {
 	 *            True if music is enabled, false otherwise.
 	 */
 	public void setMusicEnabled(boolean enabled) {
-		mPrefs.putBoolean("music", enabled);
-		mPrefs.flush();
+		settings.setMusicEnabled(enabled);
 	}
 
 	/** Prepare the background music for use. */
 	private void prepareMusic() {
-		music = manager.get("comeplaywithme.mp3", Music.class);
+		music = assets.get(GameAsset.MENU_MUSIC, Music.class);
 		music.setLooping(true);
 	}
 
+	/** Start or stop the background music as per the current setting. Does nothing until the music has loaded. */
 	void updateMusic() {
 		if (music == null) {
+			if (!assets.isLoaded(GameAsset.MENU_MUSIC)) {
+				return;
+			}
 			prepareMusic();
 		}
 
@@ -261,12 +650,12 @@ public class PumpkinGame extends Game {
 	}
 
 	/**
-	 * Get whether or not sound is enabled. (Setting comes from preferences.)
+	 * Get whether or not sound is enabled.
 	 * 
 	 * @return False if sound is explicitly disabled, true otherwise.
 	 */
 	public boolean isSoundEnabled() {
-		return mPrefs.getBoolean("sound", true);
+		return settings.isSoundEnabled();
 	}
 
 	/**
@@ -276,8 +665,7 @@ public class PumpkinGame extends Game {
 	 *            True if sound is enabled, false otherwise.
 	 */
 	public void setSoundEnabled(boolean enabled) {
-		mPrefs.putBoolean("sound", enabled);
-		mPrefs.flush();
+		settings.setSoundEnabled(enabled);
 		soundEnabled = enabled;
 	}
 
@@ -288,25 +676,42 @@ public class PumpkinGame extends Game {
 
 	void playSquark() {
 		if (soundEnabled) {
-			manager.get("squark.mp3", Sound.class).play();
+			sounds.play(SoundBank.Effect.SQUARK);
 		}
 	}
 
 	void playSpirit() {
 		if (soundEnabled) {
-			manager.get("spirit.mp3", Sound.class).play();
+			sounds.play(SoundBank.Effect.SPIRIT);
 		}
 	}
 
 	void playThump() {
 		if (soundEnabled) {
-			manager.get("thump.mp3", Sound.class).play();
+			sounds.play(SoundBank.Effect.THUMP);
 		}
 	}
 
 	void playKnock() {
 		if (soundEnabled) {
-			manager.get("knock.mp3", Sound.class).play();
+			sounds.play(SoundBank.Effect.KNOCK);
 		}
 	}
+
+	/**
+	 * Start a pumpkin hissing.
+	 * 
+	 * @return The id of the hiss, to pass to stopHiss(), or SoundBank.NOT_PLAYED.
+	 */
+	long playHiss() {
+		if (soundEnabled) {
+			return sounds.play(SoundBank.Effect.HISS);
+		}
+		return SoundBank.NOT_PLAYED;
+	}
+
+	/** Stop a pumpkin hissing. */
+	void stopHiss(final long id) {
+		sounds.stop(SoundBank.Effect.HISS, id);
+	}
 }
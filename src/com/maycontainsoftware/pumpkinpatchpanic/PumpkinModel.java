@@ -0,0 +1,210 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * PumpkinModel represents a haunted pumpkin's logical data model. During the game, a pumpkin goes through a number of
+ * stages:
+ * 
+ * 1) Initial delay. Initially, the pumpkin is dormant - a random delay exists before any other action takes place.
+ * 
+ * 2) Possession. Spirit begins to enter the pumpkin. Carved face fades in (fully) over random period of time.
+ * 
+ * 3) Possession Delay. Once face is completely visible, a random delay exists before either the pumpkin recovers, or it
+ * becomes possessed.
+ * 
+ * 4a) Recovery. Carved face fades away to a partially-visible state over a random period of time, then continues
+ * Possession.
+ * 
+ * 4b) Possessed. Evil face appears. In this state, player can tap pumpkin to exorcise it, returning it to the initial
+ * state. If left in Possessed state for a fixed period of time, the spirit escapes.
+ * 
+ * 5) Spirit Release. The spirit escapes from the pumpkin. The carved face disappears altogether, the pumpkin reverts to
+ * the initial state and the player loses a life.
+ * 
+ * The model has no dependency on Scene2D, textures or audio; it notifies the owning GameModel of anything a view might
+ * want to react to.
+ * 
+ * @author Charlie
+ */
+class PumpkinModel {
+
+	/** Enumeration representing pumpkin state. */
+	static enum State {
+		Dormant,
+		Possession,
+		Possession_Delay,
+		Recovery,
+		Possessed,
+		Spirit_Release,
+	}
+
+	/** Number of different faces a pumpkin can display. */
+	static final int FACE_COUNT = 9;
+
+	/** Time taken for the hole left by an escaped spirit to disappear. */
+	static final float SPIRIT_RELEASE_TIME = 2.0f;
+
+	/** The game model this pumpkin belongs to. */
+	private final GameModel game;
+
+	/** Pumpkin state. */
+	State state;
+
+	/** Temporary variable used for measuring time left in current state. */
+	float timer;
+
+	/** Current alpha value of face graphic. */
+	float faceAlpha;
+
+	/** Change in face alpha value, per second. Note this can be (and frequently is) negative. */
+	private float alphaChangePerSecond;
+
+	/** The number of the face currently carved into the pumpkin, in the range [1, FACE_COUNT]. */
+	int faceNumber;
+
+	/**
+	 * Construct a new PumpkinModel.
+	 * 
+	 * @param game
+	 *            The game model this pumpkin belongs to.
+	 */
+	public PumpkinModel(final GameModel game) {
+		this.game = game;
+
+		// Initial state
+		resetToDormant();
+	}
+
+	/**
+	 * Update the model wrt time.
+	 * 
+	 * @param delta
+	 *            Number of seconds since last update.
+	 */
+	public void update(final float delta) {
+
+		// Whatever we're doing, decrement the timer
+		timer -= delta;
+
+		// Additional processing
+		switch (state) {
+		case Dormant:
+		case Possession_Delay:
+		case Possessed:
+		case Spirit_Release:
+			// No additional processing
+			break;
+		case Possession:
+			// Update face alpha value (alphaChangePerSecond will be positive)
+			faceAlpha += alphaChangePerSecond * delta;
+			break;
+		case Recovery:
+			// Update face alpha value (alphaChangePerSecond will be negative)
+			faceAlpha += alphaChangePerSecond * delta;
+			break;
+		default:
+			throw new IllegalStateException();
+		}
+
+		// Timer expiration
+		if (timer <= 0.0f) {
+			switch (state) {
+			case Dormant:
+				// If timer expired, move to Possession state
+				state = State.Possession;
+				timer = game.difficulty.getPossessionTime();
+				alphaChangePerSecond = (1.0f - 0.0f) / timer;
+				faceAlpha = 0.0f;
+				break;
+			case Possession:
+				// If timer expired, move to Possession_Delay state
+				state = State.Possession_Delay;
+				timer = game.difficulty.getPossessionDelay();
+				faceAlpha = 1.0f;
+				break;
+			case Possession_Delay:
+				// If timer expired, either become Possessed or move to Recovery
+				if (game.difficulty.getRecoveryChance()) {
+					// Proceed to Recovery
+					state = State.Recovery;
+					timer = game.difficulty.getRecoveryTime();
+					final float alphaTo = game.random.effects.random(0.0f, 0.5f);
+					alphaChangePerSecond = (alphaTo - 1.0f) / timer;
+				} else {
+					// Proceed to Possessed
+					state = State.Possessed;
+					timer = game.difficulty.getPossessedTime();
+					game.pumpkinPossessed(this);
+				}
+				break;
+			case Recovery:
+				// If timer expired, move to Possession state
+				state = State.Possession;
+				timer = game.difficulty.getPossessionTime();
+				alphaChangePerSecond = (1.0f - faceAlpha) / timer;
+				break;
+			case Possessed:
+				// Move to spirit-released state
+				state = State.Spirit_Release;
+				timer = SPIRIT_RELEASE_TIME;
+
+				// Spirit has escaped - player loses a life
+				game.spiritReleased(this);
+				break;
+			case Spirit_Release:
+				// Move to dormant state
+				resetToDormant();
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	/**
+	 * Handle the player tapping the pumpkin.
+	 * 
+	 * @return True if the touch was consumed, false if it should be ignored (e.g. the game isn't running.)
+	 */
+	public boolean touch() {
+
+		if (!game.running) {
+			// If game isn't running, ignore input
+			return false;
+		}
+
+		switch (state) {
+		case Dormant:
+		case Possession:
+		case Possession_Delay:
+		case Recovery:
+			// Too early - move to dormant state, then penalise the player
+			resetToDormant();
+			game.pumpkinHitTooEarly(this);
+			break;
+		case Possessed:
+			// Correct timing - move to dormant state
+			resetToDormant();
+			game.pumpkinExorcised(this);
+			break;
+		case Spirit_Release:
+			// Too late
+			// Player has already been penalised for letting the spirit escape, so no further penalty required.
+			// No state change required - pumpkin will automatically recover
+			break;
+		default:
+			throw new IllegalStateException();
+		}
+
+		return true;
+	}
+
+	/** Reset the pumpkin to initial state. Used primarily at the start of each round. */
+	public void resetToDormant() {
+		state = State.Dormant;
+		timer = game.difficulty.getDormantTime();
+		faceAlpha = 0.0f;
+
+		// Pick a random face, which might be the same one as currently displayed
+		faceNumber = game.random.effects.random(1, FACE_COUNT);
+	}
+}
@@ -1,18 +1,14 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
-import java.util.ArrayList;
-
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 
 /**
- * The base class for most screens in the game. The PumpkinScreen contains a Stage and renders the graphical elements
- * common to all screens
+ * The base class for most screens in the game. The PumpkinScreen contains a UI Stage, which it renders on top of the
+ * scenery common to all screens. The scenery itself is owned by the game, so it is not rebuilt on every screen change.
  * 
  * @author Charlie
  */
@@ -29,8 +25,20 @@ public class PumpkinScreen implements Screen {
 
 	protected Stage stage;
 
-	/** The TextureAtlas containing all the graphics. */
-	protected TextureAtlas atlas;
+	/** Used by screens with no assets of their own. */
+	private static final GameAsset[] NO_ASSETS = {};
+
+	/** The assets this screen uses, beyond those common to all screens. */
+	private final GameAsset[] screenAssets;
+
+	/** The regions of the TextureAtlas containing all the graphics. */
+	protected RegionRegistry<AtlasRegionId> regions;
+
+	/**
+	 * Whether the screen has been disposed. A screen can be left twice in one frame (e.g. the back key, whose handler
+	 * runs at the start of the next frame, and a menu button), and must only release its assets once.
+	 */
+	protected boolean disposed;
 
 	// FUTURE: Plan was for moon to traverse sky entirely each round, this would require access to the moon position
 	// from some PumpkinScreen subclasses, while others need to have default behaviour. Whether or not this is worth the
@@ -43,7 +51,22 @@ public class PumpkinScreen implements Screen {
 	 *            The game instance.
 	 */
 	public PumpkinScreen(final PumpkinGame game) {
+		this(game, NO_ASSETS);
+	}
+
+	/**
+	 * Construct a new PumpkinScreen object that uses assets of its own. The assets are acquired now, and released when
+	 * the screen is disposed.
+	 * 
+	 * @param game
+	 *            The game instance.
+	 * @param screenAssets
+	 *            The assets this screen uses.
+	 */
+	public PumpkinScreen(final PumpkinGame game, final GameAsset[] screenAssets) {
 		this.game = game;
+		this.screenAssets = screenAssets;
+		game.assets.acquire(screenAssets);
 	}
 
 	@Override
@@ -52,21 +75,37 @@ public class PumpkinScreen implements Screen {
 			Gdx.app.log(TAG, "show()");
 		}
 
-		// Load the atlas
-		atlas = game.manager.get("atlas.atlas", TextureAtlas.class);
+		// Get the atlas regions, resolved once after loading
+		regions = game.regions;
 
 		stage = game.createStage();
-		generateScenery(stage);
 
-		// Redirect events to the stage
+		// Redirect events to the stage, then to the scenery
 		// FUTURE: Once Screen transitions are implemented, InputProcessor must be set in a different way
-		Gdx.input.setInputProcessor(stage);
+		game.setInputProcessor(game.scenery.getInputProcessor(stage));
+	}
+
+	/**
+	 * Advance the scenery and the UI by one fixed tick. Called by PumpkinGame.render() as many times as are due each
+	 * frame, so game logic runs the same at any frame rate.
+	 * 
+	 * @param delta
+	 *            The length of a tick.
+	 */
+	void tick(final float delta) {
+		game.scenery.act(delta);
+		stage.act(delta);
 	}
 
 	@Override
 	public void render(float delta) {
-		stage.act();
+		final FrameProfiler profiler = game.profiler;
+
+		// Scenery first, then this screen's UI on top
+		profiler.begin(FrameProfiler.DRAW);
+		game.scenery.draw();
 		stage.draw();
+		profiler.end(FrameProfiler.DRAW);
 	}
 
 	@Override
@@ -106,81 +145,23 @@ public class PumpkinScreen implements Screen {
 			Gdx.app.log(TAG, "dispose()");
 		}
 
-		// Don't dispose scenery stage - it is static and shared between all PumpkinScreens
+		if (disposed) {
+			return;
+		}
+		disposed = true;
+
+		// Don't dispose scenery - it is owned by the game and shared between all PumpkinScreens
 
 		// Dispose of this screen's stage
 		stage.dispose();
+
+		// Release this screen's assets, which will be unloaded if no other screen needs them
+		game.assets.release(screenAssets);
 	}
 
 	protected final Image getPlantForPumpkinButton(final Actor button) {
-		final Image plant = new Image(atlas.findRegion("plant"));
+		final Image plant = new Image(regions.get(AtlasRegionId.PLANT));
 		plant.setPosition(button.getX() - 33, button.getY() - 43);
 		return plant;
 	}
-
-	private final void generateScenery(final Stage stage) {
-
-		// Sky is 640x192
-		final Image sky = new Image(atlas.findRegion("sky"));
-		sky.setSize(640 * 2, 192 * 2);
-		sky.setY(720 - 192 * 2);
-		// FUTURE: Sky rotation - would be nice if the sky rotated very, very slowly. Would need much larger asset.
-		// sky.addAction(Actions.forever(Actions.rotateBy(-360.0f, 10000.0f)));
-		stage.addActor(sky);
-
-		// Moon
-
-		if (game.moon == null) {
-			game.moon = new MoonModel();
-		}
-		Moon moon = new Moon(game.moon, atlas.findRegion("moon"));
-		stage.addActor(moon);
-
-		// Clouds
-
-		if (game.clouds == null) {
-			game.clouds = new ArrayList<CloudModel>(2);
-			game.clouds.add(new CloudModel(560, atlas.findRegion("cloud_a").getRegionWidth(), "cloud_a"));
-			game.clouds.add(new CloudModel(500, atlas.findRegion("cloud_b").getRegionWidth(), "cloud_b"));
-		}
-
-		for (final CloudModel model : game.clouds) {
-			stage.addActor(new Cloud(model, atlas));
-		}
-
-		// Hillside is 640x207
-		final Image hillside = new Image(atlas.findRegion("hillside"));
-		hillside.setSize(640 * 2, 207 * 2);
-		stage.addActor(hillside);
-
-		// tree_left is 205x360
-		final Image treeLeft = new Image(atlas.findRegion("tree_left"));
-		treeLeft.setSize(205 * 2, 360 * 2);
-		treeLeft.setPosition(0, 0);
-		stage.addActor(treeLeft);
-
-		// tree_right is 270x360
-		final Image treeRight = new Image(atlas.findRegion("tree_right"));
-		treeRight.setSize(270 * 2, 360 * 2);
-		treeRight.setPosition(1280 - 270 * 2, 0);
-		stage.addActor(treeRight);
-
-		// Owls
-		// owl is 60x100
-
-		if (game.owls == null) {
-			game.owls = new ArrayList<OwlModel>();
-
-			final int[][] owlPositions = new int[][] { { 227, 233 }, { 155, 229 }, { 1060, 232 }, { 866, 138 },
-					{ 1082, 310 }, };
-
-			int[] position = owlPositions[MathUtils.random(owlPositions.length - 1)];
-
-			game.owls.add(new OwlModel(position[0], 720 - position[1]));
-		}
-
-		for (final OwlModel model : game.owls) {
-			stage.addActor(new Owl(model, game, atlas));
-		}
-	}
-}
+}
\ No newline at end of file
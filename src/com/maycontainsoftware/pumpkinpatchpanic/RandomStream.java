@@ -0,0 +1,93 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * A stream of random numbers, with the same methods as MathUtils. Unlike MathUtils, whose java.util.Random is shared
+ * by everything and synchronizes every draw, each stream has its own state and no locking. A stream must only be used
+ * by one thread at a time; give each thread or simulation its own.
+ * 
+ * The generator is xorshift64*, seeded through the SplitMix64 finalizer, so that nearby seeds (such as 1, 2, 3) give
+ * unrelated streams. It is fast and statistically good enough for gameplay, but not for anything cryptographic.
+ * 
+ * @author Charlie
+ */
+class RandomStream {
+
+	/** The generator state, never zero. */
+	private long state;
+
+	/**
+	 * Construct a new stream.
+	 * 
+	 * @param seed
+	 *            The seed. Streams with the same seed produce the same numbers.
+	 */
+	public RandomStream(final long seed) {
+		setSeed(seed);
+	}
+
+	/** Restart the stream from a seed. */
+	public void setSeed(final long seed) {
+		state = mix(seed);
+		if (state == 0) {
+			// xorshift would only ever produce zero
+			state = 0x9E3779B97F4A7C15L;
+		}
+	}
+
+	/** Scramble a value, such that every bit of the input affects every bit of the output (SplitMix64). */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/** Get the next 64 random bits. */
+	public long nextLong() {
+		state ^= state >>> 12;
+		state ^= state << 25;
+		state ^= state >>> 27;
+		return state * 0x2545F4914F6CDD1DL;
+	}
+
+	/** Get a random number between 0 (inclusive) and n (exclusive). n must be positive. */
+	private int nextInt(final int n) {
+		// Scale 31 random bits by n; the bias is negligible for the small ranges used
+		return (int) (((nextLong() >>> 33) * n) >>> 31);
+	}
+
+	/** Returns a random number between 0 (inclusive) and the specified value (inclusive). */
+	public int random(final int range) {
+		return nextInt(range + 1);
+	}
+
+	/** Returns a random number between start (inclusive) and end (inclusive). */
+	public int random(final int start, final int end) {
+		return start + nextInt(end - start + 1);
+	}
+
+	/** Returns a random number between 0 (inclusive) and 1 (exclusive). */
+	public float random() {
+		// 24 random bits, the precision of a float
+		return (nextLong() >>> 40) / (float) (1 << 24);
+	}
+
+	/** Returns a random number between 0 (inclusive) and the specified value (exclusive). */
+	public float random(final float range) {
+		return random() * range;
+	}
+
+	/** Returns a random number between start (inclusive) and end (exclusive). */
+	public float random(final float start, final float end) {
+		return start + random() * (end - start);
+	}
+
+	/** Returns a random boolean value. */
+	public boolean randomBoolean() {
+		return nextLong() < 0;
+	}
+
+	/** Returns true if a random value between 0 and 1 is less than the specified value. */
+	public boolean randomBoolean(final float chance) {
+		return random() < chance;
+	}
+}
@@ -0,0 +1,40 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * The game's random numbers, split into independent streams by subsystem, all derived from a single seed. Draws in one
+ * subsystem never shift the numbers another sees: an extra cloud or a change to the spirit animation leaves every
+ * pumpkin timer the same, so gameplay is reproducible from the seed alone.
+ * 
+ * @author Charlie
+ */
+class RandomStreams {
+
+	/** The seed the streams were derived from. */
+	final long seed;
+
+	/** Pumpkin timers and recovery chances: everything that decides how a game plays out. */
+	final RandomStream gameplay;
+
+	/** Clouds and owls. */
+	final RandomStream scenery;
+
+	/** Purely visual variation, such as pumpkin faces and spirit rotation. */
+	final RandomStream effects;
+
+	/**
+	 * Construct the streams.
+	 * 
+	 * @param seed
+	 *            The seed.
+	 */
+	public RandomStreams(final long seed) {
+		this.seed = seed;
+
+		// Streams are seeded from the scrambled seed, so that (for example) the scenery stream for one seed is not the
+		// gameplay stream for the next
+		final long base = RandomStream.mix(seed);
+		gameplay = new RandomStream(base);
+		scenery = new RandomStream(base + 1);
+		effects = new RandomStream(base + 2);
+	}
+}
@@ -0,0 +1,13 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+/**
+ * Interface implemented by the generated enumerations of texture atlas regions, so that a RegionRegistry can resolve
+ * them.
+ * 
+ * @author Charlie
+ */
+interface RegionId {
+
+	/** Get the name of the region, as it appears in the atlas file. */
+	public String getRegionName();
+}
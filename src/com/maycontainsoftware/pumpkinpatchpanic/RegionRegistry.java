@@ -0,0 +1,125 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Registry of the regions in a TextureAtlas, indexed by a generated RegionId enumeration. Every region is looked up
+ * once, when the registry is created, so there are no string operations or linear searches during gameplay; a region
+ * that is missing from the atlas is reported immediately rather than the first time it is drawn.
+ * 
+ * If the atlas was built at a density other than NORMAL, regions and NinePatches are adjusted to report their sizes in
+ * virtual pixels, so they lay out and draw at the same size as NORMAL regions.
+ * 
+ * @author Charlie
+ * 
+ * @param <E>
+ *            The enumeration of regions in the atlas.
+ */
+class RegionRegistry<E extends Enum<E> & RegionId> {
+
+	/** The atlas. */
+	private final TextureAtlas atlas;
+
+	/** The regions, indexed by ordinal. */
+	private final AtlasRegion[] regions;
+
+	/** NinePatches, indexed by ordinal. These are created when first requested, as few regions are patches. */
+	private final NinePatch[] patches;
+
+	/** The atlas's density. */
+	private final Density density;
+
+	/**
+	 * Construct a new RegionRegistry, resolving all regions.
+	 * 
+	 * @param atlas
+	 *            The loaded atlas.
+	 * @param type
+	 *            The enumeration class.
+	 * @param density
+	 *            The density at which the atlas was built.
+	 */
+	public RegionRegistry(final TextureAtlas atlas, final Class<E> type, final Density density) {
+		this.atlas = atlas;
+		this.density = density;
+
+		final E[] ids = type.getEnumConstants();
+		regions = new AtlasRegion[ids.length];
+		patches = new NinePatch[ids.length];
+
+		for (final E id : ids) {
+			final AtlasRegion region = atlas.findRegion(id.getRegionName());
+			if (region == null) {
+				throw new GdxRuntimeException("Region not found in atlas: " + id.getRegionName());
+			}
+			regions[id.ordinal()] = density == Density.NORMAL ? region : new DensityRegion(region, density.scale);
+		}
+	}
+
+	/**
+	 * Get a region.
+	 * 
+	 * @param id
+	 *            The region id.
+	 * @return The region.
+	 */
+	public AtlasRegion get(final E id) {
+		return regions[id.ordinal()];
+	}
+
+	/**
+	 * Get a NinePatch for a region that was packed with split information.
+	 * 
+	 * @param id
+	 *            The region id.
+	 * @return The NinePatch.
+	 */
+	public NinePatch getPatch(final E id) {
+		NinePatch patch = patches[id.ordinal()];
+		if (patch == null) {
+			patch = atlas.createPatch(id.getRegionName());
+			if (density != Density.NORMAL) {
+				final float scale = density.scale;
+				patch.setLeftWidth(patch.getLeftWidth() / scale);
+				patch.setRightWidth(patch.getRightWidth() / scale);
+				patch.setTopHeight(patch.getTopHeight() / scale);
+				patch.setBottomHeight(patch.getBottomHeight() / scale);
+				patch.setMiddleWidth(patch.getMiddleWidth() / scale);
+				patch.setMiddleHeight(patch.getMiddleHeight() / scale);
+			}
+			patches[id.ordinal()] = patch;
+		}
+		return patch;
+	}
+
+	/**
+	 * Region from an atlas built at a density other than NORMAL, which reports its size in virtual pixels. Everything
+	 * that sizes itself from a region (Images, drawables, SpriteBatch.draw(region, x, y)) does so through these
+	 * methods.
+	 * 
+	 * @author Charlie
+	 */
+	static class DensityRegion extends AtlasRegion {
+
+		/** Texels per virtual pixel. */
+		private final float scale;
+
+		public DensityRegion(final AtlasRegion region, final float scale) {
+			super(region);
+			this.scale = scale;
+		}
+
+		@Override
+		public int getRegionWidth() {
+			return Math.round(super.getRegionWidth() / scale);
+		}
+
+		@Override
+		public int getRegionHeight() {
+			return Math.round(super.getRegionHeight() / scale);
+		}
+	}
+}
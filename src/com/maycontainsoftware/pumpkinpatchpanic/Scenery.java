@@ -0,0 +1,239 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+
+/**
+ * The scenery common to all PumpkinScreens: sky, moon, clouds, hillside, trees and owls. The scenery is built once,
+ * when assets have finished loading, and lives in its own Stage for the lifetime of the game. Each PumpkinScreen draws
+ * it underneath its own, much smaller, UI Stage, so changing screens does not rebuild any of it.
+ * 
+ * The unmoving parts of the scenery are drawn by two StaticLayers, one behind the moon and clouds and one in front of
+ * them. These can optionally be baked into a SpriteCache (see PumpkinGame.cacheStaticScenery).
+ * 
+ * @author Charlie
+ */
+class Scenery {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = Scenery.class.getSimpleName();
+
+	/** The Stage containing all scenery actors. */
+	final Stage stage;
+
+	/** The cache holding the static layers, or null if they are drawn through the SpriteBatch. */
+	private final SpriteCache cache;
+
+	// Debug timing of draw()
+
+	private final SpriteBatch batch;
+	private long drawNanos;
+	private int drawRenderCalls;
+	private int drawFrames;
+
+	// Scenery models
+
+	final MoonModel moon;
+	final List<CloudModel> clouds;
+	final List<OwlModel> owls;
+
+	/** Reusable processor that routes input to a screen's UI Stage first, then to the scenery. */
+	private final SceneryInput input;
+
+	/**
+	 * Construct the scenery.
+	 * 
+	 * @param game
+	 *            The game instance, which must have finished loading assets.
+	 */
+	public Scenery(final PumpkinGame game) {
+		if (DEBUG) {
+			Gdx.app.log(TAG, "Scenery()");
+		}
+
+		final RegionRegistry<AtlasRegionId> regions = game.regions;
+
+		stage = game.createStage();
+		game.updateViewport(stage);
+		input = new SceneryInput(stage);
+		batch = game.batch;
+
+		// SpriteCache's shader cannot combine ETC1 alpha planes, so compressed atlases are always drawn through the batch
+		cache = game.cacheStaticScenery && !(batch instanceof Etc1AlphaBatch) ? new SpriteCache(8, false) : null;
+
+		// Background layer
+		final StaticLayer background = new StaticLayer(cache);
+
+		// Sky is 640x192
+		background.add(regions.get(AtlasRegionId.SKY), 0, 720 - 192 * 2, 640 * 2, 192 * 2);
+		// FUTURE: Sky rotation - would be nice if the sky rotated very, very slowly. Would need much larger asset.
+
+		stage.addActor(background);
+
+		// Moon
+
+		moon = new MoonModel();
+		stage.addActor(new Moon(moon, game, regions.get(AtlasRegionId.MOON)));
+
+		// Clouds and owls draw from their own random numbers, so they never change how a game plays out
+		final RandomStream random = game.random.scenery;
+
+		// Clouds
+
+		clouds = new ArrayList<CloudModel>(2);
+		clouds.add(new CloudModel(560, regions.get(AtlasRegionId.CLOUD_A).getRegionWidth(), AtlasRegionId.CLOUD_A,
+				random));
+		clouds.add(new CloudModel(500, regions.get(AtlasRegionId.CLOUD_B).getRegionWidth(), AtlasRegionId.CLOUD_B,
+				random));
+
+		for (final CloudModel model : clouds) {
+			stage.addActor(new Cloud(model, game, regions));
+		}
+
+		// Foreground layer
+		final StaticLayer foreground = new StaticLayer(cache);
+
+		// Hillside is 640x207
+		foreground.add(regions.get(AtlasRegionId.HILLSIDE), 0, 0, 640 * 2, 207 * 2);
+
+		// tree_left is 205x360
+		foreground.add(regions.get(AtlasRegionId.TREE_LEFT), 0, 0, 205 * 2, 360 * 2);
+
+		// tree_right is 270x360
+		foreground.add(regions.get(AtlasRegionId.TREE_RIGHT), 1280 - 270 * 2, 0, 270 * 2, 360 * 2);
+
+		stage.addActor(foreground);
+
+		// Owls
+		// owl is 60x100
+
+		owls = new ArrayList<OwlModel>();
+
+		final int[][] owlPositions = new int[][] { { 227, 233 }, { 155, 229 }, { 1060, 232 }, { 866, 138 },
+				{ 1082, 310 }, };
+
+		int[] position = owlPositions[random.random(owlPositions.length - 1)];
+
+		owls.add(new OwlModel(position[0], 720 - position[1], random));
+
+		for (final OwlModel model : owls) {
+			stage.addActor(new Owl(model, game, regions));
+		}
+	}
+
+	/**
+	 * Get an InputProcessor that sends input to a screen's UI Stage, and then to the scenery if the UI did not handle
+	 * it. The same instance is returned on every call, so only the most recent UI Stage receives input.
+	 * 
+	 * @param ui
+	 *            The screen's UI Stage.
+	 * @return The InputProcessor.
+	 */
+	InputProcessor getInputProcessor(final Stage ui) {
+		input.setUi(ui);
+		return input;
+	}
+
+	/**
+	 * Update the scenery actors.
+	 * 
+	 * @param delta
+	 *            Number of seconds to advance by.
+	 */
+	void act(final float delta) {
+		stage.act(delta);
+	}
+
+	/** Draw the scenery. */
+	void draw() {
+		if (!DEBUG) {
+			stage.draw();
+			return;
+		}
+
+		// Log the average cost of drawing the scenery, for comparing cached and uncached static layers
+		final int startRenderCalls = getTotalRenderCalls();
+		final long start = System.nanoTime();
+		stage.draw();
+		drawNanos += System.nanoTime() - start;
+		drawRenderCalls += getTotalRenderCalls() - startRenderCalls;
+		if (++drawFrames == 300) {
+			Gdx.app.log(TAG, "draw(): cached=" + (cache != null) + ", " + drawNanos / drawFrames / 1000 + "us, "
+					+ (float) drawRenderCalls / drawFrames + " render calls per frame");
+			drawNanos = 0;
+			drawRenderCalls = 0;
+			drawFrames = 0;
+		}
+	}
+
+	/** Get the total render calls made by the SpriteBatch and cache, for debug timing. */
+	private int getTotalRenderCalls() {
+		return batch.totalRenderCalls + (cache != null ? cache.totalRenderCalls : 0);
+	}
+
+	/** Dispose of the scenery. */
+	void dispose() {
+		stage.dispose();
+		if (cache != null) {
+			cache.dispose();
+		}
+	}
+
+	/**
+	 * Multiplexer that sends input to the UI Stage, then to the scenery. A touch that lands on any UI actor is not
+	 * passed on to the scenery even if the UI ignores it, so UI elements still hide the scenery behind them.
+	 * 
+	 * @author Charlie
+	 */
+	static class SceneryInput extends InputMultiplexer {
+
+		/** The scenery Stage. */
+		private final Stage scenery;
+
+		/** The current screen's UI Stage. */
+		private Stage ui;
+
+		/** Reusable vector for converting touch coordinates. */
+		private final Vector2 point = new Vector2();
+
+		public SceneryInput(final Stage scenery) {
+			this.scenery = scenery;
+		}
+
+		/** Set the UI Stage that receives input first. */
+		void setUi(final Stage ui) {
+			this.ui = ui;
+			clear();
+			addProcessor(ui);
+			addProcessor(scenery);
+		}
+
+		@Override
+		public boolean touchDown(final int screenX, final int screenY, final int pointer, final int button) {
+			if (ui.touchDown(screenX, screenY, pointer, button)) {
+				return true;
+			}
+
+			// Don't let the touch through if it landed on a UI actor
+			ui.screenToStageCoordinates(point.set(screenX, screenY));
+			final Actor hit = ui.hit(point.x, point.y, true);
+			if (hit != null && hit != ui.getRoot()) {
+				return false;
+			}
+
+			return scenery.touchDown(screenX, screenY, pointer, button);
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+
+/**
+ * The player's settings. Settings are loaded once and then served from memory; changes are written to disk by a
+ * background thread, which waits briefly after a change so that a burst of changes results in a single write. Each
+ * write goes to a temporary file that is then renamed over the settings file, so a crash mid-write cannot leave a
+ * corrupt file behind.
+ * 
+ * flush() writes any outstanding changes synchronously, and must be called when the application is paused or
+ * disposed.
+ * 
+ * @author Charlie
+ */
+class Settings {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = Settings.class.getSimpleName();
+
+	/** Name of the settings file, in local storage. */
+	static final String FILE_NAME = "settings.properties";
+
+	/** How long the writer waits after a change before writing, so that bursts of changes are coalesced. */
+	private static final long WRITE_DELAY_MS = 500;
+
+	// Keys
+
+	private static final String HIGHEST_ROUND = "highest_round";
+	private static final String MUSIC = "music";
+	private static final String SOUND = "sound";
+
+	/** The settings file. */
+	private final File file;
+
+	// Settings
+
+	private int highestRound;
+	private boolean musicEnabled = true;
+	private boolean soundEnabled = true;
+
+	/** Incremented on every change. */
+	private int version;
+
+	/** The version most recently written to disk. */
+	private int writtenVersion;
+
+	/** Lock held while writing, so that the writer thread and flush() do not write at the same time. */
+	private final Object writeLock = new Object();
+
+	/** The background writer thread, or null if not started. */
+	private Thread writer;
+
+	/** Whether the background writer has been asked to stop. */
+	private boolean stopped;
+
+	/**
+	 * Construct a new Settings object with default values.
+	 * 
+	 * @param file
+	 *            The settings file.
+	 */
+	public Settings(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Load settings from local storage. If there is no settings file yet, values are taken from the Preferences used
+	 * by earlier versions of the game.
+	 * 
+	 * @param legacyPreferencesName
+	 *            The name of the Preferences used by earlier versions.
+	 * @return The loaded settings.
+	 */
+	static Settings load(final String legacyPreferencesName) {
+		final Settings settings = new Settings(Gdx.files.local(FILE_NAME).file());
+
+		if (settings.file.exists()) {
+			try {
+				settings.read();
+				return settings;
+			} catch (IOException e) {
+				Gdx.app.error(TAG, "Unable to read " + settings.file, e);
+			}
+		}
+
+		// Migrate from Preferences
+		final Preferences prefs = Gdx.app.getPreferences(legacyPreferencesName);
+		settings.highestRound = prefs.getInteger(HIGHEST_ROUND, 0);
+		settings.musicEnabled = prefs.getBoolean(MUSIC, true);
+		settings.soundEnabled = prefs.getBoolean(SOUND, true);
+		settings.version++;
+		return settings;
+	}
+
+	/** Read the settings file. */
+	private void read() throws IOException {
+		final Properties properties = new Properties();
+		final InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+
+		try {
+			highestRound = Integer.parseInt(properties.getProperty(HIGHEST_ROUND, "0"));
+		} catch (NumberFormatException e) {
+			highestRound = 0;
+		}
+		musicEnabled = Boolean.parseBoolean(properties.getProperty(MUSIC, "true"));
+		soundEnabled = Boolean.parseBoolean(properties.getProperty(SOUND, "true"));
+	}
+
+	// Accessors
+
+	synchronized int getHighestRound() {
+		return highestRound;
+	}
+
+	synchronized void setHighestRound(final int highestRound) {
+		if (this.highestRound != highestRound) {
+			this.highestRound = highestRound;
+			changed();
+		}
+	}
+
+	synchronized boolean isMusicEnabled() {
+		return musicEnabled;
+	}
+
+	synchronized void setMusicEnabled(final boolean musicEnabled) {
+		if (this.musicEnabled != musicEnabled) {
+			this.musicEnabled = musicEnabled;
+			changed();
+		}
+	}
+
+	synchronized boolean isSoundEnabled() {
+		return soundEnabled;
+	}
+
+	synchronized void setSoundEnabled(final boolean soundEnabled) {
+		if (this.soundEnabled != soundEnabled) {
+			this.soundEnabled = soundEnabled;
+			changed();
+		}
+	}
+
+	/** Record a change, and wake the writer. Must be called with the monitor held. */
+	private void changed() {
+		version++;
+		notifyAll();
+	}
+
+	/** Start the background writer. */
+	synchronized void start() {
+		if (writer != null) {
+			return;
+		}
+		stopped = false;
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeBehind();
+			}
+		}, TAG);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/** Write any outstanding changes and stop the background writer. */
+	void stop() {
+		synchronized (this) {
+			stopped = true;
+			writer = null;
+			notifyAll();
+		}
+		flush();
+	}
+
+	/** Write any outstanding changes now, on the calling thread. */
+	void flush() {
+		write();
+	}
+
+	/** The background writer's loop. */
+	private void writeBehind() {
+		while (true) {
+			synchronized (this) {
+				while (!stopped && version == writtenVersion) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (stopped) {
+					return;
+				}
+			}
+
+			// Give any further changes a chance to arrive
+			try {
+				Thread.sleep(WRITE_DELAY_MS);
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			write();
+		}
+	}
+
+	/** Write the current settings, if they have changed since the last write. */
+	private void write() {
+		synchronized (writeLock) {
+			final Properties properties = new Properties();
+			final int writingVersion;
+			synchronized (this) {
+				if (version == writtenVersion) {
+					return;
+				}
+				properties.setProperty(HIGHEST_ROUND, Integer.toString(highestRound));
+				properties.setProperty(MUSIC, Boolean.toString(musicEnabled));
+				properties.setProperty(SOUND, Boolean.toString(soundEnabled));
+				writingVersion = version;
+			}
+
+			try {
+				writeAtomically(properties);
+			} catch (IOException e) {
+				Gdx.app.error(TAG, "Unable to write " + file, e);
+				return;
+			}
+
+			synchronized (this) {
+				writtenVersion = writingVersion;
+			}
+
+			if (DEBUG) {
+				Gdx.app.log(TAG, "Wrote version " + writingVersion);
+			}
+		}
+	}
+
+	/** Write the properties to a temporary file, then rename it over the settings file. */
+	private void writeAtomically(final Properties properties) throws IOException {
+		final File temp = new File(file.getPath() + ".tmp");
+
+		final FileOutputStream out = new FileOutputStream(temp);
+		try {
+			properties.store(out, null);
+			out.flush();
+			out.getFD().sync();
+		} finally {
+			out.close();
+		}
+
+		if (!temp.renameTo(file)) {
+			// Some platforms will not rename over an existing file
+			file.delete();
+			if (!temp.renameTo(file)) {
+				throw new IOException("Unable to rename " + temp + " to " + file);
+			}
+		}
+	}
+}
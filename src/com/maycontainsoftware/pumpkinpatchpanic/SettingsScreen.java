@@ -45,7 +45,7 @@ public class SettingsScreen extends PumpkinScreen {
 		super.show();
 
 		// The "Menu" pumpkin-button
-		final Button menuBtn = new PumpkinButton(atlas, "menu", game);
+		final Button menuBtn = new PumpkinButton(regions, AtlasRegionId.MENU_UP, AtlasRegionId.MENU_DOWN, game);
 		menuBtn.setPosition(1280 / 2 - 290 - 170 / 2, 190);
 		menuBtn.addListener(new ChangeListener() {
 			@Override
@@ -57,7 +57,8 @@ public class SettingsScreen extends PumpkinScreen {
 		stage.addActor(menuBtn);
 
 		// The "Reset High Score" pumpkin-button
-		final Button resetScoreBtn = new PumpkinButton(atlas, "reset_score", game);
+		final Button resetScoreBtn = new PumpkinButton(regions, AtlasRegionId.RESET_SCORE_UP,
+				AtlasRegionId.RESET_SCORE_DOWN, game);
 		resetScoreBtn.setPosition(1280 / 2 + 95 - 170 / 2, 190);
 		resetScoreBtn.addListener(new ChangeListener() {
 			@Override
@@ -72,8 +73,9 @@ public class SettingsScreen extends PumpkinScreen {
 		stage.addActor(resetScoreBtn);
 
 		// The "Sound On/Off" pumpkin-button
-		final PumpkinButton.TogglePumpkinButton soundBtn = new PumpkinButton.TogglePumpkinButton(atlas, "sound",
-				"no_sound", game);
+		final PumpkinButton.TogglePumpkinButton soundBtn = new PumpkinButton.TogglePumpkinButton(regions,
+				AtlasRegionId.SOUND_UP, AtlasRegionId.SOUND_DOWN, AtlasRegionId.NO_SOUND_UP, AtlasRegionId.NO_SOUND_DOWN,
+				game);
 		soundBtn.setPosition(1280 / 2 - 95 - 170 / 2, 60);
 		soundBtn.addListener(new ChangeListener() {
 			@Override
@@ -93,8 +95,9 @@ public class SettingsScreen extends PumpkinScreen {
 		stage.addActor(soundBtn);
 
 		// The "Music On/Off" pumpkin-button
-		final PumpkinButton.TogglePumpkinButton musicBtn = new PumpkinButton.TogglePumpkinButton(atlas, "music",
-				"no_music", game);
+		final PumpkinButton.TogglePumpkinButton musicBtn = new PumpkinButton.TogglePumpkinButton(regions,
+				AtlasRegionId.MUSIC_UP, AtlasRegionId.MUSIC_DOWN, AtlasRegionId.NO_MUSIC_UP, AtlasRegionId.NO_MUSIC_DOWN,
+				game);
 		musicBtn.setPosition(1280 / 2 + 290 - 170 / 2, 60);
 		musicBtn.addListener(new ChangeListener() {
 			@Override
@@ -127,6 +130,10 @@ public class SettingsScreen extends PumpkinScreen {
 					Gdx.app.postRunnable(new Runnable() {
 						@Override
 						public void run() {
+							// The screen may have been left in the meantime
+							if (disposed) {
+								return;
+							}
 							game.setScreen(new MainMenuScreen(game));
 							SettingsScreen.this.dispose();
 						}
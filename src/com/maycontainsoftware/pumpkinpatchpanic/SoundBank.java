@@ -0,0 +1,317 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * All of the game's sound effects. The bank limits how many instances of each effect can play at once, stealing the
+ * oldest instance when the limit is reached, and how often each effect can be started. When too many effects are
+ * playing overall, an effect can only take the place of one of equal or lower priority, so the important sounds (a
+ * life being lost, a spirit escaping) are never dropped in favour of a player tapping away at pumpkins.
+ * 
+ * Playback itself goes through a Backend, so the bank's behaviour can be exercised without any audio hardware.
+ * 
+ * @author Charlie
+ */
+class SoundBank {
+
+	/** Whether debug output should be logged. */
+	private static final boolean DEBUG = false;
+
+	/** Tag, for logging purposes. */
+	private static final String TAG = SoundBank.class.getSimpleName();
+
+	/** Maximum number of effects playing at once, across all effects. */
+	static final int MAX_VOICES = 8;
+
+	/** Sound effect priorities. */
+	static enum Priority {
+		Low,
+		Normal,
+		High,
+	}
+
+	/** The sound effects. */
+	static enum Effect {
+		// Asset, duration (s), max voices, priority, min interval (s)
+		SQUARK(GameAsset.SQUARK, 0.47f, 2, Priority.Low, 0.1f),
+		SPIRIT(GameAsset.SPIRIT, 1.65f, 3, Priority.High, 0.0f),
+		THUMP(GameAsset.THUMP, 0.47f, 3, Priority.Low, 0.05f),
+		HISS(GameAsset.HISS, 2.06f, 5, Priority.Normal, 0.0f),
+		KNOCK(GameAsset.KNOCK, 1.1f, 3, Priority.High, 0.0f);
+
+		/** The asset. */
+		final GameAsset asset;
+
+		/** The length of the effect, after which its voice is assumed to be free. */
+		final float duration;
+
+		/** Maximum number of instances of this effect playing at once. */
+		final int maxVoices;
+
+		/** The effect's priority. */
+		final Priority priority;
+
+		/** Minimum time between starting instances of this effect. */
+		final float minInterval;
+
+		private Effect(final GameAsset asset, final float duration, final int maxVoices, final Priority priority,
+				final float minInterval) {
+			this.asset = asset;
+			this.duration = duration;
+			this.maxVoices = maxVoices;
+			this.priority = priority;
+			this.minInterval = minInterval;
+		}
+	}
+
+	/** The audio system that actually plays effects. */
+	static interface Backend {
+
+		/**
+		 * Start playing an effect.
+		 * 
+		 * @return The id of the playing instance.
+		 */
+		public long play(Effect effect);
+
+		/** Stop a playing instance of an effect. */
+		public void stop(Effect effect, long id);
+	}
+
+	/**
+	 * Backend that plays effects through libGDX Sounds. Each Sound instance is resolved from the AssetManager once, as
+	 * soon as it has loaded; effects that are still loading in the background are not played.
+	 * 
+	 * @author Charlie
+	 */
+	static class GdxBackend implements Backend {
+
+		/** The assets. */
+		private final Assets assets;
+
+		/** The sounds, indexed by effect ordinal. Null until loaded. */
+		private final Sound[] sounds;
+
+		/** The assets' unload count when the sounds were last resolved. */
+		private int unloadCount;
+
+		public GdxBackend(final Assets assets) {
+			this.assets = assets;
+			sounds = new Sound[Effect.values().length];
+		}
+
+		/** Re-resolve the sounds if anything has been unloaded since they were last resolved. */
+		private void refresh() {
+			if (unloadCount == assets.getUnloadCount()) {
+				return;
+			}
+			unloadCount = assets.getUnloadCount();
+			for (final Effect effect : Effect.values()) {
+				final boolean loaded = assets.isLoaded(effect.asset);
+				sounds[effect.ordinal()] = loaded ? assets.get(effect.asset, Sound.class) : null;
+			}
+		}
+
+		@Override
+		public long play(final Effect effect) {
+			refresh();
+
+			Sound sound = sounds[effect.ordinal()];
+			if (sound == null) {
+				if (!assets.isLoaded(effect.asset)) {
+					return NOT_PLAYED;
+				}
+				sound = assets.get(effect.asset, Sound.class);
+				sounds[effect.ordinal()] = sound;
+			}
+			return sound.play();
+		}
+
+		@Override
+		public void stop(final Effect effect, final long id) {
+			refresh();
+
+			final Sound sound = sounds[effect.ordinal()];
+			if (sound != null) {
+				sound.stop(id);
+			}
+		}
+	}
+
+	/** Id returned when an effect was not played. */
+	static final long NOT_PLAYED = -1;
+
+	/** The backend. */
+	private final Backend backend;
+
+	/** The current time, in seconds since the bank was created. */
+	private float time;
+
+	/** The time each effect was last started, indexed by effect ordinal. */
+	private final float[] lastStarted;
+
+	// Voices, i.e. playing instances of effects, held in parallel arrays. A null effect denotes a free voice.
+
+	private final Effect[] voiceEffect = new Effect[MAX_VOICES];
+	private final long[] voiceId = new long[MAX_VOICES];
+	private final float[] voiceStarted = new float[MAX_VOICES];
+
+	/**
+	 * Construct a new SoundBank.
+	 * 
+	 * @param backend
+	 *            The audio backend.
+	 */
+	public SoundBank(final Backend backend) {
+		this.backend = backend;
+
+		lastStarted = new float[Effect.values().length];
+		for (int i = 0; i < lastStarted.length; i++) {
+			lastStarted[i] = Float.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Advance the bank's clock. Should be called once per frame.
+	 * 
+	 * @param delta
+	 *            Time since the last update, in seconds.
+	 */
+	void update(final float delta) {
+		time += delta;
+	}
+
+	/**
+	 * Play an effect, subject to its voice limit, rate limit and priority.
+	 * 
+	 * @param effect
+	 *            The effect.
+	 * @return The id of the playing instance, or NOT_PLAYED if the effect was dropped.
+	 */
+	long play(final Effect effect) {
+
+		// Rate limit
+		if (time - lastStarted[effect.ordinal()] < effect.minInterval) {
+			if (DEBUG) {
+				Gdx.app.log(TAG, "Rate limited: " + effect);
+			}
+			return NOT_PLAYED;
+		}
+
+		// Free the voices of any effects that have finished
+		int instances = 0;
+		for (int i = 0; i < MAX_VOICES; i++) {
+			if (voiceEffect[i] != null && time - voiceStarted[i] >= voiceEffect[i].duration) {
+				voiceEffect[i] = null;
+			}
+			if (voiceEffect[i] == effect) {
+				instances++;
+			}
+		}
+
+		final int voice;
+		if (instances >= effect.maxVoices) {
+			// Too many instances of this effect - steal the oldest
+			voice = findOldestVoice(effect);
+		} else {
+			voice = findFreeVoice(effect.priority);
+			if (voice == -1) {
+				if (DEBUG) {
+					Gdx.app.log(TAG, "No voice available: " + effect);
+				}
+				return NOT_PLAYED;
+			}
+		}
+
+		// Stop the previous occupant of the voice, if any
+		if (voiceEffect[voice] != null) {
+			if (DEBUG) {
+				Gdx.app.log(TAG, "Stealing voice from " + voiceEffect[voice] + " for " + effect);
+			}
+			backend.stop(voiceEffect[voice], voiceId[voice]);
+		}
+
+		final long id = backend.play(effect);
+		if (id == NOT_PLAYED) {
+			voiceEffect[voice] = null;
+			return NOT_PLAYED;
+		}
+		voiceEffect[voice] = effect;
+		voiceId[voice] = id;
+		voiceStarted[voice] = time;
+		lastStarted[effect.ordinal()] = time;
+		return id;
+	}
+
+	/**
+	 * Stop a playing instance of an effect.
+	 * 
+	 * @param effect
+	 *            The effect.
+	 * @param id
+	 *            The id returned when the effect was played. NOT_PLAYED is ignored.
+	 */
+	void stop(final Effect effect, final long id) {
+		if (id == NOT_PLAYED) {
+			return;
+		}
+		for (int i = 0; i < MAX_VOICES; i++) {
+			if (voiceEffect[i] == effect && voiceId[i] == id) {
+				backend.stop(effect, id);
+				voiceEffect[i] = null;
+				return;
+			}
+		}
+	}
+
+	/** Get the number of voices currently in use. */
+	int getVoicesInUse() {
+		int count = 0;
+		for (int i = 0; i < MAX_VOICES; i++) {
+			if (voiceEffect[i] != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/** Find the oldest voice playing an effect. */
+	private int findOldestVoice(final Effect effect) {
+		int oldest = -1;
+		for (int i = 0; i < MAX_VOICES; i++) {
+			if (voiceEffect[i] == effect && (oldest == -1 || voiceStarted[i] < voiceStarted[oldest])) {
+				oldest = i;
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * Find a voice for a new effect: a free voice if there is one, otherwise the oldest voice of the lowest priority
+	 * that is no higher than the new effect's.
+	 * 
+	 * @return The voice, or -1 if every voice is playing a higher-priority effect.
+	 */
+	private int findFreeVoice(final Priority priority) {
+		int victim = -1;
+		for (int i = 0; i < MAX_VOICES; i++) {
+			final Effect playing = voiceEffect[i];
+			if (playing == null) {
+				return i;
+			}
+			if (playing.priority.compareTo(priority) > 0) {
+				continue;
+			}
+			if (victim == -1) {
+				victim = i;
+				continue;
+			}
+			final int compare = playing.priority.compareTo(voiceEffect[victim].priority);
+			if (compare < 0 || (compare == 0 && voiceStarted[i] < voiceStarted[victim])) {
+				victim = i;
+			}
+		}
+		return victim;
+	}
+}
@@ -1,7 +1,6 @@
 package com.maycontainsoftware.pumpkinpatchpanic;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
@@ -15,7 +14,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Image;
 class Spirit extends Image {
 
 	/** Constructor. */
-	public Spirit(final TextureRegion spiritRegion, final float x, final float y) {
+	public Spirit(final TextureRegion spiritRegion, final float x, final float y, final RandomStream random) {
 		super(spiritRegion);
 
 		// Set origin so rotations work correctly
@@ -31,7 +30,7 @@ class Spirit extends Image {
 		setPosition(x - getWidth() / 2, y - getHeight() / 2);
 
 		// Over the next few seconds: Scale up to 4x, fade in then rapidly fade out
-		final float rotation = MathUtils.random(-45.0f, 45.0f);
+		final float rotation = random.random(-45.0f, 45.0f);
 		addAction(Actions.parallel(Actions.scaleTo(4.0f, 4.0f, 1.0f), Actions.rotateBy(rotation, 1.0f),
 				Actions.sequence(Actions.fadeIn(0.75f), Actions.fadeOut(0.25f), new Action() {
 					@Override
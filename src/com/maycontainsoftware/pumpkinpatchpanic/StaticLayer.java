@@ -0,0 +1,112 @@
+package com.maycontainsoftware.pumpkinpatchpanic;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+
+/**
+ * Actor that draws a fixed set of unmoving sprites, such as the sky or the hillside. If given a SpriteCache, the
+ * sprites are baked into it once and drawn from the cached geometry each frame, so no per-frame vertex work is done for
+ * them on the CPU. Otherwise they are simply drawn through the SpriteBatch.
+ * 
+ * The cached geometry is in virtual coordinates, so it is unaffected by resizing - the current projection is taken
+ * from the SpriteBatch on every draw.
+ * 
+ * @author Charlie
+ */
+class StaticLayer extends Actor {
+
+	/** Maximum number of sprites in a layer. */
+	private static final int MAX_SPRITES = 8;
+
+	/** The cache, or null if the layer is drawn through the SpriteBatch. */
+	private final SpriteCache cache;
+
+	/** The id of the layer within the cache, or -1 if it has not been baked yet. */
+	private int cacheId = -1;
+
+	// The sprites in the layer
+
+	private final TextureRegion[] regions = new TextureRegion[MAX_SPRITES];
+	private final float[] bounds = new float[MAX_SPRITES * 4];
+	private int count;
+
+	/**
+	 * Construct a new StaticLayer.
+	 * 
+	 * @param cache
+	 *            The SpriteCache to bake the layer into, or null to draw through the SpriteBatch.
+	 */
+	public StaticLayer(final SpriteCache cache) {
+		this.cache = cache;
+		setTouchable(Touchable.disabled);
+	}
+
+	/**
+	 * Add a sprite to the layer. All sprites must be added before the layer is first drawn.
+	 * 
+	 * @param region
+	 *            The region to draw.
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 */
+	public void add(final TextureRegion region, final float x, final float y, final float width, final float height) {
+		if (cacheId != -1) {
+			throw new IllegalStateException("Layer has already been baked");
+		}
+		if (count == MAX_SPRITES) {
+			throw new IllegalStateException("Too many sprites in layer");
+		}
+		regions[count] = region;
+		bounds[count * 4] = x;
+		bounds[count * 4 + 1] = y;
+		bounds[count * 4 + 2] = width;
+		bounds[count * 4 + 3] = height;
+		count++;
+	}
+
+	/** Bake the layer into the cache. */
+	private void bake() {
+		cache.beginCache();
+		for (int i = 0; i < count; i++) {
+			cache.add(regions[i], bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+		}
+		cacheId = cache.endCache();
+	}
+
+	@Override
+	public void draw(final SpriteBatch batch, final float parentAlpha) {
+		if (cache == null) {
+			final Color color = getColor();
+			batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+			for (int i = 0; i < count; i++) {
+				batch.draw(regions[i], bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+			}
+			return;
+		}
+
+		if (cacheId == -1) {
+			bake();
+		}
+
+		// Flush sprites drawn so far, then draw the cached layer in their place
+		batch.end();
+
+		Gdx.gl.glEnable(GL10.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+		cache.setProjectionMatrix(batch.getProjectionMatrix());
+		cache.setTransformMatrix(batch.getTransformMatrix());
+		cache.begin();
+		cache.draw(cacheId);
+		cache.end();
+
+		batch.begin();
+	}
+}
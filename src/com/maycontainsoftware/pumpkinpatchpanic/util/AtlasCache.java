@@ -0,0 +1,228 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import com.badlogic.gdx.tools.imagepacker.TexturePacker2.Settings;
+
+/**
+ * Record of the inputs each atlas was last packed from, so GenerateAtlases can skip atlases whose inputs have not
+ * changed. Inputs are identified by content hash rather than timestamp, so checking out or touching files does not
+ * cause a repack, and reverting a change does.
+ * 
+ * Each atlas has two hashes: one of its input files (names and contents), and one of everything else that affects the
+ * output (the packing Settings, and options such as density and compression). They are kept separate so the report can
+ * say which changed.
+ * 
+ * The cache may be shared by jobs packing different atlases concurrently.
+ * 
+ * @author Charlie
+ */
+class AtlasCache {
+
+	/** Hash of inputs and of settings, separated by this in the cache file. */
+	private static final String SEPARATOR = ",";
+
+	/** The cache file. */
+	private final File file;
+
+	/** Hashes by atlas name. */
+	private final Properties entries = new Properties();
+
+	/**
+	 * Load a cache, or create an empty one if the file does not exist.
+	 * 
+	 * @param file
+	 *            The cache file.
+	 */
+	AtlasCache(final File file) throws IOException {
+		this.file = file;
+		if (file.exists()) {
+			final InputStream in = new FileInputStream(file);
+			try {
+				entries.load(in);
+			} finally {
+				in.close();
+			}
+		}
+	}
+
+	/**
+	 * Check whether an atlas must be packed.
+	 * 
+	 * @param name
+	 *            The atlas name.
+	 * @param inputsHash
+	 *            Hash of the atlas's inputs, from hashFiles().
+	 * @param settingsHash
+	 *            Hash of the atlas's settings, from hashSettings().
+	 * @param output
+	 *            The packed atlas file.
+	 * @return The reason the atlas must be packed, or null if it is up to date.
+	 */
+	synchronized String check(final String name, final String inputsHash, final String settingsHash,
+			final File output) {
+		final String entry = entries.getProperty(name);
+		if (entry == null) {
+			return "new";
+		}
+		if (!output.exists()) {
+			return "output-missing";
+		}
+		final String[] hashes = entry.split(SEPARATOR);
+		if (hashes.length != 2) {
+			return "cache-invalid";
+		}
+		if (!hashes[0].equals(inputsHash)) {
+			return "inputs-changed";
+		}
+		if (!hashes[1].equals(settingsHash)) {
+			return "settings-changed";
+		}
+		return null;
+	}
+
+	/**
+	 * Record that an atlas has been packed, and save the cache, so that work already done is kept even if a later
+	 * atlas fails.
+	 */
+	synchronized void put(final String name, final String inputsHash, final String settingsHash) throws IOException {
+		entries.setProperty(name, inputsHash + SEPARATOR + settingsHash);
+
+		final File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Unable to create " + dir);
+		}
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			entries.store(out, "Generated by util.GenerateAtlases - delete to force a full rebuild");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Hash a set of input files: every file in a directory tree, as TexturePacker2 reads the whole tree (including any
+	 * pack.json), plus any extra files.
+	 * 
+	 * @param dir
+	 *            The directory.
+	 * @param extraFiles
+	 *            Other files the output depends on.
+	 */
+	static String hashFiles(final File dir, final List<File> extraFiles) throws IOException {
+		final List<File> files = new ArrayList<File>();
+		listFiles(dir, files);
+		files.addAll(extraFiles);
+
+		final MessageDigest digest = createDigest();
+		final byte[] buffer = new byte[8192];
+		for (final File input : files) {
+			// Names are hashed relative to the directory, so renaming a region repacks, but moving the tree does not
+			final String path = input.getPath().startsWith(dir.getPath()) ? input.getPath().substring(
+					dir.getPath().length()) : input.getName();
+			digest.update(path.replace(File.separatorChar, '/').getBytes("UTF-8"));
+			digest.update((byte) 0);
+			final InputStream in = new FileInputStream(input);
+			try {
+				int n;
+				while ((n = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, n);
+				}
+			} finally {
+				in.close();
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	/** List the files in a directory tree, in a fixed order. */
+	private static void listFiles(final File dir, final List<File> files) {
+		final File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		Arrays.sort(children, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		for (final File child : children) {
+			if (child.isDirectory()) {
+				listFiles(child, files);
+			} else {
+				files.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Hash packing settings: every public field of the Settings, plus any other options.
+	 * 
+	 * @param settings
+	 *            The packing settings.
+	 * @param options
+	 *            Other options that affect the output, such as density and compression.
+	 */
+	static String hashSettings(final Settings settings, final String options) throws IOException {
+		final List<Field> fields = new ArrayList<Field>(Arrays.asList(Settings.class.getFields()));
+		Collections.sort(fields, new Comparator<Field>() {
+			@Override
+			public int compare(Field a, Field b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+
+		final StringBuilder description = new StringBuilder(options);
+		try {
+			for (final Field field : fields) {
+				description.append('\n').append(field.getName()).append('=');
+				final Object value = field.get(settings);
+				if (value != null && value.getClass().isArray()) {
+					for (int i = 0; i < Array.getLength(value); i++) {
+						description.append(Array.get(value, i)).append(' ');
+					}
+				} else {
+					description.append(value);
+				}
+			}
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+
+		final MessageDigest digest = createDigest();
+		digest.update(description.toString().getBytes("UTF-8"));
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(final byte[] bytes) {
+		final StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+}
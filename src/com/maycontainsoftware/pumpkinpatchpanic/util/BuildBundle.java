@@ -0,0 +1,188 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Utility to pack the files in the staging directory, where the other asset tools write their output, into a single
+ * indexed bundle in the Android assets directory, which the game reads every asset from (see AssetBundle). Audio is
+ * copied alongside the bundle instead, as Android plays sounds and music from their own file descriptors. PNGs that
+ * have a pre-decoded version are left out, as the game never loads them. Nothing in the staging directory is changed,
+ * so the other tools' caches stay valid between runs. Copies in the Android assets directory of staged files that
+ * are not loose (e.g. from before the bundle was used) are deleted.
+ * 
+ * Pre-decoded textures and the bundle should both be stored uncompressed in the APK. Run last, after GenerateAtlases,
+ * CopyStaticAssets, PreDecodeTextures and GenerateAssetManifest.
+ * 
+ * @author Charlie
+ */
+public class BuildBundle {
+
+	/** Directory the other asset tools write to, and the bundle is built from. */
+	static final String STAGING_DIR = "./build/assets";
+
+	// File format - must match AssetBundle
+
+	private static final String FILE_NAME = "assets.bundle";
+	private static final int MAGIC = 0x5050424E;
+	private static final int VERSION = 1;
+
+	/** Extensions of files that must stay loose. */
+	private static final String[] LOOSE_EXTENSIONS = { ".mp3", ".ogg", ".wav" };
+
+	public static void main(String[] args) throws IOException {
+
+		final File stagingDir = new File(STAGING_DIR);
+
+		// Assets directory - note assumed project name!
+		final File assetsDir = new File("../PumpkinPatchPanic-android/assets");
+		final File bundleFile = new File(assetsDir, FILE_NAME);
+
+		// Collect the files to bundle, in a fixed order so the bundle is reproducible
+		final File[] candidates = stagingDir.listFiles();
+		if (candidates == null) {
+			throw new IOException("No staging directory " + stagingDir.getCanonicalPath()
+					+ " - run the other asset tools first");
+		}
+		Arrays.sort(candidates);
+		final List<File> files = new ArrayList<File>();
+		final List<File> looseFiles = new ArrayList<File>();
+		for (final File file : candidates) {
+			if (!file.isFile() || isSuperseded(file)) {
+				continue;
+			}
+			if (isLoose(file.getName())) {
+				looseFiles.add(file);
+			} else {
+				files.add(file);
+			}
+		}
+		if (files.isEmpty()) {
+			throw new IOException("Nothing to bundle in " + stagingDir.getCanonicalPath()
+					+ " - run the other asset tools first");
+		}
+
+		// Build the index, now that the size of every entry is known
+		final byte[][] contents = new byte[files.size()][];
+		final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		final DataOutputStream index = new DataOutputStream(indexBytes);
+		int indexSize = 12;
+		for (int i = 0; i < files.size(); i++) {
+			contents[i] = readFile(files.get(i));
+			indexSize += 2 + files.get(i).getName().getBytes("UTF-8").length + 12;
+		}
+
+		index.writeInt(MAGIC);
+		index.writeInt(VERSION);
+		index.writeInt(files.size());
+		int offset = indexSize;
+		for (int i = 0; i < files.size(); i++) {
+			final CRC32 crc = new CRC32();
+			crc.update(contents[i]);
+			index.writeUTF(files.get(i).getName());
+			index.writeInt(offset);
+			index.writeInt(contents[i].length);
+			index.writeInt((int) crc.getValue());
+			offset += contents[i].length;
+		}
+		index.flush();
+		if (index.size() != indexSize) {
+			throw new IllegalStateException("Index is " + index.size() + " bytes, expected " + indexSize);
+		}
+
+		assetsDir.mkdirs();
+		final FileOutputStream out = new FileOutputStream(bundleFile);
+		try {
+			indexBytes.writeTo(out);
+			for (final byte[] content : contents) {
+				out.write(content);
+			}
+		} finally {
+			out.close();
+		}
+
+		for (final File file : files) {
+			System.out.println("Bundle " + file.getName() + " (" + file.length() + " bytes)");
+		}
+		System.out.println("Wrote " + bundleFile.getCanonicalPath() + " (" + files.size() + " entries, " + offset
+				+ " bytes)");
+
+		// Remove copies of anything that is not loose from the assets directory, e.g. from before the bundle was used
+		for (final File file : candidates) {
+			final File looseCopy = new File(assetsDir, file.getName());
+			if (file.isFile() && !isLoose(file.getName()) && looseCopy.exists()) {
+				System.out.println("Remove " + looseCopy.getName());
+				if (!looseCopy.delete()) {
+					System.out.println("  unable to delete " + looseCopy);
+				}
+			}
+		}
+
+		// Copy loose files that have changed since the last run
+		for (final File file : looseFiles) {
+			final File copy = new File(assetsDir, file.getName());
+			if (copy.length() != file.length() || copy.lastModified() != file.lastModified()) {
+				System.out.println("Copy " + file.getName());
+				writeFile(copy, readFile(file));
+				copy.setLastModified(file.lastModified());
+			}
+		}
+	}
+
+	/**
+	 * Check whether a file is a PNG replaced by a pre-decoded texture (see PreDecodeTextures), which the game's texture
+	 * loader prefers, so the PNG is never loaded.
+	 */
+	static boolean isSuperseded(final File file) {
+		final String name = file.getName();
+		return name.endsWith(".png")
+				&& new File(file.getParentFile(), name.substring(0, name.length() - 4) + ".ptx").exists();
+	}
+
+	/** Check whether a file must stay loose. */
+	private static boolean isLoose(final String name) {
+		for (final String extension : LOOSE_EXTENSIONS) {
+			if (name.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Read the whole of a file. */
+	private static byte[] readFile(final File file) throws IOException {
+		final byte[] bytes = new byte[(int) file.length()];
+		final FileInputStream in = new FileInputStream(file);
+		try {
+			int read = 0;
+			while (read < bytes.length) {
+				final int n = in.read(bytes, read, bytes.length - read);
+				if (n == -1) {
+					throw new IOException("Unexpected end of " + file);
+				}
+				read += n;
+			}
+		} finally {
+			in.close();
+		}
+		return bytes;
+	}
+
+	/** Write the whole of a file. */
+	private static void writeFile(final File file, final byte[] bytes) throws IOException {
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+}
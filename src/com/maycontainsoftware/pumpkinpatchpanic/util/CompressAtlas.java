@@ -0,0 +1,211 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.glutils.ETC1;
+import com.badlogic.gdx.graphics.glutils.ETC1.ETC1Data;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+/**
+ * Utility to convert the PNG pages of a packed texture atlas to ETC1. ETC1 has no alpha channel, so each page becomes
+ * two ETC1 files: the colour ("atlas.etc1") and an alpha plane stored as greyscale ("atlas_alpha.etc1"). The atlas
+ * file is rewritten to refer to the colour files, and the PNG pages are deleted. At runtime, Etc1AlphaBatch finds the
+ * alpha plane for each colour page and combines the two in its shader.
+ * 
+ * For each page, the size on disk and in video memory is reported against the original PNG, along with the PSNR of the
+ * colour (over pixels that are not fully transparent) and of the alpha plane, so the quality cost of compression can be
+ * judged before shipping.
+ * 
+ * Run automatically by GenerateAtlases when given the -etc1 argument, but can also be run on its own against existing
+ * atlas files. Requires the libGDX desktop natives, for ETC1 encoding.
+ * 
+ * @author Charlie
+ */
+public class CompressAtlas {
+
+	/** Extension of compressed pages. */
+	static final String ETC1_EXTENSION = ".etc1";
+
+	/** Suffix added to a page's name to name its alpha plane. */
+	static final String ALPHA_SUFFIX = "_alpha";
+
+	public static void main(String[] args) throws IOException {
+
+		// Atlas directory
+		final File atlasDir = new File(BuildBundle.STAGING_DIR);
+
+		for (final File atlasFile : atlasDir.listFiles()) {
+			if (atlasFile.getName().endsWith(".atlas")) {
+				compress(atlasFile);
+			}
+		}
+	}
+
+	/**
+	 * Compress every PNG page of an atlas, and rewrite the atlas file to refer to the compressed pages.
+	 * 
+	 * @param atlasFile
+	 *            The packed atlas file.
+	 * @throws IOException
+	 */
+	static void compress(final File atlasFile) throws IOException {
+		GdxNativesLoader.load();
+
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(atlasFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+
+		// A page starts with its file name, on the first non-blank line after a blank line
+		boolean expectPage = true;
+		boolean inCompressedPage = false;
+		for (int i = 0; i < lines.size(); i++) {
+			final String line = lines.get(i);
+			if (line.trim().length() == 0) {
+				expectPage = true;
+				inCompressedPage = false;
+			} else if (expectPage) {
+				expectPage = false;
+				if (line.endsWith(".png")) {
+					final String pageName = line.substring(0, line.length() - 4);
+					compressPage(new File(atlasFile.getParentFile(), line), pageName);
+					lines.set(i, pageName + ETC1_EXTENSION);
+					inCompressedPage = true;
+				}
+			} else if (inCompressedPage && line.startsWith("format:")) {
+				// The page no longer has an alpha channel of its own
+				lines.set(i, "format: " + Format.RGB888);
+				inCompressedPage = false;
+			}
+		}
+
+		final PrintWriter writer = new PrintWriter(new FileWriter(atlasFile));
+		try {
+			for (final String line : lines) {
+				writer.print(line + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Compress a single page, report on it, and delete the PNG.
+	 * 
+	 * @param pngFile
+	 *            The page.
+	 * @param pageName
+	 *            The page's name, without extension.
+	 */
+	private static void compressPage(final File pngFile, final String pageName) {
+		final File dir = pngFile.getParentFile();
+		final File colorFile = new File(dir, pageName + ETC1_EXTENSION);
+		final File alphaFile = new File(dir, pageName + ALPHA_SUFFIX + ETC1_EXTENSION);
+
+		final Pixmap original = new Pixmap(new FileHandle(pngFile));
+		final int width = original.getWidth();
+		final int height = original.getHeight();
+
+		// Split into colour and alpha planes
+		final Pixmap color = new Pixmap(width, height, Format.RGB888);
+		final Pixmap alpha = new Pixmap(width, height, Format.RGB888);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int rgba = original.getPixel(x, y);
+				final int a = rgba & 0xff;
+				color.drawPixel(x, y, rgba | 0xff);
+				alpha.drawPixel(x, y, a << 24 | a << 16 | a << 8 | 0xff);
+			}
+		}
+
+		final ETC1Data colorData = ETC1.encodeImagePKM(color);
+		final ETC1Data alphaData = ETC1.encodeImagePKM(alpha);
+		colorData.write(new FileHandle(colorFile));
+		alphaData.write(new FileHandle(alphaFile));
+
+		// Decode again, to measure what was lost
+		final Pixmap decodedColor = ETC1.decodeImage(colorData, Format.RGB888);
+		final Pixmap decodedAlpha = ETC1.decodeImage(alphaData, Format.RGB888);
+
+		long colorError = 0;
+		long colorSamples = 0;
+		long alphaError = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int rgba = original.getPixel(x, y);
+				final int a = rgba & 0xff;
+				final int da = decodedAlpha.getPixel(x, y) >>> 24;
+				alphaError += (a - da) * (a - da);
+
+				// Colour is irrelevant where the page is fully transparent
+				if (a != 0) {
+					final int decoded = decodedColor.getPixel(x, y);
+					for (int shift = 8; shift <= 24; shift += 8) {
+						final int diff = (rgba >>> shift & 0xff) - (decoded >>> shift & 0xff);
+						colorError += diff * diff;
+					}
+					colorSamples += 3;
+				}
+			}
+		}
+
+		// Video memory: RGBA8888 is 4 bytes per pixel; ETC1 is 8 bytes per 4x4 block, for each of two planes
+		final long pngVram = (long) width * height * 4;
+		final long etc1Vram = 2L * ((width + 3) / 4) * ((height + 3) / 4) * 8;
+		final long pngBytes = pngFile.length();
+		final long etc1Bytes = colorFile.length() + alphaFile.length();
+
+		System.out.println("Compress " + pngFile.getName() + " (" + width + "x" + height + ")");
+		System.out.println("  file: " + pngBytes + " -> " + etc1Bytes + " bytes (" + percent(etc1Bytes, pngBytes)
+				+ ")");
+		System.out.println("  vram: " + pngVram + " -> " + etc1Vram + " bytes (" + percent(etc1Vram, pngVram) + ")");
+		System.out.println("  psnr: colour " + psnr(colorError, colorSamples) + " dB, alpha "
+				+ psnr(alphaError, (long) width * height) + " dB");
+
+		original.dispose();
+		color.dispose();
+		alpha.dispose();
+		decodedColor.dispose();
+		decodedAlpha.dispose();
+		colorData.dispose();
+		alphaData.dispose();
+
+		if (!pngFile.delete()) {
+			System.out.println("  unable to delete " + pngFile);
+		}
+	}
+
+	/** Format a size as a percentage of an original size. */
+	private static String percent(final long size, final long original) {
+		return original == 0 ? "-" : (size * 1000 / original) / 10f + "%";
+	}
+
+	/** Calculate peak signal-to-noise ratio, in dB, from a sum of squared 8-bit errors. */
+	private static String psnr(final long squaredError, final long samples) {
+		if (samples == 0) {
+			return "-";
+		}
+		if (squaredError == 0) {
+			return "inf";
+		}
+		final double mse = (double) squaredError / samples;
+		return String.format(Locale.US, "%.2f", 10 * Math.log10(255.0 * 255.0 / mse));
+	}
+}
@@ -1,36 +1,287 @@
 package com.maycontainsoftware.pumpkinpatchpanic.util;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
 import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Utility to copy all static graphics and sound to the assets directory in the Android application directory.
+ * Utility to copy all static graphics, sound and data to the staging directory, from which BuildBundle builds the
+ * Android application's assets.
+ * 
+ * With the -sync argument, only files that have changed since the last sync are copied. A manifest records the size,
+ * modification time and hash of each file copied: files whose size and time are unchanged are skipped without being
+ * read, and files that have only been touched are hashed and then skipped. Files copied by an earlier sync whose
+ * sources have since been removed are deleted (only those - the staging directory also holds generated files). Copies
+ * run concurrently, and the sync finishes by hashing every output to check it matches its source.
  * 
  * @author Charlie
  */
 public class CopyStaticAssets {
 
-	public static void main(String[] args) throws IOException {
+	/** Record of the files copied by the last sync. */
+	private static final String MANIFEST_FILE = "./build/static-assets.manifest";
+
+	/** Size, modification time and hash of a source file, as recorded in the manifest. */
+	private static class Entry {
+		final long size;
+		final long modified;
+		final String hash;
+
+		Entry(final long size, final long modified, final String hash) {
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+		}
+	}
 
-		// Target directory - note assumed project name!
-		final File outputDirectory = new File("../PumpkinPatchPanic-android/assets/");
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		final boolean sync = Arrays.asList(args).contains("-sync");
+
+		// Target directory
+		final File outputDirectory = new File(BuildBundle.STAGING_DIR);
+		outputDirectory.mkdirs();
 
 		// Fixed assets in the local assets directory
 		final File[] inputDirectories = new File[] { new File("./assets/graphics/static/"),
-				new File("./assets/sound/"), };
+				new File("./assets/sound/"), new File("./assets/data/"), };
 
-		// Copy all files in the input directories to the output directory
+		// Files to copy by name; where names clash, later directories win, as they would be copied last
+		final Map<String, File> inputFiles = new TreeMap<String, File>();
 		for (final File inputDirectory : inputDirectories) {
 			for (final File inputFile : inputDirectory.listFiles()) {
-				final String filename = inputFile.getName();
-				final File outputFile = new File(outputDirectory, filename);
-				System.out.println("Copy " + inputFile.getCanonicalPath() + " to " + outputFile.getCanonicalPath());
-				copyFile(inputFile, outputFile);
+				inputFiles.put(inputFile.getName(), inputFile);
+			}
+		}
+
+		if (sync) {
+			sync(inputFiles, outputDirectory);
+			return;
+		}
+
+		// Copy all files in the input directories to the output directory
+		for (final File inputFile : inputFiles.values()) {
+			final File outputFile = new File(outputDirectory, inputFile.getName());
+			System.out.println("Copy " + inputFile.getCanonicalPath() + " to " + outputFile.getCanonicalPath());
+			copyFile(inputFile, outputFile);
+		}
+	}
+
+	/**
+	 * Copy the files that have changed since the last sync, delete those that have been removed, and verify the result.
+	 * 
+	 * @param inputFiles
+	 *            The files to copy, by name.
+	 * @param outputDirectory
+	 *            The directory to copy them to.
+	 */
+	private static void sync(final Map<String, File> inputFiles, final File outputDirectory) throws IOException,
+			InterruptedException {
+		final long start = System.currentTimeMillis();
+		final File manifestFile = new File(MANIFEST_FILE);
+		final Map<String, Entry> previous = readManifest(manifestFile);
+		final Map<String, Entry> current = new TreeMap<String, Entry>();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			// Copy changed files
+			final List<String> names = new ArrayList<String>(inputFiles.keySet());
+			final List<Future<Entry>> copies = new ArrayList<Future<Entry>>();
+			for (final String name : names) {
+				final File inputFile = inputFiles.get(name);
+				final File outputFile = new File(outputDirectory, name);
+				final Entry entry = previous.get(name);
+				copies.add(executor.submit(new Callable<Entry>() {
+					@Override
+					public Entry call() throws IOException {
+						return syncFile(inputFile, outputFile, entry);
+					}
+				}));
+			}
+			for (int i = 0; i < names.size(); i++) {
+				current.put(names.get(i), getResult(copies.get(i), names.get(i)));
+			}
+
+			// Delete files copied previously whose sources have gone
+			for (final String name : previous.keySet()) {
+				if (!current.containsKey(name)) {
+					final File orphan = new File(outputDirectory, name);
+					if (orphan.exists()) {
+						System.out.println("Delete " + orphan.getCanonicalPath());
+						if (!orphan.delete()) {
+							throw new IOException("Unable to delete " + orphan);
+						}
+					}
+				}
+			}
+
+			writeManifest(manifestFile, current);
+
+			// Verify every output against its source's hash
+			final List<Future<Boolean>> checks = new ArrayList<Future<Boolean>>();
+			for (final String name : names) {
+				final File outputFile = new File(outputDirectory, name);
+				final String hash = current.get(name).hash;
+				checks.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws IOException {
+						return outputFile.exists() && hash(outputFile).equals(hash);
+					}
+				}));
+			}
+			final List<String> mismatched = new ArrayList<String>();
+			for (int i = 0; i < names.size(); i++) {
+				if (!getResult(checks.get(i), names.get(i))) {
+					mismatched.add(names.get(i));
+				}
+			}
+			if (!mismatched.isEmpty()) {
+				for (final String name : mismatched) {
+					System.out.println("Verification failed: " + name);
+				}
+				// Forget the manifest, so the next sync copies everything
+				manifestFile.delete();
+				System.exit(1);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		System.out.println("Synced and verified " + current.size() + " files in " + (System.currentTimeMillis() - start)
+				+ "ms");
+	}
+
+	/** Get the result of a job, rethrowing any failure. */
+	private static <T> T getResult(final Future<T> future, final String name) throws IOException,
+			InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to sync " + name + ": " + e.getCause(), e.getCause());
+		}
+	}
+
+	/**
+	 * Copy a file if it has changed since the last sync.
+	 * 
+	 * @param inputFile
+	 *            The source file.
+	 * @param outputFile
+	 *            The destination file.
+	 * @param entry
+	 *            The source's manifest entry from the last sync, or null if it was not synced.
+	 * @return The source's new manifest entry.
+	 */
+	private static Entry syncFile(final File inputFile, final File outputFile, final Entry entry) throws IOException {
+		final long size = inputFile.length();
+		final long modified = inputFile.lastModified();
+		final boolean outputIntact = outputFile.exists() && outputFile.length() == size;
+
+		// Unchanged, without reading it
+		if (entry != null && outputIntact && entry.size == size && entry.modified == modified) {
+			return entry;
+		}
+
+		// Touched, but the same content
+		final String hash = hash(inputFile);
+		if (entry != null && outputIntact && entry.hash.equals(hash)) {
+			return new Entry(size, modified, hash);
+		}
+
+		System.out.println("Copy " + inputFile.getCanonicalPath() + " to " + outputFile.getCanonicalPath()
+				+ (entry == null ? " (new)" : outputIntact ? " (changed)" : outputFile.exists() ? " (output differs)"
+						: " (output missing)"));
+		copyFile(inputFile, outputFile);
+		return new Entry(size, modified, hash);
+	}
+
+	/** Read a manifest; empty if there is none. */
+	private static Map<String, Entry> readManifest(final File manifestFile) throws IOException {
+		final Map<String, Entry> entries = new TreeMap<String, Entry>();
+		if (!manifestFile.exists()) {
+			return entries;
+		}
+		final BufferedReader reader = new BufferedReader(new FileReader(manifestFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("#") || line.trim().length() == 0) {
+					continue;
+				}
+				final String[] fields = line.split("\t");
+				if (fields.length != 4) {
+					throw new IOException("Malformed manifest line, delete " + manifestFile + ": " + line);
+				}
+				entries.put(fields[0], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+			}
+		} finally {
+			reader.close();
+		}
+		return entries;
+	}
+
+	/** Write a manifest. */
+	private static void writeManifest(final File manifestFile, final Map<String, Entry> entries) throws IOException {
+		final File dir = manifestFile.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Unable to create " + dir);
+		}
+		final PrintWriter writer = new PrintWriter(new FileWriter(manifestFile));
+		try {
+			writer.print("# Generated by util.CopyStaticAssets -sync - delete to force a full copy\n");
+			writer.print("# file\tsize\tmodified\tsha1\n");
+			for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+				final Entry value = entry.getValue();
+				writer.print(entry.getKey() + "\t" + value.size + "\t" + value.modified + "\t" + value.hash + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/** Get the SHA-1 of a file's contents, in hex. */
+	private static String hash(final File file) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final byte[] buffer = new byte[8192];
+		final InputStream in = new FileInputStream(file);
+		try {
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, n);
 			}
+		} finally {
+			in.close();
 		}
+
+		final StringBuilder hex = new StringBuilder();
+		for (final byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
 	}
 
 	/**
@@ -53,7 +304,18 @@ public class CopyStaticAssets {
 		try {
 			source = new FileInputStream(sourceFile).getChannel();
 			destination = new FileOutputStream(destFile).getChannel();
-			destination.transferFrom(source, 0, source.size());
+
+			// transferFrom may transfer fewer bytes than asked for, so keep going until the whole file is copied
+			final long size = source.size();
+			long position = 0;
+			while (position < size) {
+				final long transferred = destination.transferFrom(source, position, size - position);
+				if (transferred <= 0) {
+					throw new IOException("Unable to copy " + sourceFile + ": stopped at " + position + " of " + size
+							+ " bytes");
+				}
+				position += transferred;
+			}
 		} finally {
 			if (source != null) {
 				source.close();
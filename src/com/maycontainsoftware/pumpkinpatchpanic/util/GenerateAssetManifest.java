@@ -0,0 +1,276 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Utility to generate the asset manifest, which records the files loaded for each GameAsset (the asset itself, plus
+ * the pages of atlases and fonts), along with each file's size and an estimate of the work needed to load it. The game
+ * uses the estimates to show loading progress in proportion to the work done, rather than the number of assets. The
+ * files are recorded for each Density, as atlases of other densities, and their pages, are loaded in place of the 1x
+ * atlases wherever the build has produced them.
+ * 
+ * The manifest is checked against the staging directory (see BuildBundle) as it is built: a GameAsset whose files are
+ * missing fails the build, rather than crashing the game at runtime, and files that nothing loads are reported as
+ * unused.
+ * 
+ * Run after GenerateAtlases, CopyStaticAssets and PreDecodeTextures, and before BuildBundle.
+ * 
+ * @author Charlie
+ */
+public class GenerateAssetManifest {
+
+	/** Name of the manifest - must match Assets. */
+	private static final String FILE_NAME = "assets.manifest";
+
+	/** Files loaded other than through GameAsset, which are not unused even though no GameAsset refers to them. */
+	private static final String[] OTHER_FILES = { "loading.atlas", "difficulty.json" };
+
+	/** Work to decode a compressed audio file into memory, per byte of file; roughly the MP3 compression ratio. */
+	private static final int SOUND_COST_PER_BYTE = 10;
+
+	/** Work to open a music file, which is streamed rather than decoded up front. */
+	private static final int MUSIC_COST = 16 * 1024;
+
+	public static void main(String[] args) throws Exception {
+
+		// Assets directory
+		final File assetsDir = new File(BuildBundle.STAGING_DIR);
+
+		final Class<?> gameAsset = Class.forName(GenerateRegionIds.PACKAGE + ".GameAsset");
+		final Field fileNameField = gameAsset.getDeclaredField("fileName");
+		final Field typeField = gameAsset.getDeclaredField("type");
+		fileNameField.setAccessible(true);
+		typeField.setAccessible(true);
+
+		final Class<?> density = Class.forName(GenerateRegionIds.PACKAGE + ".Density");
+		final Method getAtlasName = density.getDeclaredMethod("getAtlasName", String.class);
+		getAtlasName.setAccessible(true);
+
+		final List<String> lines = new ArrayList<String>();
+		final Set<String> missing = new TreeSet<String>();
+		final Set<String> used = new TreeSet<String>();
+		used.add(FILE_NAME);
+
+		for (final Object constant : gameAsset.getEnumConstants()) {
+			final String assetName = ((Enum<?>) constant).name();
+			final String fileName = (String) fileNameField.get(constant);
+			final String typeName = ((Class<?>) typeField.get(constant)).getSimpleName();
+
+			for (final Object densityConstant : density.getEnumConstants()) {
+				final String densityName = ((Enum<?>) densityConstant).name();
+
+				// The file actually loaded at this density, as chosen by Density.Resolver
+				String loadedName = fileName;
+				if (fileName.endsWith(".atlas")) {
+					final String atlasName = (String) getAtlasName.invoke(densityConstant, fileName);
+					if (new File(assetsDir, atlasName).exists()) {
+						loadedName = atlasName;
+					}
+				}
+
+				for (final String part : getParts(assetsDir, loadedName)) {
+					final File file = locate(assetsDir, part);
+					if (file == null) {
+						missing.add(assetName + ": " + part);
+						continue;
+					}
+					used.add(file.getName());
+
+					long bytes = file.length();
+					long cost = estimateCost(file, typeName);
+
+					// ETC1 pages bring their alpha planes with them (see Etc1AlphaBatch)
+					if (file.getName().endsWith(".etc1")) {
+						final File alpha = new File(assetsDir, file.getName().replace(".etc1", "_alpha.etc1"));
+						if (!alpha.exists()) {
+							missing.add(assetName + ": " + alpha.getName());
+							continue;
+						}
+						used.add(alpha.getName());
+						bytes += alpha.length();
+						cost += estimateCost(alpha, typeName);
+					}
+
+					// The AssetManager knows the asset itself by the name it was asked for, whichever file it loaded
+					final String name = part.equals(loadedName) ? fileName : part;
+					lines.add(assetName + "\t" + densityName + "\t" + name + "\t" + bytes + "\t" + cost);
+				}
+			}
+		}
+
+		// Files loaded directly, and their pages, at every density
+		for (final String otherFile : OTHER_FILES) {
+			final List<String> names = new ArrayList<String>();
+			names.add(otherFile);
+			if (otherFile.endsWith(".atlas")) {
+				for (final Object densityConstant : density.getEnumConstants()) {
+					names.add((String) getAtlasName.invoke(densityConstant, otherFile));
+				}
+			}
+			for (final String name : names) {
+				for (final String part : getParts(assetsDir, name)) {
+					final File file = locate(assetsDir, part);
+					if (file != null) {
+						used.add(file.getName());
+						used.add(file.getName().replace(".etc1", "_alpha.etc1"));
+					}
+				}
+			}
+		}
+
+		for (final File file : assetsDir.listFiles()) {
+			// PNGs replaced by pre-decoded textures are kept for PreDecodeTextures, but left out of the bundle
+			if (!used.contains(file.getName()) && !BuildBundle.isSuperseded(file)) {
+				System.out.println("Unused: " + file.getName());
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			for (final String entry : missing) {
+				System.out.println("Missing: " + entry);
+			}
+			System.out.println("Manifest not written");
+			System.exit(1);
+		}
+
+		final File manifestFile = new File(assetsDir, FILE_NAME);
+		final PrintWriter writer = new PrintWriter(new FileWriter(manifestFile));
+		try {
+			writer.print("# Generated by util.GenerateAssetManifest - do not edit.\n");
+			writer.print("# asset\tdensity\tfile\tbytes\tcost\n");
+			for (final String line : lines) {
+				writer.print(line + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		System.out.println("Generate " + manifestFile.getCanonicalPath() + " (" + lines.size() + " files)");
+	}
+
+	/**
+	 * Get the files loaded for an asset, in the order the AssetManager loads them: dependencies first, then the asset.
+	 * Names are those the AssetManager uses, which may differ from the files on disk (see locate()).
+	 */
+	private static List<String> getParts(final File assetsDir, final String fileName) throws IOException {
+		final List<String> parts = new ArrayList<String>();
+		final File file = new File(assetsDir, fileName);
+		if (file.exists()) {
+			if (fileName.endsWith(".atlas")) {
+				parts.addAll(readAtlasPages(file));
+			} else if (fileName.endsWith(".fnt")) {
+				parts.addAll(readFontPages(file));
+			}
+		}
+		parts.add(fileName);
+		return parts;
+	}
+
+	/** Read the page names from an atlas file. A page name is the first non-blank line after a blank line. */
+	private static List<String> readAtlasPages(final File atlasFile) throws IOException {
+		final List<String> pages = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(atlasFile));
+		try {
+			boolean expectPage = true;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().length() == 0) {
+					expectPage = true;
+				} else if (expectPage) {
+					pages.add(line.trim());
+					expectPage = false;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return pages;
+	}
+
+	/** Read the page names from a font file, from lines of the form: page id=0 file="name.png" */
+	private static List<String> readFontPages(final File fontFile) throws IOException {
+		final List<String> pages = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(fontFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("page ")) {
+					final int start = line.indexOf("file=\"") + 6;
+					final int end = line.indexOf('"', start);
+					if (start >= 6 && end > start) {
+						pages.add(line.substring(start, end));
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return pages;
+	}
+
+	/** Find the file actually loaded for a name: the file itself, or its pre-decoded replacement. */
+	private static File locate(final File assetsDir, final String name) {
+		if (name.endsWith(".png")) {
+			final File preDecoded = new File(assetsDir, name.substring(0, name.length() - 4) + ".ptx");
+			if (preDecoded.exists()) {
+				return preDecoded;
+			}
+		}
+		final File file = new File(assetsDir, name);
+		return file.exists() ? file : null;
+	}
+
+	/**
+	 * Estimate the work of loading a file, in units of roughly one byte read or written.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @param typeName
+	 *            The simple name of the asset's type.
+	 */
+	private static long estimateCost(final File file, final String typeName) throws IOException {
+		final String name = file.getName();
+		if (name.endsWith(".png")) {
+			// Inflated and decoded into a Pixmap, then uploaded
+			return file.length() + readPngPixels(file) * 4;
+		}
+		if (name.endsWith(".etc1")) {
+			// Inflated, then uploaded
+			return file.length() * 2;
+		}
+		if (typeName.equals("Sound")) {
+			return file.length() * SOUND_COST_PER_BYTE;
+		}
+		if (typeName.equals("Music")) {
+			return MUSIC_COST;
+		}
+		// Read as is: pre-decoded textures, atlas and font files
+		return file.length();
+	}
+
+	/** Read the number of pixels in a PNG, from its header. */
+	private static long readPngPixels(final File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			// Signature (8 bytes), IHDR length and type (8 bytes), then width and height
+			in.skipBytes(16);
+			final long width = in.readInt();
+			final long height = in.readInt();
+			return width * height;
+		} finally {
+			in.close();
+		}
+	}
+}
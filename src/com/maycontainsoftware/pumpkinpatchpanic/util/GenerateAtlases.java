@@ -2,6 +2,15 @@ package com.maycontainsoftware.pumpkinpatchpanic.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.tools.imagepacker.TexturePacker2;
@@ -10,19 +19,196 @@ import com.badlogic.gdx.tools.imagepacker.TexturePacker2.Settings;
 /**
  * Utility to pack images in a specific directory tree into texture atlases.
  * 
+ * With the -etc1 argument, the packed pages are then converted to ETC1 with a separate alpha plane (see CompressAtlas).
+ * 
+ * With the -densities argument, each atlas is also packed at half and double resolution, from images rasterized from
+ * their SVG sources where there are any (see ScaleImages). The game picks a density to suit the screen (see Density).
+ * 
+ * Atlases are only repacked when their input images or settings have changed since the last run (see AtlasCache); the
+ * -force argument repacks everything.
+ * 
+ * Each atlas (and each density of each atlas) is packed by a separate job, and the jobs run concurrently, one per
+ * processor; -threads N overrides the number. Jobs write disjoint files, so the output is the same as packing them one
+ * at a time. A report of what was packed, why, and how long it took is printed at the end, one atlas per line:
+ * 
+ * <pre>
+ * atlas	name	packed|unchanged	reason	milliseconds
+ * </pre>
+ * 
  * @author Charlie
  */
 public class GenerateAtlases {
 
-	public static void main(String[] args) throws IOException {
+	// Densities other than 1x: scale, and atlas name suffix - must match Density. Suffixes must not contain a dot, as
+	// TexturePacker2 only adds ".atlas" to a name without one, and names the pages by cutting the name at its last dot.
+	private static final float[] DENSITY_SCALES = { 0.5f, 2.0f };
+	static final String[] DENSITY_SUFFIXES = { "_05x", "_2x" };
+
+	/** Directory for scaled images. */
+	private static final String DENSITY_DIR = "./build/density";
+
+	/** Record of the inputs of each atlas when last packed. */
+	private static final String CACHE_FILE = "./build/atlases.cache";
+
+	/** Input directory. */
+	private static final String INPUT_DIR = "./assets/graphics/atlases";
+
+	/** Output directory. */
+	private static final String OUTPUT_DIR = BuildBundle.STAGING_DIR;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		final List<String> argList = Arrays.asList(args);
+		final boolean etc1 = argList.contains("-etc1");
+		final boolean densities = argList.contains("-densities");
+		final boolean force = argList.contains("-force");
+		final int threadsIndex = argList.indexOf("-threads");
+		final int threads = threadsIndex != -1 ? Integer.parseInt(argList.get(threadsIndex + 1)) : Runtime
+				.getRuntime().availableProcessors();
+
+		final AtlasCache cache = new AtlasCache(new File(CACHE_FILE));
+
+		// Decide how to scale before any job starts, so every job scales the same way
+		final boolean inkscape = densities && ScaleImages.probeInkscape();
+
+		// One job per atlas and density; name of atlas is the directory name
+		final List<AtlasJob> jobs = new ArrayList<AtlasJob>();
+		final File[] atlasDirectories = new File(INPUT_DIR).listFiles();
+		Arrays.sort(atlasDirectories);
+		for (final File atlasDirectory : atlasDirectories) {
+			jobs.add(new AtlasJob(cache, atlasDirectory, atlasDirectory.getName(), 1.0f, false, etc1, force));
+			if (densities) {
+				for (int i = 0; i < DENSITY_SCALES.length; i++) {
+					jobs.add(new AtlasJob(cache, atlasDirectory, atlasDirectory.getName() + DENSITY_SUFFIXES[i],
+							DENSITY_SCALES[i], inkscape, etc1, force));
+				}
+			}
+		}
 
-		// Input directory
-		final String inputDirStr = "./assets/graphics/atlases";
-		final File inputDir = new File(inputDirStr);
+		final long start = System.currentTimeMillis();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Future<String>> results = new ArrayList<Future<String>>();
+		try {
+			for (final AtlasJob job : jobs) {
+				results.add(executor.submit(job));
+			}
+
+			// Report in a fixed order, whichever jobs finish first
+			final List<String> report = new ArrayList<String>();
+			boolean failed = false;
+			for (int i = 0; i < jobs.size(); i++) {
+				try {
+					report.add(results.get(i).get());
+				} catch (ExecutionException e) {
+					System.out.println("Failed to pack " + jobs.get(i).name);
+					e.getCause().printStackTrace(System.out);
+					failed = true;
+				}
+			}
+			for (final String line : report) {
+				System.out.println(line);
+			}
+			System.out.println("Processed " + jobs.size() + " atlases on " + threads + " threads in "
+					+ (System.currentTimeMillis() - start) + "ms");
+			if (failed) {
+				System.exit(1);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Job to pack one atlas at one density, if it has changed.
+	 * 
+	 * @author Charlie
+	 */
+	private static class AtlasJob implements Callable<String> {
+
+		private final AtlasCache cache;
+		private final File atlasDirectory;
+		private final String name;
+		private final float scale;
+		private final boolean inkscape;
+		private final boolean etc1;
+		private final boolean force;
+
+		/**
+		 * @param cache
+		 *            The cache of inputs.
+		 * @param atlasDirectory
+		 *            The directory of 1x images.
+		 * @param name
+		 *            The name of the packed atlas.
+		 * @param scale
+		 *            The density, relative to 1x.
+		 * @param inkscape
+		 *            Whether to rasterize SVG sources with Inkscape when scaling.
+		 * @param etc1
+		 *            Whether to compress the packed pages.
+		 * @param force
+		 *            Whether to pack even if unchanged.
+		 */
+		AtlasJob(final AtlasCache cache, final File atlasDirectory, final String name, final float scale,
+				final boolean inkscape, final boolean etc1, final boolean force) {
+			this.cache = cache;
+			this.atlasDirectory = atlasDirectory;
+			this.name = name;
+			this.scale = scale;
+			this.inkscape = inkscape;
+			this.etc1 = etc1;
+			this.force = force;
+		}
 
-		// Output directory
-		final String outputDirStr = "../PumpkinPatchPanic-android/assets";
+		/** @return The report line for the atlas. */
+		@Override
+		public String call() throws IOException {
+			final long start = System.currentTimeMillis();
+			final boolean normal = scale == 1.0f;
+			final File atlasFile = new File(OUTPUT_DIR, name + ".atlas");
+
+			// 2x pages may be twice the size
+			final Settings settings = createSettings(scale > 1 ? 2048 : 1024);
+			final String inputsHash = AtlasCache.hashFiles(atlasDirectory,
+					normal ? Collections.<File> emptyList() : ScaleImages.getSources(atlasDirectory, inkscape));
+			final String settingsHash = AtlasCache.hashSettings(settings, "etc1=" + etc1
+					+ (normal ? "" : " scale=" + scale));
+
+			final String reason = force ? "forced" : cache.check(name, inputsHash, settingsHash, atlasFile);
+			if (reason != null) {
+				if (normal) {
+					TexturePacker2.process(settings, atlasDirectory.getCanonicalPath(), OUTPUT_DIR, name);
+				} else {
+					final File scaledDir = new File(DENSITY_DIR, name);
+					ScaleImages.scale(atlasDirectory, scaledDir, scale, inkscape);
+					TexturePacker2.process(settings, scaledDir.getCanonicalPath(), OUTPUT_DIR, name);
+				}
+
+				// Optionally compress the packed pages
+				if (etc1) {
+					CompressAtlas.compress(atlasFile);
+				}
+
+				// Generate the RegionId enumeration for the new atlas; other densities have the same regions
+				if (normal) {
+					GenerateRegionIds.generate(atlasFile, name, new File(GenerateRegionIds.SOURCE_DIR));
+				}
+
+				cache.put(name, inputsHash, settingsHash);
+			}
+
+			return "atlas\t" + name + "\t" + (reason == null ? "unchanged\t-" : "packed\t" + reason) + "\t"
+					+ (System.currentTimeMillis() - start);
+		}
+	}
 
+	/**
+	 * Create the packing settings.
+	 * 
+	 * @param maxSize
+	 *            The maximum page width and height.
+	 */
+	private static Settings createSettings(final int maxSize) {
 		final Settings settings = new Settings();
 
 		// Supporting OpenGL ES 1.0 - need to avoid non-PoT tectures
@@ -35,9 +221,9 @@ public class GenerateAtlases {
 		settings.minWidth = 256;
 		settings.minHeight = 256;
 
-		// But don't want to have anything bigger than 1024x1024
-		settings.maxWidth = 1024;
-		settings.maxHeight = 1024;
+		// But don't want to have anything bigger than 1024x1024 (2048x2048 for 2x)
+		settings.maxWidth = maxSize;
+		settings.maxHeight = maxSize;
 
 		// Always use linear filtering
 		settings.filterMag = TextureFilter.Linear;
@@ -53,12 +239,6 @@ public class GenerateAtlases {
 		// TiledDrawable exhibits odd lines between tiles, unless duplicatePadding is turned on
 		settings.duplicatePadding = true;
 
-		// Process all subdirectories
-		for (final File atlasDirectory : inputDir.listFiles()) {
-			final String subdirStr = atlasDirectory.getCanonicalPath();
-			// Name of atlas is the directory name
-			final String subdirName = atlasDirectory.getName();
-			TexturePacker2.process(settings, subdirStr, outputDirStr, subdirName);
-		}
+		return settings;
 	}
 }
@@ -0,0 +1,158 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Utility to generate a RegionId enumeration from a packed texture atlas file, so that game code can refer to regions
+ * by constant rather than by name. Run automatically by GenerateAtlases after packing, but can also be run on its own
+ * against existing atlas files. Atlases of other densities have the same regions as the 1x atlas, so no enumeration is
+ * generated for them.
+ * 
+ * @author Charlie
+ */
+public class GenerateRegionIds {
+
+	/** Directory to which generated source files are written. */
+	static final String SOURCE_DIR = "./src/com/maycontainsoftware/pumpkinpatchpanic";
+
+	/** Package of the generated source files. */
+	static final String PACKAGE = "com.maycontainsoftware.pumpkinpatchpanic";
+
+	public static void main(String[] args) throws IOException {
+
+		// Atlas directory
+		final File atlasDir = new File(BuildBundle.STAGING_DIR);
+
+		for (final File atlasFile : atlasDir.listFiles()) {
+			if (atlasFile.getName().endsWith(".atlas")) {
+				final String atlasName = atlasFile.getName().substring(0, atlasFile.getName().length() - 6);
+				if (!isDensityVariant(atlasName)) {
+					generate(atlasFile, atlasName, new File(SOURCE_DIR));
+				}
+			}
+		}
+	}
+
+	/** Check whether an atlas is another density of a 1x atlas (see GenerateAtlases -densities). */
+	private static boolean isDensityVariant(final String atlasName) {
+		for (final String suffix : GenerateAtlases.DENSITY_SUFFIXES) {
+			if (atlasName.endsWith(suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Generate the enumeration for a single atlas.
+	 * 
+	 * @param atlasFile
+	 *            The packed atlas file.
+	 * @param atlasName
+	 *            The name of the atlas, used to name the enumeration.
+	 * @param sourceDir
+	 *            The directory to write the source file to.
+	 * @throws IOException
+	 */
+	static void generate(final File atlasFile, final String atlasName, final File sourceDir) throws IOException {
+		final Set<String> regionNames = readRegionNames(atlasFile);
+		final String className = getClassName(atlasName);
+		final File outputFile = new File(sourceDir, className + ".java");
+
+		System.out.println("Generate " + outputFile.getCanonicalPath() + " (" + regionNames.size() + " regions)");
+
+		final PrintWriter writer = new PrintWriter(new FileWriter(outputFile));
+		try {
+			writer.print("package " + PACKAGE + ";\n");
+			writer.print("\n");
+			writer.print("/**\n");
+			writer.print(" * Regions in " + atlasFile.getName() + ".\n");
+			writer.print(" * \n");
+			writer.print(" * Generated by util.GenerateRegionIds - do not edit.\n");
+			writer.print(" */\n");
+			writer.print("enum " + className + " implements RegionId {\n");
+			for (final String regionName : regionNames) {
+				writer.print("\t" + getConstantName(regionName) + "(\"" + regionName + "\"),\n");
+			}
+			writer.print("\t;\n");
+			writer.print("\n");
+			writer.print("\tprivate final String regionName;\n");
+			writer.print("\n");
+			writer.print("\tprivate " + className + "(final String regionName) {\n");
+			writer.print("\t\tthis.regionName = regionName;\n");
+			writer.print("\t}\n");
+			writer.print("\n");
+			writer.print("\t@Override\n");
+			writer.print("\tpublic String getRegionName() {\n");
+			writer.print("\t\treturn regionName;\n");
+			writer.print("\t}\n");
+			writer.print("}\n");
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Read the distinct region names from a packed atlas file. An atlas file consists of one or more pages, each
+	 * introduced by a blank line and the page's image filename, followed by "key: value" page properties, then each
+	 * region's name followed by its indented properties.
+	 */
+	static Set<String> readRegionNames(final File atlasFile) throws IOException {
+		final Set<String> names = new TreeSet<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(atlasFile));
+		try {
+			boolean expectPage = true;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().length() == 0) {
+					// Blank line precedes a new page
+					expectPage = true;
+				} else if (expectPage) {
+					// Page image filename
+					expectPage = false;
+				} else if (!Character.isWhitespace(line.charAt(0)) && line.indexOf(':') == -1) {
+					// Unindented line without a property is a region name
+					names.add(line.trim());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return names;
+	}
+
+	/** Get the enumeration class name for an atlas, e.g. "loading" becomes "LoadingRegionId". */
+	static String getClassName(final String atlasName) {
+		final StringBuilder sb = new StringBuilder();
+		boolean upper = true;
+		for (final char c : atlasName.toCharArray()) {
+			if (Character.isLetterOrDigit(c)) {
+				sb.append(upper ? Character.toUpperCase(c) : c);
+				upper = false;
+			} else {
+				upper = true;
+			}
+		}
+		return sb.append("RegionId").toString();
+	}
+
+	/** Get the enumeration constant name for a region, e.g. "face1_evil" becomes "FACE1_EVIL". */
+	static String getConstantName(final String regionName) {
+		final StringBuilder sb = new StringBuilder();
+		if (!Character.isJavaIdentifierStart(regionName.charAt(0))) {
+			sb.append('_');
+		}
+		for (final char c : regionName.toCharArray()) {
+			sb.append(Character.isLetterOrDigit(c) ? c : '_');
+		}
+		return sb.toString().toUpperCase(Locale.ROOT);
+	}
+}
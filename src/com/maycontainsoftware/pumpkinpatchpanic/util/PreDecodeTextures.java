@@ -0,0 +1,122 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+/**
+ * Utility to convert every PNG in the staging directory (atlas pages, font pages and help panels) to a pre-decoded
+ * texture (".ptx") file, which the game memory-maps and uploads without decoding (see MappedTextureData). The game's
+ * texture loader prefers the pre-decoded version wherever one exists, so the names used by the game and in atlas and
+ * font files are unchanged. The PNGs are kept, so that CopyStaticAssets -sync finds them up to date, and BuildBundle
+ * leaves them out of the bundle.
+ * 
+ * Pre-decoded files are much larger than PNGs, so the Android build should store them uncompressed in the APK (which
+ * also allows them to be mapped). Run after GenerateAtlases and CopyStaticAssets. Requires the libGDX desktop natives,
+ * for PNG decoding.
+ * 
+ * @author Charlie
+ */
+public class PreDecodeTextures {
+
+	// File format - must match MappedTextureData
+
+	private static final String EXTENSION = ".ptx";
+	private static final int MAGIC = 0x50505458;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+
+	public static void main(String[] args) throws IOException {
+		GdxNativesLoader.load();
+
+		// Assets directory
+		final File assetsDir = new File(BuildBundle.STAGING_DIR);
+
+		long pngTotal = 0;
+		long ptxTotal = 0;
+		for (final File pngFile : assetsDir.listFiles()) {
+			final String name = pngFile.getName();
+			if (!name.endsWith(".png")) {
+				continue;
+			}
+			final File ptxFile = new File(assetsDir, name.substring(0, name.length() - 4) + EXTENSION);
+			pngTotal += pngFile.length();
+			convert(pngFile, ptxFile);
+			ptxTotal += ptxFile.length();
+		}
+		System.out.println("Total " + pngTotal + " -> " + ptxTotal + " bytes");
+	}
+
+	/**
+	 * Convert a single PNG.
+	 * 
+	 * @param pngFile
+	 *            The PNG.
+	 * @param ptxFile
+	 *            The pre-decoded file to write.
+	 * @throws IOException
+	 */
+	static void convert(final File pngFile, final File ptxFile) throws IOException {
+		Pixmap pixmap = new Pixmap(new FileHandle(pngFile));
+
+		// Only 8-bit RGB and RGBA are written; anything else (e.g. greyscale PNGs) is expanded to RGBA
+		if (pixmap.getFormat() != Format.RGBA8888 && pixmap.getFormat() != Format.RGB888) {
+			final Pixmap rgba = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Format.RGBA8888);
+			// Copy the pixels as they are; the default blending would composite them onto the blank Pixmap, darkening
+			// anything partly transparent. Blending is global, so restore the default afterwards
+			Pixmap.setBlending(Blending.None);
+			try {
+				for (int y = 0; y < pixmap.getHeight(); y++) {
+					for (int x = 0; x < pixmap.getWidth(); x++) {
+						rgba.drawPixel(x, y, pixmap.getPixel(x, y));
+					}
+				}
+			} finally {
+				Pixmap.setBlending(Blending.SourceOver);
+			}
+			pixmap.dispose();
+			pixmap = rgba;
+		}
+
+		final ByteBuffer pixels = pixmap.getPixels();
+		pixels.position(0);
+		final int length = pixels.remaining();
+
+		final FileOutputStream out = new FileOutputStream(ptxFile);
+		try {
+			final DataOutputStream header = new DataOutputStream(out);
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt(pixmap.getGLInternalFormat());
+			header.writeInt(pixmap.getGLFormat());
+			header.writeInt(pixmap.getGLType());
+			header.writeInt(pixmap.getWidth());
+			header.writeInt(pixmap.getHeight());
+			header.writeInt(length);
+			header.flush();
+			if (header.size() != HEADER_SIZE) {
+				throw new IllegalStateException("Header is " + header.size() + " bytes");
+			}
+
+			// Write all of the pixel data; a channel write may be partial
+			while (pixels.hasRemaining()) {
+				out.getChannel().write(pixels);
+			}
+		} finally {
+			out.close();
+		}
+
+		System.out.println("Convert " + pngFile.getName() + " (" + pixmap.getWidth() + "x" + pixmap.getHeight() + " "
+				+ pixmap.getFormat() + "): " + pngFile.length() + " -> " + ptxFile.length() + " bytes");
+
+		pixmap.dispose();
+	}
+}
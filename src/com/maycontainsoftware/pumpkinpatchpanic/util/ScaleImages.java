@@ -0,0 +1,229 @@
+package com.maycontainsoftware.pumpkinpatchpanic.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Utility to produce a copy of an atlas's input images at another density, for GenerateAtlases -densities. Where an
+ * image has an SVG source (in assets/graphics/source, matched by name), it is rasterized at the new size with Inkscape,
+ * so it is as sharp as it can be; otherwise the PNG is resampled. Nine-patch images keep their one-pixel border, with
+ * the split markers scaled to match.
+ * 
+ * Whether Inkscape is available is decided once, by probeInkscape(), before any atlas is scaled, so every atlas is
+ * scaled the same way however the jobs are scheduled. If Inkscape is available but fails on an image, scaling fails,
+ * rather than falling back to a different output.
+ * 
+ * @author Charlie
+ */
+public class ScaleImages {
+
+	/** Directory containing SVG sources. */
+	static final String SOURCE_DIR = "./assets/graphics/source";
+
+	/** Inkscape executable. */
+	private static final String INKSCAPE = "inkscape";
+
+	/**
+	 * Check whether Inkscape can be run.
+	 * 
+	 * @return True if Inkscape is installed and runs.
+	 */
+	static boolean probeInkscape() {
+		try {
+			final Process process = new ProcessBuilder(INKSCAPE, "--version").redirectErrorStream(true).start();
+			// Discard Inkscape's chatter, so it cannot block on a full pipe
+			while (process.getInputStream().read() != -1) {
+			}
+			if (process.waitFor() == 0) {
+				return true;
+			}
+		} catch (IOException e) {
+			// Not installed
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		System.out.println("Inkscape unavailable; resampling PNGs instead of rasterizing SVG sources");
+		return false;
+	}
+
+	/**
+	 * Scale every PNG in a directory.
+	 * 
+	 * @param inputDir
+	 *            The directory of 1x images.
+	 * @param outputDir
+	 *            The directory to write scaled images to, which is created if needed, and emptied if not.
+	 * @param scale
+	 *            The scale factor.
+	 * @param inkscape
+	 *            Whether to rasterize SVG sources with Inkscape (see probeInkscape()).
+	 * @throws IOException
+	 */
+	static void scale(final File inputDir, final File outputDir, final float scale, final boolean inkscape)
+			throws IOException {
+		final Map<String, File> sources = new HashMap<String, File>();
+		findSources(new File(SOURCE_DIR), sources);
+
+		if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+			throw new IOException("Unable to create " + outputDir);
+		}
+
+		// Remove images from a previous run, which may no longer be in the input
+		for (final File oldFile : outputDir.listFiles()) {
+			if (oldFile.getName().endsWith(".png") && !oldFile.delete()) {
+				throw new IOException("Unable to delete " + oldFile);
+			}
+		}
+
+		for (final File inputFile : inputDir.listFiles()) {
+			final String name = inputFile.getName();
+			if (!name.endsWith(".png")) {
+				continue;
+			}
+			final File outputFile = new File(outputDir, name);
+
+			if (name.endsWith(".9.png")) {
+				scaleNinePatch(inputFile, outputFile, scale);
+				continue;
+			}
+
+			final BufferedImage input = ImageIO.read(inputFile);
+			final int width = Math.max(1, Math.round(input.getWidth() * scale));
+			final int height = Math.max(1, Math.round(input.getHeight() * scale));
+
+			final File svg = inkscape ? sources.get(name.substring(0, name.length() - 4)) : null;
+			if (svg != null) {
+				rasterize(svg, outputFile, width, height);
+			} else {
+				ImageIO.write(resample(input, width, height), "png", outputFile);
+			}
+		}
+	}
+
+	/**
+	 * Get the SVG sources that would be rasterized when scaling a directory, so that changes to them can be detected.
+	 * 
+	 * @param inputDir
+	 *            The directory of 1x images.
+	 * @param inkscape
+	 *            Whether SVG sources are rasterized with Inkscape; if not, there are none.
+	 */
+	static List<File> getSources(final File inputDir, final boolean inkscape) {
+		if (!inkscape) {
+			return new ArrayList<File>();
+		}
+
+		final Map<String, File> sources = new HashMap<String, File>();
+		findSources(new File(SOURCE_DIR), sources);
+
+		final File[] inputFiles = inputDir.listFiles();
+		Arrays.sort(inputFiles);
+		final List<File> used = new ArrayList<File>();
+		for (final File inputFile : inputFiles) {
+			final String name = inputFile.getName();
+			if (name.endsWith(".png") && !name.endsWith(".9.png")) {
+				final File svg = sources.get(name.substring(0, name.length() - 4));
+				if (svg != null) {
+					used.add(svg);
+				}
+			}
+		}
+		return used;
+	}
+
+	/** Find all SVG sources under a directory, by name without extension. */
+	private static void findSources(final File dir, final Map<String, File> sources) {
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (final File file : files) {
+			if (file.isDirectory()) {
+				findSources(file, sources);
+			} else if (file.getName().endsWith(".svg")) {
+				sources.put(file.getName().substring(0, file.getName().length() - 4), file);
+			}
+		}
+	}
+
+	/**
+	 * Rasterize an SVG with Inkscape.
+	 * 
+	 * @throws IOException
+	 *             If Inkscape failed.
+	 */
+	private static void rasterize(final File svg, final File png, final int width, final int height)
+			throws IOException {
+		try {
+			final Process process = new ProcessBuilder(INKSCAPE, "--without-gui", "--export-png="
+					+ png.getAbsolutePath(), "--export-width=" + width, "--export-height=" + height,
+					svg.getAbsolutePath()).redirectErrorStream(true).start();
+			// Discard Inkscape's chatter, so it cannot block on a full pipe
+			while (process.getInputStream().read() != -1) {
+			}
+			if (process.waitFor() != 0 || !png.exists()) {
+				throw new IOException("Inkscape failed to rasterize " + svg);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while rasterizing " + svg);
+		}
+	}
+
+	/** Resample an image with bicubic interpolation. */
+	private static BufferedImage resample(final BufferedImage input, final int width, final int height) {
+		final BufferedImage output = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g = output.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(input, 0, 0, width, height, null);
+		} finally {
+			g.dispose();
+		}
+		return output;
+	}
+
+	/** Scale a nine-patch image: the content is resampled, and the split markers in the border are scaled. */
+	private static void scaleNinePatch(final File inputFile, final File outputFile, final float scale)
+			throws IOException {
+		final BufferedImage input = ImageIO.read(inputFile);
+		final int innerWidth = input.getWidth() - 2;
+		final int innerHeight = input.getHeight() - 2;
+		final int width = Math.max(1, Math.round(innerWidth * scale));
+		final int height = Math.max(1, Math.round(innerHeight * scale));
+
+		final BufferedImage output = new BufferedImage(width + 2, height + 2, BufferedImage.TYPE_INT_ARGB);
+		final BufferedImage inner = resample(input.getSubimage(1, 1, innerWidth, innerHeight), width, height);
+		final Graphics2D g = output.createGraphics();
+		try {
+			g.drawImage(inner, 1, 1, null);
+		} finally {
+			g.dispose();
+		}
+
+		// Each marker pixel in the output takes the value of the corresponding pixel in the input
+		for (int x = 0; x < width; x++) {
+			final int source = 1 + Math.min(innerWidth - 1, (int) (x / scale));
+			output.setRGB(1 + x, 0, input.getRGB(source, 0));
+			output.setRGB(1 + x, height + 1, input.getRGB(source, innerHeight + 1));
+		}
+		for (int y = 0; y < height; y++) {
+			final int source = 1 + Math.min(innerHeight - 1, (int) (y / scale));
+			output.setRGB(0, 1 + y, input.getRGB(0, source));
+			output.setRGB(width + 1, 1 + y, input.getRGB(innerWidth + 1, source));
+		}
+
+		ImageIO.write(output, "png", outputFile);
+	}
+}